@@ -0,0 +1,89 @@
+package account;
+
+import data.DataSaver;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Measures the size of UserInfoDataBase.ser and the time to save and load it, written by Java serialization and by
+ * AccountCodec, for N attendee accounts that each have one sign-up and one friend. The lazy load also reads the
+ * account of the first login. Saves include the fsync of DataSaver.
+ * Not part of the program. Compile it together with src and run it with the numbers of accounts as arguments, for
+ * example "java -Xmx3g -cp out account.CodecBench 10000 100000 1000000".
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class CodecBench {
+    private static final long HOUR = 3600_000L;
+
+    /**
+     * Runs the benchmark once for every number of accounts given
+     * @param args The numbers of accounts, 10000 and 100000 if none is given
+     * @throws Exception if a temp file cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) args = new String[]{"10000", "100000"};
+        System.out.println("N        java ser: size / save / load      binary: size / save / load / lazy load + login");
+        for (String arg : args) run(Integer.parseInt(arg));
+    }
+
+    private static void run(int numAccounts) throws IOException, ClassNotFoundException {
+        AccountManager manager = build(numAccounts);
+        Path directory = Files.createTempDirectory("codec-bench");
+        String serPath = directory.resolve("java.ser").toString();
+        String binaryPath = directory.resolve("binary.ser").toString();
+
+        DataSaver<AccountManager> javaSaver = new DataSaver<>(0);
+        long start = System.nanoTime();
+        javaSaver.saveToFile(serPath, manager);
+        long javaSave = millisSince(start);
+        start = System.nanoTime();
+        javaSaver.readFromFile(serPath);
+        long javaLoad = millisSince(start);
+
+        DataSaver<AccountManager> binarySaver = new DataSaver<>(new AccountCodec(), 0);
+        start = System.nanoTime();
+        binarySaver.saveToFile(binaryPath, manager);
+        long binarySave = millisSince(start);
+        start = System.nanoTime();
+        binarySaver.readFromFile(binaryPath);
+        long binaryLoad = millisSince(start);
+        start = System.nanoTime();
+        AccountManager lazy = new DataSaver<>(new AccountCodec(true), 0).readFromFile(binaryPath);
+        lazy.getPassword("user" + (numAccounts / 2));
+        long lazyLoad = millisSince(start);
+
+        System.out.printf("%-8d %6.1f MB / %5d ms / %5d ms    %6.1f MB / %5d ms / %5d ms / %5d ms%n", numAccounts,
+                megabytes(serPath), javaSave, javaLoad, megabytes(binaryPath), binarySave, binaryLoad, lazyLoad);
+        for (File file : directory.toFile().listFiles()) Files.delete(file.toPath());
+        Files.delete(directory);
+    }
+
+    // Every account signs up for one of a hundred events and has the next account as its friend
+    private static AccountManager build(int numAccounts) {
+        AccountManager manager = new AccountManager();
+        for (int i = 0; i < numAccounts; i++) manager.addAccount("attendee", "user" + i, "Password" + i);
+        long base = Timestamp.valueOf("2030-01-01 09:00:00").getTime();
+        for (int i = 0; i < numAccounts; i++) {
+            SortedSet<Timestamp[]> duration = new TreeSet<>((t1, t2) -> t1[0].compareTo(t2[0]));
+            long eventStart = base + (i % 100) * HOUR;
+            duration.add(new Timestamp[]{new Timestamp(eventStart), new Timestamp(eventStart + HOUR)});
+            manager.getEventObserver("user" + i).updateAdd("E" + (i % 100), duration);
+            manager.addFriend("user" + i, "user" + ((i + 1) % numAccounts));
+        }
+        return manager;
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static double megabytes(String path) {
+        return new File(path).length() / 1e6;
+    }
+}
@@ -0,0 +1,66 @@
+package account;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the heap taken by the friend lists of N users with 8 random friends each, kept as lists of distinct
+ * String instances as read from a file, and kept as UserIdLists over one UserSymbols of the AccountManager. The heap
+ * of the UserIdLists includes the UserSymbols. Heap is measured as used memory after GC.
+ * Not part of the program. Compile it together with src and run it with the number of users as argument, for
+ * example "java -Xmx3g -cp out account.FriendListBench 1000000".
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class FriendListBench {
+    private static final int FRIENDS = 8;
+
+    /**
+     * Runs the benchmark
+     * @param args The number of users, 1000000 if not given
+     */
+    public static void main(String[] args) {
+        int numUsers = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        long before = usedMemory();
+        Object[] lists = buildStringLists(numUsers);
+        long strings = usedMemory() - before;
+        System.out.printf("%d users with %d friends, List<String>: %d MB%n", lists.length, FRIENDS,
+                strings / 1_000_000);
+        lists = null;
+        before = usedMemory();
+        UserSymbols symbols = new UserSymbols();
+        lists = buildIdLists(numUsers, symbols);
+        long ids = usedMemory() - before;
+        System.out.printf("%d users with %d friends, UserIdList: %d MB%n", lists.length, FRIENDS, ids / 1_000_000);
+    }
+
+    // Every name is a new String, as it is when friend lists are read from a file
+    private static Object[] buildStringLists(int numUsers) {
+        Random random = new Random(16);
+        Object[] lists = new Object[numUsers];
+        for (int i = 0; i < numUsers; i++) {
+            List<String> friends = new ArrayList<>();
+            for (int k = 0; k < FRIENDS; k++) friends.add("username" + random.nextInt(numUsers));
+            lists[i] = friends;
+        }
+        return lists;
+    }
+
+    private static Object[] buildIdLists(int numUsers, UserSymbols symbols) {
+        Random random = new Random(16);
+        Object[] lists = new Object[numUsers];
+        for (int i = 0; i < numUsers; i++) {
+            UserIdList friends = new UserIdList(symbols);
+            for (int k = 0; k < FRIENDS; k++) friends.add("username" + random.nextInt(numUsers));
+            lists[i] = friends;
+        }
+        return lists;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
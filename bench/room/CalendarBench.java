@@ -0,0 +1,120 @@
+package room;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * Measures IntervalCalendar against the TreeMap schedule that Account and Room kept before it, whose comparator
+ * treats overlapping intervals as equal and whose free slot probe looked at the neighbours of the interval.
+ * Both are filled with the same one-hour slots at random whole hours, then asked about the same random one-hour
+ * probes that start at any minute. The answers of both are checked against a brute-force search.
+ * Not part of the program. Compile it together with src and run it with the number of slots and of probes as
+ * arguments, for example "java -cp out room.CalendarBench 10000 1000000".
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class CalendarBench {
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    /**
+     * Runs the benchmark
+     * @param args The number of slots and the number of probes, 10000 and 1000000 if not given
+     */
+    public static void main(String[] args) {
+        int numSlots = (args.length > 0) ? Integer.parseInt(args[0]) : 10_000;
+        int numProbes = (args.length > 1) ? Integer.parseInt(args[1]) : 1_000_000;
+        Random random = new Random(207);
+        long base = Timestamp.valueOf("2030-01-01 00:00:00").getTime();
+        // Four times as many hours as slots, so both free and busy probes are common
+        long[] slots = new long[numSlots];
+        Set<Long> taken = new HashSet<>();
+        for (int i = 0; i < numSlots; i++) {
+            long start;
+            do {
+                start = base + random.nextInt(numSlots * 4) * HOUR;
+            } while (!taken.add(start));
+            slots[i] = start;
+        }
+        long[] probes = new long[numProbes];
+        for (int i = 0; i < numProbes; i++) probes[i] = base + random.nextInt(numSlots * 4 * 60) * MINUTE;
+
+        long start = System.nanoTime();
+        TreeMap<Timestamp[], String> schedule = new TreeMap<>(CalendarBench::compareOverlapping);
+        for (int i = 0; i < numSlots; i++) {
+            schedule.put(new Timestamp[]{new Timestamp(slots[i]), new Timestamp(slots[i] + HOUR)}, "E" + i);
+        }
+        long treeMapInsert = millisSince(start);
+        start = System.nanoTime();
+        IntervalCalendar calendar = new IntervalCalendar();
+        for (int i = 0; i < numSlots; i++) calendar.put(slots[i], slots[i] + HOUR, "E" + i);
+        long calendarInsert = millisSince(start);
+
+        boolean[] treeMapFree = new boolean[numProbes];
+        start = System.nanoTime();
+        for (int i = 0; i < numProbes; i++) {
+            treeMapFree[i] = isAvailable(schedule, new Timestamp(probes[i]), new Timestamp(probes[i] + HOUR));
+        }
+        long treeMapProbe = millisSince(start);
+        boolean[] calendarFree = new boolean[numProbes];
+        start = System.nanoTime();
+        for (int i = 0; i < numProbes; i++) calendarFree[i] = calendar.isFree(probes[i], probes[i] + HOUR);
+        long calendarProbe = millisSince(start);
+
+        long[] sorted = slots.clone();
+        Arrays.sort(sorted);
+        int treeMapWrong = 0;
+        int calendarWrong = 0;
+        for (int i = 0; i < numProbes; i++) {
+            boolean free = isFree(sorted, probes[i], probes[i] + HOUR);
+            if (treeMapFree[i] != free) treeMapWrong++;
+            if (calendarFree[i] != free) calendarWrong++;
+        }
+        System.out.printf("%d slots, %d probes%n", numSlots, numProbes);
+        System.out.printf("TreeMap:          insert %5d ms, probe %5d ms, %d wrong answers%n",
+                treeMapInsert, treeMapProbe, treeMapWrong);
+        System.out.printf("IntervalCalendar: insert %5d ms, probe %5d ms, %d wrong answers%n",
+                calendarInsert, calendarProbe, calendarWrong);
+    }
+
+    // The comparator of the schedules before IntervalCalendar, where two overlapping intervals are the same
+    private static int compareOverlapping(Timestamp[] t1, Timestamp[] t2) {
+        if (!t1[1].after(t2[0])) return -1;
+        if (!t2[1].after(t1[0])) return 1;
+        return 0;
+    }
+
+    // The probe of Available before IntervalCalendar
+    private static boolean isAvailable(NavigableMap<Timestamp[], String> schedule, Timestamp startTime,
+                                       Timestamp endTime) {
+        Timestamp[] currTime = {startTime, endTime};
+        Timestamp[] lessThan = schedule.lowerKey(currTime);
+        Timestamp[] greaterThan;
+        if (lessThan == null) {
+            greaterThan = schedule.higherKey(currTime);
+            if (greaterThan == null) {
+                return schedule.size() == 0;
+            }
+        } else {
+            greaterThan = schedule.higherKey(lessThan);
+            if (greaterThan == null) {
+                return true;
+            }
+        }
+        return !currTime[1].after(greaterThan[0]);
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    // Checks the one-hour slots that start less than an hour before the probe starts, up to where it ends
+    private static boolean isFree(long[] sortedStarts, long start, long end) {
+        int i = Arrays.binarySearch(sortedStarts, start - HOUR);
+        if (i < 0) i = -i - 1;
+        for (; i < sortedStarts.length && sortedStarts[i] < end; i++) {
+            if (sortedStarts[i] + HOUR > start) return false;
+        }
+        return true;
+    }
+}
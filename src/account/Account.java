@@ -1,7 +1,9 @@
 package account;
 
+import data.MutationLog;
 import event.EventWithSpecObserver;
 import room.Available;
+import room.IntervalCalendar;
 import java.io.Serializable;
 import java.sql.Timestamp;
 import java.util.*;
@@ -13,11 +15,14 @@ import java.util.*;
  * @version 2.0.0
  */
 public abstract class Account implements Serializable, Available, EventWithSpecObserver {
-    protected NavigableMap<Timestamp[], String> schedule;
+    protected IntervalCalendar schedule;
     private final String username; // No getters as the username are already stored in use case
     private String password;
-    private List<String> friends;
-    private final Map<String, List<String>> messageMap;
+    private UserIdList friends;
+    private Mailbox mailbox;
+    private transient MutationLog mutationLog;
+    // The version of the manager when this account was last changed, 0 if it is unchanged since it was read
+    private transient long epoch;
 
     /**
      * Creates an account with the specified username and password.
@@ -27,27 +32,13 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
     public Account(String name, String password) {
         this.username = name;
         this.password = password;
-        this.friends = new ArrayList<>();
-        this.schedule = new TreeMap<> ((Comparator<Timestamp[]> & Serializable)
-                (Timestamp[] t1, Timestamp[]t2) -> {
-                    // t1 == [startTime1, endTime1]
-                    // t2 == [startTime2, endTime2]
-                    // They won't overlap
-                    if (!t1[1].after(t2[0])) {
-                        return -1;
-                    }
-                    if (!t2[1].after(t1[0])) {
-                        return 1;
-                    }
-                    return 0;
-                }
-
-        );
-        this.messageMap = new HashMap<>();
+        this.friends = new UserIdList();
+        this.schedule = new IntervalCalendar();
+        this.mailbox = new Mailbox();
     }
 
     private class ScheduleIterator implements Iterator<String[]>{
-        private final Iterator<Map.Entry<Timestamp[], String>> set = schedule.entrySet().iterator();
+        private final Iterator<Map.Entry<Timestamp[], String>> set = schedule.iterator();
 
         /**
          * Checks if the iterator has a next element
@@ -103,7 +94,7 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
      */
     protected void addEvent(Timestamp startTime, Timestamp endTime, String id){
         // Assume everything is valid
-        schedule.put(new Timestamp[]{startTime, endTime}, id);
+        schedule.put(startTime.getTime(), endTime.getTime(), id);
     }
 
     /**
@@ -113,14 +104,43 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
      * @param id A String representing the id of event want to be canceled.
      */
     protected void removeEvent(Timestamp startTime, Timestamp endTime, String id) {
-        for (Timestamp[] k : schedule.keySet()) {
-            if(k[0].equals(startTime) && k[1].equals(endTime)) {
-                if (schedule.get(k).equals(id)) {
-                    schedule.remove(k);
-                    return;
-                }
-            }
+        schedule.remove(startTime.getTime(), endTime.getTime(), id);
+    }
+
+    /**
+     * Cancels every event of the given ids in the schedule, looking at each time interval once.
+     * @param ids A set of String representing the ids of events want to be canceled.
+     */
+    protected void removeEvents(Set<String> ids) {
+        if (ids.isEmpty()) return;
+        List<Map.Entry<Timestamp[], String>> found = new ArrayList<>();
+        for (Map.Entry<Timestamp[], String> entry : schedule) {
+            if (ids.contains(entry.getValue())) found.add(entry);
         }
+        for (Map.Entry<Timestamp[], String> entry : found) {
+            schedule.remove(entry.getKey()[0].getTime(), entry.getKey()[1].getTime(), entry.getValue());
+        }
+    }
+
+    /**
+     * Takes over the schedule, friends and messages of another account of the same user, when the user is given
+     * another type of account. Nothing is copied, the other account is replaced by this one and is not used again.
+     * @param other The account of the same user that this account replaces
+     * @param messageKeys The message status whose messages are kept, the messages of other status are dropped
+     */
+    void takeOver(Account other, Collection<String> messageKeys) {
+        schedule = other.schedule;
+        friends = other.friends;
+        mailbox = other.mailbox;
+        mailbox.retainKeys(messageKeys);
+    }
+
+    /**
+     * Moves the friend list to the username ids of the AccountManager this account is put in
+     * @param symbols The UserSymbols of the AccountManager
+     */
+    void useSymbols(UserSymbols symbols) {
+        friends.useSymbols(symbols);
     }
 
     /**
@@ -200,13 +220,36 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
     /**
      * Gets the message list with a given key
      * @param key A String representation of the message status
-     * @return Am iterator of a list of message ids with given key
+     * @return Am iterator of a list of message ids with given key, which is not changed by later changes
      */
     protected Iterator<String> getMessageMap(String key) {
-        if (messageMap.containsKey(key)) {
-            return this.messageMap.get(key).iterator();
-        }
-        return Collections.emptyIterator();
+        return Collections.unmodifiableList(mailbox.getByKey(key)).iterator();
+    }
+
+    /**
+     * Gets all keys of the message map
+     * @return An iterator of the String representation of all message status this account has messages in
+     */
+    protected Iterator<String> getMessageKeys() {
+        return mailbox.getKeys().iterator();
+    }
+
+    /**
+     * Gets the mailbox of this account, for changing the status of many messages at once
+     * @return The Mailbox that keeps the status of every message of this account
+     */
+    Mailbox getMailbox() {
+        return mailbox;
+    }
+
+    /**
+     * Checks if a message is in the message list with a given key
+     * @param key A String representation of the message status
+     * @param messageId A String representation of the message id
+     * @return true iff the message id is in that list
+     */
+    protected boolean hasMessage(String key, String messageId) {
+        return mailbox.hasByKey(key, messageId);
     }
 
     /**
@@ -215,10 +258,7 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
      * @param messageId A String representation of the message id
      */
     protected void updateMessageMap(String key, String messageId) {
-        if (!messageMap.containsKey(key)) {
-            messageMap.put(key, new ArrayList<>());
-        }
-        messageMap.get(key).add(messageId);
+        mailbox.addByKey(key, messageId);
     }
 
     /**
@@ -228,9 +268,7 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
      */
     protected void removeMessageMap(String key, String messageId) {
         // Assuming every thing is checked
-        if (messageMap.containsKey(key)) {
-            messageMap.get(key).remove(messageId);
-        }
+        mailbox.removeByKey(key, messageId);
     }
 
     /**
@@ -245,16 +283,8 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
      * @param lst The iterator of message id list
      */
     protected void setMessageMap(String key, Iterator<String> lst) {
-        String value;
         while (lst.hasNext()) {
-            value = lst.next();
-            if (messageMap.containsKey(key)) {
-                messageMap.get(key).add(value);
-            } else {
-                List<String> temp = new ArrayList<>();
-                temp.add(value);
-                messageMap.put(key, temp);
-            }
+            mailbox.addByKey(key, lst.next());
         }
     }
 
@@ -272,8 +302,9 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
      */
     @Override
     public void updateAdd(String eventId, SortedSet<Timestamp[]> timeDuration) {
-        for (Timestamp[] t : timeDuration) {
-            this.schedule.put(t, eventId);
+        // Only changes are recorded, so an event that is already in the schedule leaves this account unchanged
+        if (schedule.putAll(timeDuration, eventId)) {
+            record("updateAdd", eventId, MutationLog.encodeDuration(timeDuration));
         }
     }
 
@@ -284,8 +315,8 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
      */
     @Override
     public void updateRemove(String eventId, SortedSet<Timestamp[]> timeDuration) {
-        for (Timestamp[] t : timeDuration) {
-            schedule.remove(t, eventId);
+        if (schedule.removeAll(timeDuration, eventId)) {
+            record("updateRemove", eventId, MutationLog.encodeDuration(timeDuration));
         }
     }
 
@@ -306,7 +337,7 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
     @Override
     public void updateAddWithSpec(String eventId, SortedSet<Timestamp[]> timeDuration) {
         this.updateAdd(eventId, timeDuration);
-        this.addToSpecialList(eventId);
+        this.updateSpecAdd(eventId);
     }
 
     /**
@@ -317,7 +348,7 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
     @Override
     public void updateRemoveWithSpec(String eventId, SortedSet<Timestamp[]> timeDuration) {
         this.updateRemove(eventId, timeDuration);
-        this.removeFromSpecialList(eventId);
+        this.updateSpecRemove(eventId);
     }
 
     /**
@@ -328,12 +359,7 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
      */
     @Override
     public boolean freeAtThisTime(SortedSet<Timestamp[]> timeDuration) {
-        for (Timestamp[] t : timeDuration) {
-            if (!this.isAvailable(t[0], t[1])) {
-                return false;
-            }
-        }
-        return true;
+        return schedule.isFree(timeDuration);
     }
 
     /**
@@ -342,7 +368,7 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
      */
     @Override
     public void updateSpecAdd(String eventId) {
-        this.addToSpecialList(eventId);
+        if (this.addToSpecialList(eventId)) record("updateSpecAdd", eventId);
     }
 
     /**
@@ -351,7 +377,7 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
      */
     @Override
     public void updateSpecRemove(String eventId) {
-        this.removeFromSpecialList(eventId);
+        if (this.removeFromSpecialList(eventId)) record("updateSpecRemove", eventId);
     }
 
     /**
@@ -362,4 +388,58 @@ public abstract class Account implements Serializable, Available, EventWithSpecO
     public boolean isVip() {
         return getType().equals("vip");
     }
+
+    /**
+     * Sets the log that the changes made to this account by events will be recorded into
+     * @param log An instance of MutationLog, or null to stop recording
+     */
+    protected void setMutationLog(MutationLog log) {
+        this.mutationLog = log;
+    }
+
+    /**
+     * Redoes one recorded change made to this account by events
+     * @param operation A String representation of the name of the observer update
+     * @param args The String representation of all arguments of this update, event id first
+     */
+    protected void replay(String operation, String[] args) {
+        switch (operation) {
+            case "updateAdd":
+                updateAdd(args[0], MutationLog.decodeDuration(args[1]));
+                break;
+            case "updateRemove":
+                updateRemove(args[0], MutationLog.decodeDuration(args[1]));
+                break;
+            case "updateSpecAdd":
+                updateSpecAdd(args[0]);
+                break;
+            case "updateSpecRemove":
+                updateSpecRemove(args[0]);
+                break;
+        }
+    }
+
+    private void record(String operation, String... args) {
+        if (mutationLog == null) return;
+        String[] withUsername = new String[args.length + 1];
+        withUsername[0] = username;
+        System.arraycopy(args, 0, withUsername, 1, args.length);
+        mutationLog.record(operation, withUsername);
+    }
+
+    /**
+     * Gets the modification epoch of this account
+     * @return The version of the manager when this account was last changed, 0 if it is unchanged since it was read
+     */
+    long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Sets the modification epoch of this account, called by the manager whenever it is changed
+     * @param epoch The current version of the manager
+     */
+    void setEpoch(long epoch) {
+        this.epoch = epoch;
+    }
 }
@@ -0,0 +1,237 @@
+package account;
+
+import data.BinaryReader;
+import data.BinaryWriter;
+import data.DeltaCodec;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Codec of AccountManager. Each account is written as one record with its type, username, password, friends,
+ * message map, schedule and special list. Usernames go through the dictionary, event and message ids are varints.
+ * In lazy mode, accounts are left in the file and each one is only read from it when it is first used.
+ * A delta holds the records of the accounts changed since the last checkpoint, in the same format, followed by the
+ * usernames of the accounts deleted since then. Both end with the number for the id of the next event of any
+ * conference.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class AccountCodec implements DeltaCodec<AccountManager> {
+    private final boolean lazy;
+
+    /**
+     * Creates an AccountCodec that reads every account right away
+     */
+    public AccountCodec() {
+        this(false);
+    }
+
+    /**
+     * Creates an AccountCodec
+     * @param lazy true iff accounts should be left in the file and only read when they are first used
+     */
+    public AccountCodec(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    /**
+     * Writes all accounts of the given AccountManager
+     * @param manager The AccountManager to be written
+     * @param out The BinaryWriter the AccountManager is written to
+     */
+    @Override
+    public void write(AccountManager manager, BinaryWriter out) {
+        writeAccounts(manager.getAccounts(), out);
+        out.writeVarInt(manager.getNumEvents());
+    }
+
+    /**
+     * Writes the given accounts the same way as write writes the accounts of an AccountManager, so accounts can be
+     * written without all being in memory at once
+     * @param accounts An iterator of the accounts, which may create each account as it is reached
+     * @param out The BinaryWriter the accounts are written to
+     */
+    public void writeAccounts(Iterator<Account> accounts, BinaryWriter out) {
+        // Accounts are written as they are reached, so their number is only known at the end
+        int numAccounts = out.reserveVarInt();
+        int written = 0;
+        while (accounts.hasNext()) {
+            writeAccount(accounts.next(), out);
+            written++;
+        }
+        out.writeVarIntAt(numAccounts, written);
+    }
+
+    /**
+     * Reads an AccountManager written by write
+     * @param in The BinaryReader the AccountManager is read from
+     * @return The AccountManager that is read
+     * @throws IOException if the data is damaged
+     */
+    @Override
+    public AccountManager read(BinaryReader in) throws IOException {
+        AccountManager manager = new AccountManager();
+        // Only a file can be read again for its records, other content is read right away
+        if (lazy && in.getSource() != null) {
+            manager.restoreLazily(new AccountStore(in, this));
+        } else {
+            int numAccounts = in.readVarInt();
+            for (int i = 0; i < numAccounts; i++) manager.restoreAccount(readAccount(in, manager.getSymbols()));
+        }
+        // Files written before event ids were shared by all conferences, or by UserDataConverter, end here
+        if (in.hasMore()) manager.restoreNumEvents(in.readVarInt());
+        return manager;
+    }
+
+    /**
+     * Migrates the AccountManager of a legacy ser file
+     * @param legacy The AccountManager read by LegacyInputStream
+     * @return The AccountManager with the same accounts
+     * @throws IOException if legacy is not an AccountManager, or an account has an unknown type
+     */
+    @Override
+    public AccountManager migrate(Object legacy) throws IOException {
+        if (!(legacy instanceof data.legacy.AccountManager)) throw new StreamCorruptedException("not accounts");
+        AccountManager manager = new AccountManager();
+        for (data.legacy.Account old : ((data.legacy.AccountManager) legacy).getAccounts()) {
+            Account account = new AccountFactory().getAccount(old.getType(), old.getUsername(), old.getPassword());
+            if (account == null) throw new StreamCorruptedException("unknown account type " + old.getType());
+            account.useSymbols(manager.getSymbols());
+            for (String friend : old.getFriends()) account.addFriend(friend);
+            for (Map.Entry<String, List<String>> messageIds : old.getMessageMap().entrySet()) {
+                account.setMessageMap(messageIds.getKey(), messageIds.getValue().iterator());
+            }
+            for (Map.Entry<Timestamp[], String> entry : old.getSchedule().entrySet()) {
+                account.addEvent(entry.getKey()[0], entry.getKey()[1], entry.getValue());
+            }
+            for (String eventId : old.getSpecialList()) account.addToSpecialList(eventId);
+            manager.restoreAccount(account);
+        }
+        return manager;
+    }
+
+    /**
+     * Gets the current modification epoch of the given AccountManager
+     * @param manager The AccountManager
+     * @return The number of mutations made to the AccountManager since it was created or read
+     */
+    @Override
+    public long getEpoch(AccountManager manager) {
+        return manager.getVersion();
+    }
+
+    /**
+     * Writes the accounts of the given AccountManager changed after the given epoch
+     * @param manager The AccountManager to be written
+     * @param sinceEpoch The modification epoch of the last checkpoint
+     * @param out The BinaryWriter the changed accounts are written to
+     */
+    @Override
+    public void writeDelta(AccountManager manager, long sinceEpoch, BinaryWriter out) {
+        List<Account> accounts = toList(manager.getAccountsChangedSince(sinceEpoch));
+        out.writeVarInt(accounts.size());
+        for (Account account : accounts) writeAccount(account, out);
+        List<String> deleted = toList(manager.getAccountsRemovedSince(sinceEpoch));
+        out.writeVarInt(deleted.size());
+        for (String username : deleted) out.writeSymbol(username);
+        out.writeVarInt(manager.getNumEvents());
+    }
+
+    /**
+     * Reads the accounts written by writeDelta into the given AccountManager, in place of the old ones, and takes out
+     * the deleted ones
+     * @param manager The AccountManager read from the snapshot and the deltas before this one
+     * @param in The BinaryReader the changed accounts are read from
+     * @throws IOException if the data is damaged
+     */
+    @Override
+    public void readDelta(AccountManager manager, BinaryReader in) throws IOException {
+        int numAccounts = in.readVarInt();
+        for (int i = 0; i < numAccounts; i++) manager.replaceAccount(readAccount(in, manager.getSymbols()));
+        // Deltas written before accounts could be deleted end here
+        if (!in.hasMore()) return;
+        int numDeleted = in.readVarInt();
+        for (int i = 0; i < numDeleted; i++) manager.removeRestoredAccount(in.readSymbol());
+        if (in.hasMore()) manager.restoreNumEvents(in.readVarInt());
+    }
+
+    private void writeAccount(Account account, BinaryWriter out) {
+        out.beginRecord();
+        out.writeSymbol(account.getType());
+        out.writeSymbol(account.getName());
+        out.writeString(account.getPassword());
+
+        List<String> friends = toList(account.getFriends());
+        out.writeVarInt(friends.size());
+        for (String friend : friends) out.writeSymbol(friend);
+
+        List<String> keys = toList(account.getMessageKeys());
+        out.writeVarInt(keys.size());
+        for (String key : keys) {
+            out.writeSymbol(key);
+            List<String> messageIds = toList(account.getMessageMap(key));
+            out.writeVarInt(messageIds.size());
+            for (String messageId : messageIds) out.writeId('M', messageId);
+        }
+
+        out.writeVarInt(account.schedule.size());
+        for (Map.Entry<Timestamp[], String> entry : account.schedule) {
+            out.writeInterval(entry.getKey());
+            out.writeId('E', entry.getValue());
+        }
+
+        List<String> specialList = toList(account.getSpecialList());
+        out.writeVarInt(specialList.size());
+        for (String eventId : specialList) out.writeId('E', eventId);
+        out.endRecord();
+    }
+
+    /**
+     * Reads one account record
+     * @param in The BinaryReader positioned at the start of the record
+     * @param symbols The UserSymbols the friend list of the account is read into
+     * @return The account that is read
+     * @throws IOException if the data is damaged
+     */
+    Account readAccount(BinaryReader in, UserSymbols symbols) throws IOException {
+        int end = in.beginRecord();
+        String type = in.readSymbol();
+        Account account = new AccountFactory().getAccount(type, in.readSymbol(), in.readString());
+        if (account == null) throw new StreamCorruptedException("unknown account type " + type);
+        account.useSymbols(symbols);
+
+        int numFriends = in.readVarInt();
+        for (int i = 0; i < numFriends; i++) account.addFriend(in.readSymbol());
+
+        int numKeys = in.readVarInt();
+        for (int i = 0; i < numKeys; i++) {
+            String key = in.readSymbol();
+            List<String> messageIds = new ArrayList<>();
+            int numMessages = in.readVarInt();
+            for (int j = 0; j < numMessages; j++) messageIds.add(in.readId('M'));
+            account.setMessageMap(key, messageIds.iterator());
+        }
+
+        int numEvents = in.readVarInt();
+        for (int i = 0; i < numEvents; i++) {
+            Timestamp[] interval = in.readInterval();
+            account.addEvent(interval[0], interval[1], in.readId('E'));
+        }
+
+        int numSpecial = in.readVarInt();
+        for (int i = 0; i < numSpecial; i++) account.addToSpecialList(in.readId('E'));
+        in.endRecord(end);
+        return account;
+    }
+
+    private <E> List<E> toList(Iterator<E> iterator) {
+        List<E> lst = new ArrayList<>();
+        if (iterator != null) iterator.forEachRemaining(lst::add);
+        return lst;
+    }
+}
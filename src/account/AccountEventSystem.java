@@ -144,12 +144,13 @@ public class AccountEventSystem {
      */
     public void viewEventsAttendable(String username, EventManager eventManager, boolean isVIP) {
         boolean accountIsVip = accountManager.checkVIP(username);
-        Map<String, SortedSet<Timestamp[]>> m = eventManager.getAllEventTime(accountIsVip, isVIP);
-        List<String> allEvents = accountManager.getAvailableEvent(m, username);
+        List<String> allEvents = accountManager.getAvailableEvent(eventManager.getUpcomingEvents(accountIsVip, isVIP),
+                eventManager::getEventSlots, username, 0, Integer.MAX_VALUE);
         if (allEvents.size() == 0) {
             presenter.printNotAvailable();
         } else {
-            presenter.printEventList(allEvents, m, "Here are all events you are able to attend:");
+            presenter.printEventList(allEvents, eventManager::getEventSlots,
+                    "Here are all events you are able to attend:");
         }
     }
 
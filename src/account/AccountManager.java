@@ -1,29 +1,172 @@
 package account;
 
+import data.Journaled;
+import data.MutationLog;
 import event.EventWithSpecObserver;
 import java.io.Serializable;
+import java.lang.ref.SoftReference;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.function.Function;
 
 /**
- * A use case class that can manager Account entity. Implements Serializable.
- * It stores all accounts。
+ * A use case class that can manager Account entity. Implements Serializable, Journaled.
+ * It stores all accounts。 Every mutation is recorded into the attached MutationLog, if there is one.
+ * Accounts are found by username in one primary index, and secondary indexes of the usernames of each type and of
+ * all VIP accounts are kept up to date with it, so questions about types are answered without reading accounts.
+ * When read lazily from an AccountStore, an account is only read from the file when it is first used. Accounts
+ * that are only read are softly referenced and can be dropped under memory pressure, accounts that are changed are
+ * kept.
  * @author Group0694
  * @version 2.0.0
  */
 
-public class AccountManager implements Serializable {
+public class AccountManager implements Serializable, Journaled {
 
-    // This maps the type of the account to another map which maps the username of a account to the account entity
-    private final Map<String, Map<String, Account>> allAccounts = new HashMap<>();
+    // The primary index, which maps the username of every account to the account entity
+    private final Map<String, Account> allAccounts = new HashMap<>();
+    // This maps the type of the account in lower case to the usernames of all accounts of that type
+    private final Map<String, Set<String>> usernamesByType = new HashMap<>();
+    // The usernames of all accounts that are VIP, which is decided by the type of the account
+    private final Set<String> vipUsernames = new HashSet<>();
+    private final Map<String, Boolean> vipTypes = new HashMap<>();
     private final String[] accountTypes = {"Attendee", "Organizer", "Speaker", "VIP"};
+    // The number for the id of the next event of any conference, kept here since every conference has these accounts
+    private int numEvents;
+    private transient MutationLog mutationLog;
+    // Number of mutations since this manager was created or read, the manager is unchanged while it stays the same
+    private transient long version;
+    // Where accounts that are mapped to null in allAccounts are read from, if this manager is read lazily
+    private transient AccountStore store;
+    private transient Map<String, SoftReference<Account>> cleanAccounts;
+    // When every speaker is busy, built when it is first asked for and then kept up to date
+    private transient SpeakerAvailability speakerAvailability;
+    // The friend lists of all accounts with their reverse edges, built when it is first asked for and then kept up to
+    // date
+    private transient FriendGraph friendGraph;
+    // The usernames of deleted accounts, mapped to the version they were deleted at, written in deltas by
+    // AccountCodec
+    private transient Map<String, Long> removedAccounts;
+    // The ids of the usernames in the friend lists and the friend graph of this manager
+    private transient UserSymbols symbols = new UserSymbols();
 
     private Account findAccountByUsername(String username){
-        for (String type : allAccounts.keySet()){
-            Account account = (allAccounts.get(type) != null) ? allAccounts.get(type).get(username) : null;
-            if (account != null) return account;
+        return allAccounts.containsKey(username) ? resolve(username) : null;
+    }
+
+    // Accounts that are changed, or handed out to events, stay in memory until the manager is saved
+    private Account findAccountForUpdate(String username){
+        Account account = findAccountByUsername(username);
+        if (account != null) {
+            allAccounts.put(username, account);
+            if (cleanAccounts != null) cleanAccounts.remove(username);
         }
-        return null;
+        return account;
+    }
+
+    // Also marks the account as changed by the mutation that is recorded next
+    private Account findAccountToChange(String username){
+        Account account = findAccountForUpdate(username);
+        if (account != null) account.setEpoch(version + 1);
+        return account;
+    }
+
+    // Changes made to an account by events are recorded by this manager, and mark the account as changed
+    private MutationLog logFor(Account account) {
+        return (operation, args) -> {
+            record(operation, args);
+            account.setEpoch(version);
+            // args are the username, the event id and the duration
+            if (operation.equals("updateAdd") || operation.equals("updateRemove"))
+                refreshAvailability(args[0], MutationLog.decodeDuration(args[2]));
+        };
+    }
+
+    private Account resolve(String username) {
+        Account account = allAccounts.get(username);
+        return (account != null) ? account : loadAccount(username, true);
+    }
+
+    // Puts the account, or null for an account that stays in the AccountStore, into the primary and secondary indexes
+    private void index(String type, String username, Account account) {
+        unindex(username);
+        if (account != null) account.useSymbols(symbols);
+        allAccounts.put(username, account);
+        usernamesByType.computeIfAbsent(type.toLowerCase(), k -> new HashSet<>()).add(username);
+        if (isVIPType(type)) vipUsernames.add(username);
+        if (speakerAvailability != null && type.equalsIgnoreCase("speaker")) {
+            // A speaker that is not read yet is only added when the index is built again
+            if (account == null) speakerAvailability = null;
+            else speakerAvailability.add(account);
+        }
+    }
+
+    private void unindex(String username) {
+        Account account = allAccounts.remove(username);
+        if (account != null) {
+            Set<String> usernames = usernamesByType.get(account.getType().toLowerCase());
+            if (usernames != null) usernames.remove(username);
+        } else {
+            // The type of an account that is not read yet is not known here
+            for (Set<String> usernames : usernamesByType.values()) usernames.remove(username);
+        }
+        vipUsernames.remove(username);
+        if (speakerAvailability != null) speakerAvailability.remove(username);
+    }
+
+    private void refreshAvailability(String username, SortedSet<Timestamp[]> timeDuration) {
+        if (speakerAvailability != null) speakerAvailability.refresh(username, timeDuration);
+    }
+
+    // Speakers in the index are kept in memory, the same as accounts handed out to events
+    private SpeakerAvailability getSpeakerAvailability() {
+        if (speakerAvailability == null) {
+            SpeakerAvailability availability = new SpeakerAvailability();
+            for (String speaker : getUsernameForType("speaker")) {
+                Account account = findAccountForUpdate(speaker);
+                if (account != null) availability.add(account);
+            }
+            speakerAvailability = availability;
+        }
+        return speakerAvailability;
+    }
+
+    // Accounts are read one by one to build the graph without being kept
+    private FriendGraph getFriendGraph() {
+        if (friendGraph == null) {
+            FriendGraph graph = new FriendGraph(symbols);
+            Iterator<Account> accounts = getAccounts();
+            while (accounts.hasNext()) {
+                Account account = accounts.next();
+                Iterator<String> friends = account.getFriends();
+                while (friends.hasNext()) graph.add(account.getName(), friends.next());
+            }
+            friendGraph = graph;
+        }
+        return friendGraph;
+    }
+
+    // Every account of a type is VIP or not, so a new account of each type is asked once
+    private boolean isVIPType(String type) {
+        return vipTypes.computeIfAbsent(type.toLowerCase(), k -> {
+            Account sample = new AccountFactory().getAccount(k, "", "");
+            return sample != null && sample.isVIP();
+        });
+    }
+
+    private Account loadAccount(String username, boolean cache) {
+        if (store == null) return null;
+        SoftReference<Account> cached = (cleanAccounts == null) ? null : cleanAccounts.get(username);
+        Account account = (cached == null) ? null : cached.get();
+        if (account != null) return account;
+        account = store.load(username, symbols);
+        if (account == null) return null;
+        account.setMutationLog(logFor(account));
+        if (cache) {
+            if (cleanAccounts == null) cleanAccounts = new HashMap<>();
+            cleanAccounts.put(username, new SoftReference<>(account));
+        }
+        return account;
     }
 
     /**
@@ -33,31 +176,27 @@ public class AccountManager implements Serializable {
      * @return true iff the account of a given username is the type of given type
      */
     boolean isAccountType(String username, String type) {
-        if (allAccounts.containsKey(type)) {
-            return allAccounts.get(type).containsKey(username);
-        }
-        return false;
+        Set<String> usernames = usernamesByType.get(type.toLowerCase());
+        return usernames != null && usernames.contains(username);
     }
 
     /**
-     * Checks if this user exist.
+     * Checks if this user exist. Every username is in the primary index, so no account is read.
      * @param username A string representing the username of the account for checking.
      * @return true iff the account with given username exists, false if the account does not exist.
      */
     public boolean checkUser(String username) {
-        return getAccountInfo(username) != null;
+        return allAccounts.containsKey(username);
     }
 
     /**
      * Gets all usernames of accounts basing on the type
      * @param type A string represents the type of accounts needed.
-     * @return a List of Strings that represent all usernames of the given type of accounts.
+     * @return an unmodifiable view of all usernames of the given type of accounts, which follows later changes.
      */
-    public List<String> getUsernameForType(String type){
-        List<String> result = new ArrayList<>();
-        Map<String, Account> users = allAccounts.get(type.toLowerCase());
-        if (users != null) {result.addAll(users.keySet());}
-        return result;
+    public Collection<String> getUsernameForType(String type){
+        Set<String> users = usernamesByType.get(type.toLowerCase());
+        return (users == null) ? Collections.emptySet() : Collections.unmodifiableSet(users);
     }
 
     /**
@@ -81,9 +220,195 @@ public class AccountManager implements Serializable {
      * @param password A string represents the password of this account.
      */
     public void addAccount(String accountType, String username, String password) {
-        AccountFactory af = new AccountFactory();
-        allAccounts.computeIfAbsent(accountType.toLowerCase(), k -> new HashMap<>());
-        allAccounts.get(accountType.toLowerCase()).put(username, af.getAccount(accountType, username, password));
+        putAccount(accountType, username, password);
+        record("addAccount", accountType, username, password);
+    }
+
+    private void putAccount(String accountType, String username, String password) {
+        Account account = new AccountFactory().getAccount(accountType, username, password);
+        if (account == null) return;
+        account.setMutationLog(logFor(account));
+        account.setEpoch(version + 1);
+        if (cleanAccounts != null) cleanAccounts.remove(username);
+        if (removedAccounts != null) removedAccounts.remove(username);
+        index(accountType, username, account);
+    }
+
+    /**
+     * Deletes an account. It is taken out of the friend lists that have it, which are found through the reverse edges
+     * of the friend graph, so no other account is looked at.
+     * The events it attends or runs are detached by EventManager, using getAttachedEvents before the account is
+     * deleted, and the messages it sent are withdrawn from their receivers by the message controller.
+     * @param username A string represents the username of the account.
+     * @return A list of the ids of the messages the account sent, or null if the account does not exist. It will be
+     * used to withdraw those messages from their receivers.
+     */
+    List<String> deleteAccount(String username) {
+        Account account = findAccountByUsername(username);
+        if (account == null) return null;
+        FriendGraph graph = getFriendGraph();
+        for (String other : graph.getFriendOf(username)) {
+            Account friendOf = findAccountToChange(other);
+            if (friendOf != null) friendOf.removeFriend(username);
+        }
+        graph.removeUser(username);
+        // No friend list has the username any more
+        symbols.release(username);
+        List<String> sent = account.getMailbox().get(Mailbox.SENT);
+        sent.addAll(account.getMailbox().get(Mailbox.ARCHIVED_SENT));
+        unindex(username);
+        if (cleanAccounts != null) cleanAccounts.remove(username);
+        record("deleteAccount", username);
+        if (removedAccounts == null) removedAccounts = new HashMap<>();
+        removedAccounts.put(username, version);
+        return sent;
+    }
+
+    /**
+     * Gets the events an account is attached to, the ones in its schedule and the ones in its special list, which
+     * are the events it organizes, hosts or attends as a VIP.
+     * @param username A string represents the username of the account.
+     * @return A list of event ids without repeats, or null if the account does not exist.
+     */
+    List<String> getAttachedEvents(String username) {
+        Account account = findAccountByUsername(username);
+        if (account == null) return null;
+        Set<String> eventIds = new LinkedHashSet<>();
+        for (Map.Entry<Timestamp[], String> entry : account.schedule) eventIds.add(entry.getValue());
+        Iterator<String> specialList = account.getSpecialList();
+        if (specialList != null) specialList.forEachRemaining(eventIds::add);
+        return new ArrayList<>(eventIds);
+    }
+
+    /**
+     * Gets the usernames of the accounts deleted after the given modification epoch, used when a delta is written by
+     * AccountCodec
+     * @param epoch The modification epoch of the last checkpoint
+     * @return An iterator of the usernames of the accounts deleted since then
+     */
+    Iterator<String> getAccountsRemovedSince(long epoch) {
+        List<String> usernames = new ArrayList<>();
+        if (removedAccounts != null) {
+            for (Map.Entry<String, Long> removed : removedAccounts.entrySet()) {
+                if (removed.getValue() > epoch) usernames.add(removed.getKey());
+            }
+        }
+        return usernames.iterator();
+    }
+
+    /**
+     * Takes out an account that a delta read by AccountCodec says is deleted, without recording it. The friend lists
+     * it was taken out of are in the same delta.
+     * @param username A string represents the username of the account.
+     */
+    void removeRestoredAccount(String username) {
+        unindex(username);
+        if (cleanAccounts != null) cleanAccounts.remove(username);
+        friendGraph = null;
+    }
+
+    /**
+     * Gets all accounts, used when this manager is written by AccountCodec. Accounts never used are read from the
+     * AccountStore one by one as the iterator reaches them, and are not kept, so they are not all in memory at once.
+     * @return An iterator of all accounts of every type
+     */
+    Iterator<Account> getAccounts() {
+        Iterator<Map.Entry<String, Account>> entries = allAccounts.entrySet().iterator();
+        return new Iterator<Account>() {
+            private Account next = findNext();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Account next() {
+                if (next == null) throw new NoSuchElementException();
+                Account account = next;
+                next = findNext();
+                return account;
+            }
+
+            private Account findNext() {
+                while (entries.hasNext()) {
+                    Map.Entry<String, Account> entry = entries.next();
+                    Account account = (entry.getValue() != null) ? entry.getValue()
+                            : loadAccount(entry.getKey(), false);
+                    if (account != null) return account;
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Gets the ids of the usernames of this manager, used by AccountCodec to read friend lists straight into them
+     * @return The UserSymbols of this manager
+     */
+    UserSymbols getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Puts an account read by AccountCodec back into this manager, without recording it
+     * @param account The account to be put back
+     */
+    void restoreAccount(Account account) {
+        account.setMutationLog(logFor(account));
+        index(account.getType(), account.getName(), account);
+    }
+
+    /**
+     * Gets the accounts changed after the given modification epoch, used when a delta is written by AccountCodec
+     * @param epoch The modification epoch of the last checkpoint
+     * @return An iterator of the accounts changed since then
+     */
+    Iterator<Account> getAccountsChangedSince(long epoch) {
+        List<Account> accounts = new ArrayList<>();
+        // Accounts that are not in memory, or only softly referenced, are unchanged
+        for (Account account : allAccounts.values()) {
+            if (account != null && account.getEpoch() > epoch) accounts.add(account);
+        }
+        return accounts.iterator();
+    }
+
+    /**
+     * Puts an account read from a delta by AccountCodec into this manager in place of the old one, which may be of
+     * another type, without recording it
+     * @param account The account to be put in
+     */
+    void replaceAccount(Account account) {
+        if (cleanAccounts != null) cleanAccounts.remove(account.getName());
+        restoreAccount(account);
+    }
+
+    /**
+     * Gets the number for the id of the next event of any conference, used when this manager is written by
+     * AccountCodec
+     * @return The number for the id of the next event
+     */
+    int getNumEvents() {
+        return numEvents;
+    }
+
+    /**
+     * Sets the number for the id of the next event of any conference, read by AccountCodec. It never goes down
+     * @param numEvents The number for the id of the next event
+     */
+    void restoreNumEvents(int numEvents) {
+        this.numEvents = Math.max(this.numEvents, numEvents);
+    }
+
+    /**
+     * Uses the given AccountStore for all accounts in it, used when this manager is read lazily by AccountCodec
+     * @param store The AccountStore that accounts are read from when they are first used
+     */
+    void restoreLazily(AccountStore store) {
+        this.store = store;
+        for (Map.Entry<String, String> account : store.getTypes().entrySet()) {
+            index(account.getValue(), account.getKey(), null);
+        }
     }
 
     /**
@@ -126,7 +451,7 @@ public class AccountManager implements Serializable {
      * @return true iff this account exists and is available at the given time list
      */
     public boolean signUpEvent(SortedSet<Timestamp[]> timeDuration, String event, String username){
-        Account curAccount = findAccountByUsername(username);
+        Account curAccount = findAccountToChange(username);
         if (curAccount == null){
             // curAccount.addEvent(startTime, endTime, event);
             return false;
@@ -139,6 +464,8 @@ public class AccountManager implements Serializable {
         for (Timestamp[] t : timeDuration) {
             curAccount.addEvent(t[0], t[1], event);
         }
+        refreshAvailability(username, timeDuration);
+        record("signUpEvent", MutationLog.encodeDuration(timeDuration), event, username);
         return true;
     }
 
@@ -151,13 +478,15 @@ public class AccountManager implements Serializable {
      * false if this account does not exist or the removing fails.
      */
     public boolean cancelEvent(SortedSet<Timestamp[]> timeDuration, String event, String username){
-        Account curAccount = findAccountByUsername(username);
+        Account curAccount = findAccountToChange(username);
         if (curAccount == null) {
             return false;
         }
         for (Timestamp[] t : timeDuration) {
             curAccount.removeEvent(t[0], t[1], event);
         }
+        refreshAvailability(username, timeDuration);
+        record("cancelEvent", MutationLog.encodeDuration(timeDuration), event, username);
         return true;
     }
 
@@ -182,10 +511,12 @@ public class AccountManager implements Serializable {
      * the friend list of the account.
      */
     boolean addFriend(String username, String friend){
-        Account curAccount = findAccountByUsername(username);
-        if (curAccount == null || findAccountByUsername(friend) == null) return false;
+        Account curAccount = findAccountToChange(username);
+        if (curAccount == null || !allAccounts.containsKey(friend)) return false;
         if (!curAccount.hasFriend(friend)) {
             curAccount.addFriend(friend);
+            if (friendGraph != null) friendGraph.add(username, friend);
+            record("addFriend", username, friend);
             return true;
         }
         else return false;
@@ -200,10 +531,12 @@ public class AccountManager implements Serializable {
      * the friend list of the account.
      */
     boolean removeFriend(String username, String friend){
-        Account curAccount = findAccountByUsername(username);
-        if (curAccount == null || findAccountByUsername(friend) == null) return false;
+        Account curAccount = findAccountToChange(username);
+        if (curAccount == null || !allAccounts.containsKey(friend)) return false;
         if (curAccount.hasFriend(friend)) {
             curAccount.removeFriend(friend);
+            if (friendGraph != null) friendGraph.remove(username, friend);
+            record("removeFriend", username, friend);
             return true;
         }
         else return false;
@@ -221,6 +554,46 @@ public class AccountManager implements Serializable {
         return curAccount.getFriends();
     }
 
+    /**
+     * Gets the accounts in the friend lists of both accounts.
+     * @param username A string represents the username of the account.
+     * @param other A string represents the username of the other account.
+     * @return A list of the usernames of those accounts, in the order of the account's friend list.
+     */
+    List<String> getMutualFriends(String username, String other){
+        return getFriendGraph().getMutual(username, other);
+    }
+
+    /**
+     * Gets the friends of the account among the attendees of an event.
+     * @param username A string represents the username of the account.
+     * @param attendees A Iterator of strings representing the usernames of the attendees of the event.
+     * @return A list of the usernames of the friends attending, in the order the attendees are given.
+     */
+    List<String> getFriendsAttending(String username, Iterator<String> attendees){
+        return getFriendGraph().getFriendsAmong(username, attendees);
+    }
+
+    /**
+     * Gets the accounts that have this account in their friend list.
+     * @param username A string represents the username of the account.
+     * @return A list of the usernames of those accounts, in the order they added this account.
+     */
+    List<String> getFriendOf(String username){
+        return getFriendGraph().getFriendOf(username);
+    }
+
+    /**
+     * Suggests accounts to add to the friend list, the friends of the account's friends, ranked by the number of the
+     * account's friends that have them in their friend list.
+     * @param username A string represents the username of the account.
+     * @param limit The largest number of accounts to suggest.
+     * @return A list of the usernames of the suggested accounts, the ones with more mutual friends first.
+     */
+    List<String> suggestFriends(String username, int limit){
+        return getFriendGraph().suggest(username, limit);
+    }
+
     /**
      * Gets the message list with given username and given key
      * @param username A String representation of the username
@@ -240,9 +613,10 @@ public class AccountManager implements Serializable {
      * @param messageId A String representation of the message id
      */
     public void updateMessageMap(String username, String key, String messageId) {
-        Account curr = findAccountByUsername(username);
+        Account curr = findAccountToChange(username);
         if (curr == null) return;
         curr.updateMessageMap(key, messageId);
+        record("updateMessageMap", username, key, messageId);
     }
 
     /**
@@ -253,9 +627,10 @@ public class AccountManager implements Serializable {
      */
     public void removeMessageMap(String username, String key, String messageId) {
         // Assuming everything is checked
-        Account curr = findAccountByUsername(username);
+        Account curr = findAccountToChange(username);
         if (curr == null) return;
         curr.removeMessageMap(key, messageId);
+        record("removeMessageMap", username, key, messageId);
     }
 
     /**
@@ -267,10 +642,125 @@ public class AccountManager implements Serializable {
      */
     public boolean isValidMessageId(String username, String messageId, String key) {
         Account curr = findAccountByUsername(username);
+        return curr != null && curr.hasMessage(key, messageId);
+    }
+
+    /**
+     * Marks the given unread messages as received
+     * @param username A String representation of the username
+     * @param messageIds A collection of message ids, the ones that are not unread are skipped
+     * @return The number of messages marked as received
+     */
+    public int markRead(String username, Collection<String> messageIds) {
+        Account curr = findAccountToChange(username);
+        if (curr == null) return 0;
+        List<String> changed = new ArrayList<>();
+        for (String messageId : messageIds) {
+            if (curr.getMailbox().move(messageId, Mailbox.UNREAD, Mailbox.RECEIVED)) changed.add(messageId);
+        }
+        if (!changed.isEmpty()) record("markRead", withKeys(username, changed));
+        return changed.size();
+    }
+
+    /**
+     * Marks all unread messages of an account as received
+     * @param username A String representation of the username
+     * @return The number of messages marked as received
+     */
+    public int markAllRead(String username) {
+        Account curr = findAccountToChange(username);
+        if (curr == null) return 0;
+        int changed = curr.getMailbox().moveAll(Mailbox.UNREAD, Mailbox.RECEIVED).size();
+        if (changed > 0) record("markAllRead", username);
+        return changed;
+    }
+
+    /**
+     * Marks a received message as unread
+     * @param username A String representation of the username
+     * @param messageId A String representation of the message id
+     * @return true iff the message was received and is now unread
+     */
+    public boolean markUnread(String username, String messageId) {
+        Account curr = findAccountToChange(username);
+        if (curr == null || !curr.getMailbox().move(messageId, Mailbox.RECEIVED, Mailbox.UNREAD)) return false;
+        record("markUnread", username, messageId);
+        return true;
+    }
+
+    /**
+     * Archives a message. A received or unread message is put back as received when it is unarchived, a sent
+     * message is put back as sent.
+     * @param username A String representation of the username
+     * @param messageId A String representation of the message id
+     * @return true iff the message was received, unread or sent, and is now archived
+     */
+    public boolean archiveMessage(String username, String messageId) {
+        Account curr = findAccountToChange(username);
+        if (curr == null || !archive(curr.getMailbox(), messageId)) return false;
+        record("archiveMessage", username, messageId);
+        return true;
+    }
+
+    /**
+     * Takes the given messages out of an account's mailbox whatever their status, such as the messages sent by an
+     * account that is deleted
+     * @param username A String representation of the username
+     * @param messageIds A collection of message ids, the ones that are not in the mailbox are skipped
+     * @return The number of messages taken out
+     */
+    public int removeMessages(String username, Collection<String> messageIds) {
+        Account account = findAccountByUsername(username);
+        if (account == null) return 0;
+        Mailbox mailbox = account.getMailbox();
+        List<String> changed = new ArrayList<>();
+        for (String messageId : messageIds) {
+            if (mailbox.has(messageId, Mailbox.ANY)) changed.add(messageId);
+        }
+        if (changed.isEmpty()) return 0;
+        findAccountToChange(username);
+        for (String messageId : changed) mailbox.remove(messageId, Mailbox.ANY);
+        record("removeMessages", withKeys(username, changed));
+        return changed.size();
+    }
+
+    /**
+     * Archives the given messages, such as all messages from one sender
+     * @param username A String representation of the username
+     * @param messageIds A collection of message ids, the ones that are not received, unread or sent are skipped
+     * @return The number of messages archived
+     */
+    public int archiveMessages(String username, Collection<String> messageIds) {
+        Account curr = findAccountToChange(username);
+        if (curr == null) return 0;
+        List<String> changed = new ArrayList<>();
+        for (String messageId : messageIds) {
+            if (archive(curr.getMailbox(), messageId)) changed.add(messageId);
+        }
+        if (!changed.isEmpty()) record("archiveMessages", withKeys(username, changed));
+        return changed.size();
+    }
+
+    private boolean archive(Mailbox mailbox, String messageId) {
+        return mailbox.move(messageId, Mailbox.UNREAD, Mailbox.ARCHIVED)
+                || mailbox.move(messageId, Mailbox.RECEIVED, Mailbox.ARCHIVED)
+                || mailbox.move(messageId, Mailbox.SENT, Mailbox.ARCHIVED_SENT);
+    }
+
+    /**
+     * Puts an archived message back to where it was archived from
+     * @param username A String representation of the username
+     * @param messageId A String representation of the message id
+     * @return true iff the message was archived and is now received or sent
+     */
+    public boolean unarchiveMessage(String username, String messageId) {
+        Account curr = findAccountToChange(username);
         if (curr == null) return false;
-        List<String> lst = new ArrayList<>();
-        curr.getMessageMap(key).forEachRemaining(lst::add);
-        return lst.contains(messageId);
+        Mailbox mailbox = curr.getMailbox();
+        if (!mailbox.move(messageId, Mailbox.ARCHIVED, Mailbox.RECEIVED)
+                && !mailbox.move(messageId, Mailbox.ARCHIVED_SENT, Mailbox.SENT)) return false;
+        record("unarchiveMessage", username, messageId);
+        return true;
     }
 
     /**
@@ -300,19 +790,22 @@ public class AccountManager implements Serializable {
      * @param username A string represents the username of this account.
      */
     public void addToSpecialList(String id, String username){
-        Account curAccount = findAccountByUsername(username);
+        Account curAccount = findAccountToChange(username);
         if (curAccount == null) {
             return;
         }
         curAccount.addToSpecialList(id);
+        record("addToSpecialList", id, username);
     }
 
     /** Removes an event from the list of events that the organizer organized.
      * @param id A string represents the unique ID of this event.
      */
     public void removeFromSpecialList(String id, String username) {
-        Account curAccount = findAccountByUsername(username);
-        if (curAccount != null) curAccount.removeFromSpecialList(id);
+        Account curAccount = findAccountToChange(username);
+        if (curAccount == null) return;
+        curAccount.removeFromSpecialList(id);
+        record("removeFromSpecialList", id, username);
     }
 
     /**
@@ -332,9 +825,10 @@ public class AccountManager implements Serializable {
      * @param username A string represents the username of this account.
      */
     void setPassword(String newPassword, String username) {
-        Account curAccount = findAccountByUsername(username);
+        Account curAccount = findAccountToChange(username);
         if (curAccount == null) return;
         curAccount.setPassword(newPassword);
+        record("setPassword", newPassword, username);
     }
 
     /**
@@ -349,44 +843,32 @@ public class AccountManager implements Serializable {
     }
 
     /**
-     * Gets available event id that user is free and can join
-     * @param m A map that maps the event id to its duration
+     * Gets one page of the available event ids that user is free and can join, found in one sweep over the user's
+     * schedule and the time slots of the events, see AttendableEvents
+     * @param events An iterator of event ids in ascending order of their first start time
+     * @param slots Gets the time intervals of an event, in ascending order
      * @param username A String representation of account's username
-     * @return A list of event id that user is free and can join
+     * @param offset The number of available events to be skipped
+     * @param limit The largest number of available events to be returned
+     * @return A list of event id that user is free and can join, in the same order as the given events
      */
-    List<String> getAvailableEvent(Map<String, SortedSet<Timestamp[]>> m, String username) {
-        List<String> o = new ArrayList<>();
-        for (String eventId : m.keySet()) {
-            if (freeAtTime(m.get(eventId), username)) {
-                o.add(eventId);
-            }
-        }
-        return o;
+    List<String> getAvailableEvent(Iterator<String> events, Function<String, Iterator<Timestamp[]>> slots,
+                                   String username, int offset, int limit) {
+        Account account = findAccountByUsername(username);
+        if (account == null) return new ArrayList<>();
+        return new AttendableEvents(account.schedule, events, slots).find(offset, limit);
     }
 
 
     /**
-     * Finds all speakers that are free at the given time interval
+     * Finds all speakers that are free at the given time interval, or already speak at the given event.
+     * Only the speakers busy around this time are checked one by one, see SpeakerAvailability.
      * @param eventDuration A sorted collection of time interval where start time is at index 0 and end time is index 1
      * @param eventId A String representation of event id
      * @return A list of speaker IDs that corresponds to speakers that are free at this time interval
      */
     public List<String> getAvailableSpeakers(SortedSet<Timestamp[]> eventDuration, String eventId){
-        List<String> result = new ArrayList<>();
-        Map<String, Account> map = allAccounts.get("speaker");
-        if (map != null) {
-            outer_loop: for (String speaker : map.keySet()) {
-                if (!this.checkInSpecialist(speaker, eventId)) {
-                    for (Timestamp[] t : eventDuration) {
-                        if (!this.freeAtTime(t[0], t[1], speaker)) {
-                            continue outer_loop;
-                        }
-                    }
-                }
-                result.add(speaker);
-            }
-        }
-        return result;
+        return getSpeakerAvailability().getFree(eventDuration, eventId);
     }
 
     /**
@@ -403,8 +885,7 @@ public class AccountManager implements Serializable {
      * @return True iff the user is VIP
      */
     boolean checkVIP(String username){
-        Account account = findAccountByUsername(username);
-        return account != null && account.isVIP();
+        return vipUsernames.contains(username);
     }
 
     /**
@@ -414,24 +895,28 @@ public class AccountManager implements Serializable {
      */
     void upgradeAttendee(String username, List<String> key) {
         // assume the given username is valid
-        Account acc = allAccounts.get(accountTypes[0].toLowerCase()).get(username);
-        addAccount(accountTypes[3].toLowerCase(), username, acc.getPassword());
-        Account currAccount = allAccounts.get(accountTypes[3].toLowerCase()).get(username);
-        // Update friend list
-        Iterator<String> friends = acc.getFriends();
-        while (friends.hasNext()) currAccount.addFriend(friends.next());
-        // Update schedule
-        Iterator<String[]> currSchedule = acc.getSchedule();
-        while (currSchedule.hasNext()) {
-            String[] event = currSchedule.next();
-            currAccount.addEvent(Timestamp.valueOf(event[0]), Timestamp.valueOf(event[1]), event[2]);
-        }
-        // Update message map
-        for (String k : key) {
-            currAccount.setMessageMap(k, acc.getMessageMap(k));
+        Account acc = resolve(username);
+        putAccount(accountTypes[3].toLowerCase(), username, acc.getPassword());
+        // The schedule, friends and messages are moved to the new account as they are
+        allAccounts.get(username).takeOver(acc, key);
+        // The account was taken out of the attendee list when the new one was put in
+        record("upgradeAttendee", withKeys(username, key));
+    }
+
+    /**
+     * Upgrades many attendees to VIP in one pass, skipping the usernames that are not attendees
+     * @param usernames A collection of String representation of the accounts that will be upgraded
+     * @param key A list of valid message status
+     * @return A list of the usernames that are upgraded
+     */
+    List<String> upgradeAttendees(Collection<String> usernames, List<String> key) {
+        List<String> upgraded = new ArrayList<>();
+        for (String username : usernames) {
+            if (!isAccountType(username, "attendee")) continue;
+            upgradeAttendee(username, key);
+            upgraded.add(username);
         }
-        // Remove the account from attendee list
-        allAccounts.get(accountTypes[0].toLowerCase()).remove(username);
+        return upgraded;
     }
 
     /**
@@ -442,51 +927,175 @@ public class AccountManager implements Serializable {
      */
     List<String> degradeVIP(String username, List<String> messageKey) {
         // assume the given username is valid
-        Account acc = allAccounts.get(accountTypes[3].toLowerCase()).get(username);
-        addAccount(accountTypes[0].toLowerCase(), username, acc.getPassword());
-        Account currAccount = allAccounts.get(accountTypes[0].toLowerCase()).get(username);
-        // Update friend list
-        Iterator<String> friends = acc.getFriends();
-        while (friends.hasNext()) currAccount.addFriend(friends.next());
-        // Update schedule
-        Iterator<String[]> currSchedule = acc.getSchedule();
-        List<String[]> currScheduleList = new ArrayList<>();
-        currSchedule.forEachRemaining(currScheduleList::add);
-        Iterator<String> currVIP = acc.getSpecialList();
+        Account acc = resolve(username);
+        putAccount(accountTypes[0].toLowerCase(), username, acc.getPassword());
+        Account currAccount = allAccounts.get(username);
+        currAccount.takeOver(acc, messageKey);
         List<String> vipEvents = new ArrayList<>();
-        currVIP.forEachRemaining(vipEvents::add);
+        acc.getSpecialList().forEachRemaining(vipEvents::add);
         // Remove all the vip events signed up
-        for(String[] event : currScheduleList) {
-            if (vipEvents.contains(event[2])) {
-                acc.removeEvent(Timestamp.valueOf(event[0]), Timestamp.valueOf(event[1]), event[2]);
-            }else {
-                currAccount.addEvent(Timestamp.valueOf(event[0]), Timestamp.valueOf(event[1]), event[2]);
-            }
-        }
-        // Update message map
-        for (String k : messageKey) {
-            currAccount.setMessageMap(k, acc.getMessageMap(k));
-        }
-        // Remove the account from attendee list
-        allAccounts.get(accountTypes[3].toLowerCase()).remove(username);
+        currAccount.removeEvents(new HashSet<>(vipEvents));
+        // The account was taken out of the VIP list when the new one was put in
+        record("degradeVIP", withKeys(username, messageKey));
         return vipEvents; // It will be used to update the event manager
     }
 
+    /**
+     * Degrades many VIPs to attendee in one pass, skipping the usernames that are not VIPs
+     * @param usernames A collection of String representation of the accounts that will be degraded
+     * @param messageKey A list of valid message status
+     * @return A map from every degraded account, as an instance of EventWithSpecObserver, to the VIP events it is
+     * attending, in the order the usernames are given. It will be used to update the event manager.
+     */
+    Map<EventWithSpecObserver, List<String>> degradeVIPs(Collection<String> usernames, List<String> messageKey) {
+        Map<EventWithSpecObserver, List<String>> vipEvents = new LinkedHashMap<>();
+        for (String username : usernames) {
+            if (!isAccountType(username, "vip")) continue;
+            List<String> events = degradeVIP(username, messageKey);
+            vipEvents.put(getEventObserver(username), events);
+        }
+        return vipEvents;
+    }
+
+    /**
+     * Gives out the number for the id of a new event of any conference. The schedule and special list of an account
+     * only have event ids, so no two conferences may give the same id to their events.
+     * @param atLeast The number the EventManager of the conference would use itself
+     * @return The number for the id of the new event
+     */
+    public int nextEventNumber(int atLeast) {
+        int number = Math.max(numEvents, atLeast);
+        numEvents = number + 1;
+        record("nextEventNumber", String.valueOf(number));
+        return number;
+    }
+
     /**
      * Gets an instance of EventWithSpecObserver
      * @param username A String representation of username
      * @return An instance of EventWithSpecObserver. Return null if account does not exist.
      */
     public EventWithSpecObserver getEventObserver(String username) {
-        return findAccountByUsername(username);
+        return findAccountForUpdate(username);
     }
 
-    private boolean checkInSpecialist(String username, String eventId) {
-        Account a = this.findAccountByUsername(username);
-        if (a != null) {
-            return a.isInSpecialist(eventId);
+    /**
+     * Sets the log that all following mutations of this manager and its accounts will be recorded into
+     * @param log An instance of MutationLog, or null to stop recording
+     */
+    @Override
+    public void setMutationLog(MutationLog log) {
+        this.mutationLog = log;
+        for (Account account : allAccounts.values()) {
+            if (account != null) account.setMutationLog(logFor(account));
+        }
+        if (cleanAccounts != null) {
+            for (SoftReference<Account> cached : cleanAccounts.values()) {
+                Account account = cached.get();
+                if (account != null) account.setMutationLog(logFor(account));
+            }
         }
-        return false;
+    }
+
+    /**
+     * Gets the number of mutations made to this manager and its accounts since it was created or read
+     * @return The number of mutations so far
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Redoes one recorded mutation of this manager or one of its accounts
+     * @param operation A String representation of the name of the mutating operation
+     * @param args The String representation of all arguments of this operation
+     */
+    @Override
+    public void replay(String operation, String[] args) {
+        List<String> keys = Arrays.asList(args).subList(1, args.length);
+        switch (operation) {
+            case "addAccount":
+                putAccount(args[0], args[1], args[2]);
+                break;
+            case "signUpEvent":
+                signUpEvent(MutationLog.decodeDuration(args[0]), args[1], args[2]);
+                break;
+            case "cancelEvent":
+                cancelEvent(MutationLog.decodeDuration(args[0]), args[1], args[2]);
+                break;
+            case "addFriend":
+                addFriend(args[0], args[1]);
+                break;
+            case "removeFriend":
+                removeFriend(args[0], args[1]);
+                break;
+            case "updateMessageMap":
+                updateMessageMap(args[0], args[1], args[2]);
+                break;
+            case "removeMessageMap":
+                removeMessageMap(args[0], args[1], args[2]);
+                break;
+            case "markRead":
+                markRead(args[0], keys);
+                break;
+            case "markAllRead":
+                markAllRead(args[0]);
+                break;
+            case "markUnread":
+                markUnread(args[0], args[1]);
+                break;
+            case "archiveMessage":
+                archiveMessage(args[0], args[1]);
+                break;
+            case "archiveMessages":
+                archiveMessages(args[0], keys);
+                break;
+            case "unarchiveMessage":
+                unarchiveMessage(args[0], args[1]);
+                break;
+            case "addToSpecialList":
+                addToSpecialList(args[0], args[1]);
+                break;
+            case "removeFromSpecialList":
+                removeFromSpecialList(args[0], args[1]);
+                break;
+            case "setPassword":
+                setPassword(args[0], args[1]);
+                break;
+            case "removeMessages":
+                removeMessages(args[0], keys);
+                break;
+            case "deleteAccount":
+                deleteAccount(args[0]);
+                break;
+            case "nextEventNumber":
+                nextEventNumber(Integer.parseInt(args[0]));
+                break;
+            case "upgradeAttendee":
+                if (isAccountType(args[0], "attendee")) upgradeAttendee(args[0], keys);
+                break;
+            case "degradeVIP":
+                if (isAccountType(args[0], "vip")) degradeVIP(args[0], keys);
+                break;
+            default:
+                // Mutations made by events through the account observer, the account has to stay in memory for the
+                // change to be saved
+                Account account = findAccountToChange(args[0]);
+                if (account != null) account.replay(operation, Arrays.copyOfRange(args, 1, args.length));
+        }
+    }
+
+    private void record(String operation, String... args) {
+        version++;
+        if (mutationLog != null) mutationLog.record(operation, args);
+    }
+
+    private String[] withKeys(String username, List<String> keys) {
+        String[] args = new String[keys.size() + 1];
+        args[0] = username;
+        for (int i = 0; i < keys.size(); i++) args[i + 1] = keys.get(i);
+        return args;
     }
 }
 
@@ -3,10 +3,10 @@ package account;
 import conferencemain.MainPresenter;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.SortedSet;
+import java.util.function.Function;
 
 /**
  * A presenter class for account.
@@ -32,6 +32,14 @@ class AccountPresenter extends MainPresenter {
         super.getInput();
     }
 
+    /**
+     * Prints out "Enter usernames separated by commas:".
+     */
+    void askUsernames() {
+        System.out.println("Enter usernames separated by commas:");
+        super.getInput();
+    }
+
     /**
      * Prints out "password updated successfully".
      */
@@ -48,11 +56,11 @@ class AccountPresenter extends MainPresenter {
     }
 
     /**
-     * Prints out all info of speakers which are given in a list as parameter.
-     * If there is no speakers in the list, prints "There are no speaker."
-     * @param speakers list of speakers info to print
+     * Prints out all info of speakers which are given in a collection as parameter.
+     * If there is no speakers in the collection, prints "There are no speaker."
+     * @param speakers collection of speakers info to print
      */
-    void getAllSpeakers(List<String> speakers) {
+    void getAllSpeakers(Collection<String> speakers) {
         if (!speakers.isEmpty()) {
             System.out.println(speakers.toString());
         } else {
@@ -126,6 +134,44 @@ class AccountPresenter extends MainPresenter {
         }
     }
 
+    /**
+     * Prints out the friends of the user that the other user also has in the friend list.
+     * @param other The username of the other user
+     * @param mutualFriends A list of usernames of the mutual friends
+     */
+    void printMutualFriends(String other, List<String> mutualFriends) {
+        if (mutualFriends.isEmpty()) {
+            super.printErrorMessage("You have no favourites in common with " + other + ".");
+        } else {
+            System.out.println("Favourites in common with " + other + ": " + String.join(", ", mutualFriends));
+        }
+    }
+
+    /**
+     * Prints out the friends of the user that attend an event.
+     * @param eventId The id of the event
+     * @param friends A list of usernames of the friends attending
+     */
+    void printFriendsAttending(String eventId, List<String> friends) {
+        if (friends.isEmpty()) {
+            super.printErrorMessage("None of your favourites attend event " + eventId + ".");
+        } else {
+            System.out.println("Favourites attending event " + eventId + ": " + String.join(", ", friends));
+        }
+    }
+
+    /**
+     * Prints out the users suggested to be added to the friend list.
+     * @param suggested A list of usernames of the suggested users
+     */
+    void printFriendSuggestions(List<String> suggested) {
+        if (suggested.isEmpty()) {
+            super.printErrorMessage("No suggestions yet, add more accounts to your favourites.");
+        } else {
+            System.out.println("You may know: " + String.join(", ", suggested));
+        }
+    }
+
     /**
      * Prints out feedback of if successfully add an user to friend list or not.
      * @param r a boolean true if added successfully, else false
@@ -251,10 +297,10 @@ class AccountPresenter extends MainPresenter {
     /**
      * Prints out the list of toString description of events to user.
      * @param events A list of event id
-     * @param m A map that maps event id to its duration
+     * @param slots Gets the time intervals of an event, in ascending order
      * @param message additional message
      */
-    void printEventList(List<String> events, Map<String, SortedSet<Timestamp[]>> m, String message) {
+    void printEventList(List<String> events, Function<String, Iterator<Timestamp[]>> slots, String message) {
         System.out.println(message);
 //        for(String[] s : events) {
 //            System.out.println("Starting Time: " + s[0] + ", End Time: " + s[1] + ", Event Id: " + s[2] + ", Event Name: " + s[3]);
@@ -262,7 +308,8 @@ class AccountPresenter extends MainPresenter {
         for (String eventId : events) {
             System.out.println("Event Id: " + eventId);
             System.out.println("Event Duration: ");
-            for (Timestamp[] t : m.get(eventId)) {
+            for (Iterator<Timestamp[]> i = slots.apply(eventId); i.hasNext();) {
+                Timestamp[] t = i.next();
                 System.out.println("\tStarting Time: " + t[0] + ", End Time: " + t[1]);
             }
             super.printSeparateLine();
@@ -310,4 +357,37 @@ class AccountPresenter extends MainPresenter {
             printErrorMessage("Invalid username or user: " + username + " is not a VIP");
         }
     }
+
+    /**
+     * Prints the message of the usernames skipped by a bulk upgrade
+     * @param usernames The input usernames that are not upgraded, nothing is printed if it is empty
+     */
+    void printSkippedUpgrades(List<String> usernames) {
+        if (!usernames.isEmpty()) {
+            printErrorMessage("Skipped: " + String.join(", ", usernames) + ", invalid usernames or not attendees");
+        }
+    }
+
+    /**
+     * Prints the message of the usernames skipped by a bulk degrade
+     * @param usernames The input usernames that are not degraded, nothing is printed if it is empty
+     */
+    void printSkippedDegrades(List<String> usernames) {
+        if (!usernames.isEmpty()) {
+            printErrorMessage("Skipped: " + String.join(", ", usernames) + ", invalid usernames or not VIPs");
+        }
+    }
+
+    /**
+     * Prints the message of delete account
+     * @param key true iff deleted successfully
+     * @param username The input username
+     */
+    void printDeleteAccount(boolean key, String username) {
+        if (key) {
+            printActionMessage("Deleted: " + username);
+        } else {
+            printErrorMessage("User: " + username + " is the current user or has events in another conference");
+        }
+    }
 }
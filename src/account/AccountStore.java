@@ -0,0 +1,83 @@
+package account;
+
+import data.BinaryReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The accounts of a file written by AccountCodec, left in the file instead of kept as objects or as bytes.
+ * Only the username and type of every account is read up front, into an index from username to the position and
+ * length of its record. An account is read from its record in the file when it is asked for.
+ * The file is kept open but not mapped, so it can still be renamed over by the next save on every platform. The
+ * old content stays readable through the open file until it is closed.
+ * @author Group0694
+ * @version 3.0.0
+ */
+class AccountStore {
+    private final FileChannel file;
+    // Reads no content itself, only keeps the dictionary of the file for the records read from it
+    private final BinaryReader dictionary;
+    private final AccountCodec codec;
+    // The position of each record in the high 32 bits and its length in the low 32 bits, by username
+    private final Map<String, Long> records = new HashMap<>();
+    private final Map<String, String> types = new HashMap<>();
+
+    /**
+     * Builds the index of all accounts, skipping over everything else in their records
+     * @param reader The BinaryReader positioned at the number of accounts, over the content of a file
+     * @param codec The AccountCodec used to read an account from its record
+     * @throws IOException if the data is damaged or the file cannot be opened again
+     */
+    AccountStore(BinaryReader reader, AccountCodec codec) throws IOException {
+        this.codec = codec;
+        dictionary = reader.forRecord(ByteBuffer.allocate(0));
+        int numAccounts = reader.readVarInt();
+        for (int i = 0; i < numAccounts; i++) {
+            int start = reader.position();
+            int end = reader.beginRecord();
+            String type = reader.readSymbol();
+            String username = reader.readSymbol();
+            records.put(username, ((long) start << 32) | (end - start));
+            types.put(username, type);
+            reader.endRecord(end);
+        }
+        // Opened right after the content was read, before any save can replace the file
+        file = FileChannel.open(reader.getSource(), StandardOpenOption.READ);
+    }
+
+    /**
+     * Gets the type of every stored account
+     * @return A map from username to the type of the account
+     */
+    Map<String, String> getTypes() {
+        return Collections.unmodifiableMap(types);
+    }
+
+    /**
+     * Reads one account from its record
+     * @param username A String representation of the username
+     * @param symbols The UserSymbols the friend list of the account is read into
+     * @return A new Account read from the record, or null if there is no such account or its record is damaged
+     */
+    synchronized Account load(String username, UserSymbols symbols) {
+        Long record = records.get(username);
+        if (record == null) return null;
+        try {
+            long start = record >>> 32;
+            ByteBuffer bytes = ByteBuffer.allocate((int) (record & 0xFFFFFFFFL));
+            while (bytes.hasRemaining()) {
+                if (file.read(bytes, start + bytes.position()) < 0) throw new EOFException();
+            }
+            bytes.flip();
+            return codec.readAccount(dictionary.forRecord(bytes), symbols);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
@@ -3,8 +3,8 @@ package account;
 import authentication.ConferenceRegisterSystem;
 import authentication.SimpleValidationPassword;
 import event.EventManager;
-import java.util.List;
-import java.util.Scanner;
+import event.EventWithSpecObserver;
+import java.util.*;
 
 /**
  * An upper controller of account.
@@ -16,6 +16,7 @@ import java.util.Scanner;
  */
 
 public class AccountSystem {
+    private static final int SUGGESTION_LIMIT = 10;
     private final AccountManager accounts;
     @SuppressWarnings("FieldMayBeFinal")
     private AccountPresenter presenter;
@@ -108,6 +109,41 @@ public class AccountSystem {
         presenter.deleteFriendResult(accounts.removeFriend(username, userToDelete));
     }
 
+    /**
+     * Prints the friends of the current user that another user also has in the friend list.
+     * @param username The username of current user.
+     */
+    public void viewMutualFriends(String username) {
+        String other = inputUsername();
+        if (other == null) return;
+        presenter.printMutualFriends(other, accounts.getMutualFriends(username, other));
+    }
+
+    /**
+     * Prints the friends of the current user that attend an event.
+     * @param username The username of current user.
+     * @param em An instance of EventManager
+     */
+    public void viewFriendsAttending(String username, EventManager em) {
+        Scanner sc = new Scanner(System.in);
+        presenter.askEventId();
+        String eventId = sc.nextLine();
+        Iterator<String> attendees = em.getAttendees(eventId);
+        if (attendees == null) {
+            presenter.eventNotExist();
+            return;
+        }
+        presenter.printFriendsAttending(eventId, accounts.getFriendsAttending(username, attendees));
+    }
+
+    /**
+     * Prints the users the current user may want to add to the friend list, the friends of its friends.
+     * @param username The username of current user.
+     */
+    public void viewFriendSuggestions(String username) {
+        presenter.printFriendSuggestions(accounts.suggestFriends(username, SUGGESTION_LIMIT));
+    }
+
     /**
      * Sets username, password to create a new account of selected type and prints a string reflecting
      * the result of this operation.
@@ -165,4 +201,79 @@ public class AccountSystem {
         }
         presenter.printDegradeAccount(false, username);
     }
+
+    /**
+     * Upgrade many attendees given by user input to VIP at once
+     * @param key A list of valid message status
+     */
+    public void upgradeAttendees(List<String> key) {
+        List<String> usernames = inputUsernames();
+        Set<String> upgraded = new HashSet<>(accounts.upgradeAttendees(usernames, key));
+        List<String> skipped = new ArrayList<>();
+        for (String username : usernames) {
+            if (upgraded.contains(username)) presenter.printUpgradeAccount(true, username);
+            else skipped.add(username);
+        }
+        presenter.printSkippedUpgrades(skipped);
+    }
+
+    /**
+     * Degrade many VIPs given by user input to attendee at once, and take them out of the VIP events they attend
+     * @param em An instance of EventManager
+     * @param key A list of valid message status
+     */
+    public void degradeVIPs(EventManager em, List<String> key) {
+        List<String> usernames = inputUsernames();
+        Map<EventWithSpecObserver, List<String>> vipEvents = accounts.degradeVIPs(usernames, key);
+        Set<String> degraded = new HashSet<>();
+        for (EventWithSpecObserver observer : vipEvents.keySet()) degraded.add(observer.getName());
+        List<String> skipped = new ArrayList<>();
+        for (String username : usernames) {
+            if (degraded.contains(username)) presenter.printDegradeAccount(true, username);
+            else skipped.add(username);
+        }
+        presenter.printSkippedDegrades(skipped);
+        em.updateVIPEvents(vipEvents);
+    }
+
+    // Reads usernames separated by commas or spaces, each one only once
+    private List<String> inputUsernames() {
+        Scanner sc = new Scanner(System.in);
+        presenter.askUsernames();
+        Set<String> usernames = new LinkedHashSet<>();
+        for (String username : sc.nextLine().split("[,\\s]+")) {
+            if (!username.isEmpty()) usernames.add(username);
+        }
+        return new ArrayList<>(usernames);
+    }
+
+    /**
+     * Deletes an account given by user input, and takes it out of its events and out of the friend lists of others.
+     * An account cannot delete itself, nor an account with events in another conference, which are the events in its
+     * schedule or special list that it is not in here.
+     * @param currUsername The username of current user.
+     * @param em An instance of EventManager
+     * @return A list of the ids of the messages the deleted account sent, to be withdrawn from their receivers, empty
+     * if no account is deleted
+     */
+    public List<String> deleteAccount(String currUsername, EventManager em) {
+        String username = inputUsername();
+        if (username == null) return new ArrayList<>();
+        if (username.equals(currUsername)) {
+            presenter.printDeleteAccount(false, username);
+            return new ArrayList<>();
+        }
+        List<String> eventIds = accounts.getAttachedEvents(username);
+        EventWithSpecObserver observer = accounts.getEventObserver(username);
+        for (String eventId : eventIds) {
+            if (!em.isAttached(eventId, observer)) {
+                presenter.printDeleteAccount(false, username);
+                return new ArrayList<>();
+            }
+        }
+        em.removeAccount(username, eventIds);
+        List<String> sent = accounts.deleteAccount(username);
+        presenter.printDeleteAccount(true, username);
+        return sent;
+    }
 }
@@ -0,0 +1,124 @@
+package account;
+
+import room.IntervalCalendar;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Finds the events an account is free to attend in one sweep over time. The time slots of all events are walked in
+ * ascending order of start time together with the account's schedule, which is also in ascending order, so each
+ * interval of the schedule is passed over once. An event is dropped at its first slot that overlaps the schedule,
+ * and its other slots are never looked at.
+ * @author Group0694
+ * @version 3.0.0
+ */
+class AttendableEvents {
+    private final Iterator<Map.Entry<Timestamp[], String>> schedule;
+    private final Iterator<String> events;
+    private final Function<String, Iterator<Timestamp[]>> slots;
+    // The interval of the schedule the sweep is at, null once the schedule is passed
+    private Timestamp[] busy;
+
+    /**
+     * Prepares a sweep over the given events
+     * @param schedule The schedule of the account
+     * @param events An iterator of event ids in ascending order of their first start time
+     * @param slots Gets the time intervals of an event, in ascending order
+     */
+    AttendableEvents(IntervalCalendar schedule, Iterator<String> events,
+                     Function<String, Iterator<Timestamp[]>> slots) {
+        this.schedule = schedule.iterator();
+        this.events = events;
+        this.slots = slots;
+        this.busy = this.schedule.hasNext() ? this.schedule.next().getKey() : null;
+    }
+
+    /**
+     * Finds one page of the events the account is free to attend, the sweep stops as soon as the page is full
+     * @param offset The number of attendable events to be skipped
+     * @param limit The largest number of attendable events to be found
+     * @return A list of the ids of attendable events, in the same order as the given events
+     */
+    List<String> find(int offset, int limit) {
+        List<String> found = new ArrayList<>();
+        int skipped = 0;
+        // The events whose slots are being walked, by the start time of their next slot
+        PriorityQueue<Candidate> walking = new PriorityQueue<>();
+        // The same events in the given order, so they are given out in that order once they are decided
+        Deque<Candidate> undecided = new ArrayDeque<>();
+        Candidate next = nextCandidate(0);
+        int order = 1;
+        while (found.size() < limit) {
+            // An event joins once the sweep reaches its first slot
+            while (next != null && (walking.isEmpty() || next.compareTo(walking.peek()) <= 0)) {
+                walking.add(next);
+                undecided.add(next);
+                next = nextCandidate(order++);
+            }
+            Candidate candidate = walking.poll();
+            if (candidate == null) break;
+            if (overlapsSchedule(candidate.slot)) {
+                candidate.decided = true;
+                candidate.attendable = false;
+            } else if (candidate.slots.hasNext()) {
+                candidate.slot = candidate.slots.next();
+                walking.add(candidate);
+            } else {
+                candidate.decided = true;
+                candidate.attendable = true;
+            }
+            while (!undecided.isEmpty() && undecided.peek().decided && found.size() < limit) {
+                Candidate decided = undecided.poll();
+                if (!decided.attendable) continue;
+                if (skipped < offset) skipped++;
+                else found.add(decided.eventId);
+            }
+        }
+        return found;
+    }
+
+    private Candidate nextCandidate(int order) {
+        while (events.hasNext()) {
+            String eventId = events.next();
+            Iterator<Timestamp[]> eventSlots = slots.apply(eventId);
+            if (eventSlots.hasNext()) return new Candidate(eventId, order, eventSlots);
+        }
+        return null;
+    }
+
+    // The slots are given in ascending order of start time, so the intervals of the schedule that end by this start
+    // cannot overlap any later slot either, and are passed for good
+    private boolean overlapsSchedule(Timestamp[] slot) {
+        long start = slot[0].getTime();
+        while (busy != null && busy[1].getTime() <= start) {
+            busy = schedule.hasNext() ? schedule.next().getKey() : null;
+        }
+        // The intervals after this one start even later
+        return busy != null && busy[0].getTime() < slot[1].getTime();
+    }
+
+    // An event being swept, at one of its slots
+    private static class Candidate implements Comparable<Candidate> {
+        private final String eventId;
+        private final int order;
+        private final Iterator<Timestamp[]> slots;
+        private Timestamp[] slot;
+        private boolean decided = false;
+        private boolean attendable = false;
+
+        private Candidate(String eventId, int order, Iterator<Timestamp[]> slots) {
+            this.eventId = eventId;
+            this.order = order;
+            this.slots = slots;
+            this.slot = slots.next();
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int cmp = slot[0].compareTo(other.slot[0]);
+            return (cmp != 0) ? cmp : Integer.compare(order, other.order);
+        }
+    }
+}
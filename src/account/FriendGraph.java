@@ -0,0 +1,174 @@
+package account;
+
+import java.util.*;
+
+/**
+ * The friend lists of all accounts as a graph over the ids given by the UserSymbols of their AccountManager, with the
+ * reverse of every edge as well, so the accounts that have a user in their friend list are known without asking every
+ * account. Every user has a hashed UserIdList of its friends and one of the users it is a friend of, so the queries
+ * below intersect them by walking the smaller side and checking the larger one in constant time per id.
+ * @author Group0694
+ * @version 3.0.0
+ */
+class FriendGraph {
+    private static final UserIdList NONE = new UserIdList();
+
+    private final UserSymbols symbols;
+    // Both indexed by the id of the user, null for a user without such edges
+    private UserIdList[] friends = new UserIdList[0];
+    private UserIdList[] friendOf = new UserIdList[0];
+
+    /**
+     * Creates an empty FriendGraph
+     * @param symbols The UserSymbols of the AccountManager, which gives the ids of the users
+     */
+    FriendGraph(UserSymbols symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Adds an edge from a user to a user in its friend list
+     * @param username A String representation of the username
+     * @param friend A String representation of the username of the friend
+     * @return true iff the edge was not in the graph
+     */
+    boolean add(String username, String friend) {
+        int user = symbols.intern(username);
+        int other = symbols.intern(friend);
+        ensureCapacity(Math.max(user, other));
+        if (friends[user] == null) friends[user] = new UserIdList(symbols);
+        if (!friends[user].addId(other)) return false;
+        if (friendOf[other] == null) friendOf[other] = new UserIdList(symbols);
+        friendOf[other].addId(user);
+        return true;
+    }
+
+    /**
+     * Removes an edge from a user to a user in its friend list
+     * @param username A String representation of the username
+     * @param friend A String representation of the username of the friend
+     * @return true iff the edge was in the graph
+     */
+    boolean remove(String username, String friend) {
+        int user = symbols.find(username);
+        int other = symbols.find(friend);
+        if (!edgesOf(friends, user).removeId(other)) return false;
+        edgesOf(friendOf, other).removeId(user);
+        return true;
+    }
+
+    /**
+     * Removes a user with every edge from it and to it, looking only at its own friends and the users it is a friend of
+     * @param username A String representation of the username
+     */
+    void removeUser(String username) {
+        int user = symbols.find(username);
+        for (int other : edgesOf(friends, user).toIdArray()) edgesOf(friendOf, other).removeId(user);
+        for (int other : edgesOf(friendOf, user).toIdArray()) edgesOf(friends, other).removeId(user);
+        if (user >= 0 && user < friends.length) {
+            friends[user] = null;
+            friendOf[user] = null;
+        }
+    }
+
+    /**
+     * Gets the users that have the given user in their friend list
+     * @param username A String representation of the username
+     * @return A list of usernames, in the order they added the user
+     */
+    List<String> getFriendOf(String username) {
+        return namesOf(edgesOf(friendOf, symbols.find(username)).toIdArray());
+    }
+
+    /**
+     * Gets the users in the friend lists of both users
+     * @param username A String representation of the username
+     * @param other A String representation of the username of the other user
+     * @return A list of usernames, in the order they are in the friend list of the user
+     */
+    List<String> getMutual(String username, String other) {
+        UserIdList mine = edgesOf(friends, symbols.find(username));
+        UserIdList theirs = edgesOf(friends, symbols.find(other));
+        List<String> mutual = new ArrayList<>();
+        if (mine.size() <= theirs.size()) {
+            for (int id : mine.toIdArray()) {
+                if (theirs.containsId(id)) mutual.add(symbols.nameOf(id));
+            }
+        } else {
+            // Walks the smaller list, then puts the result back in the order of the user's own list
+            BitSet found = new BitSet();
+            for (int id : theirs.toIdArray()) {
+                if (mine.containsId(id)) found.set(id);
+            }
+            for (int id : mine.toIdArray()) {
+                if (found.get(id)) mutual.add(symbols.nameOf(id));
+            }
+        }
+        return mutual;
+    }
+
+    /**
+     * Gets the users in the friend list of a user among the given users
+     * @param username A String representation of the username
+     * @param usernames An iterator of String representation of usernames, such as the attendees of an event
+     * @return A list of the given usernames that are in the friend list, in the order they are given
+     */
+    List<String> getFriendsAmong(String username, Iterator<String> usernames) {
+        UserIdList mine = edgesOf(friends, symbols.find(username));
+        List<String> found = new ArrayList<>();
+        while (usernames.hasNext() && found.size() < mine.size()) {
+            String other = usernames.next();
+            if (mine.contains(other)) found.add(other);
+        }
+        return found;
+    }
+
+    /**
+     * Suggests users to be added to the friend list of a user, the users in the friend lists of its friends ranked
+     * by the number of its friends that have them
+     * @param username A String representation of the username
+     * @param limit The largest number of users to be suggested
+     * @return A list of usernames, the ones with more friends in common first
+     */
+    List<String> suggest(String username, int limit) {
+        int user = symbols.find(username);
+        UserIdList mine = edgesOf(friends, user);
+        // Number of the user's friends that have each candidate, by the id of the candidate, as ids are dense
+        int[] counts = new int[friends.length];
+        List<Integer> candidates = new ArrayList<>();
+        for (int friend : mine.toIdArray()) {
+            for (int candidate : edgesOf(friends, friend).toIdArray()) {
+                if (candidate == user || mine.containsId(candidate)) continue;
+                if (counts[candidate]++ == 0) candidates.add(candidate);
+            }
+        }
+        // Keeps the best ones in a heap of the limit's size, the worst of them on top
+        PriorityQueue<Integer> best = new PriorityQueue<>(Comparator.<Integer>comparingInt(id -> counts[id])
+                .thenComparing(symbols::nameOf, Comparator.reverseOrder()));
+        for (int candidate : candidates) {
+            best.add(candidate);
+            if (best.size() > limit) best.poll();
+        }
+        List<String> suggested = new ArrayList<>(best.size());
+        while (!best.isEmpty()) suggested.add(symbols.nameOf(best.poll()));
+        Collections.reverse(suggested);
+        return suggested;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < friends.length) return;
+        int length = Math.max(id + 1, friends.length * 2);
+        friends = Arrays.copyOf(friends, length);
+        friendOf = Arrays.copyOf(friendOf, length);
+    }
+
+    private static UserIdList edgesOf(UserIdList[] edges, int id) {
+        return (id >= 0 && id < edges.length && edges[id] != null) ? edges[id] : NONE;
+    }
+
+    private List<String> namesOf(int[] ids) {
+        List<String> names = new ArrayList<>(ids.length);
+        for (int id : ids) names.add(symbols.nameOf(id));
+        return names;
+    }
+}
@@ -0,0 +1,247 @@
+package account;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * The messages of one account. Every message id is kept once, in the order it first came in, with a small bitfield
+ * of its statuses, so checking or changing the status of a message takes constant time. A message the account sent
+ * to itself is both sent and in the inbox, other messages have one status.
+ * The message status keys "sent", "received", "unread" and "archive" are still used when the mailbox is written,
+ * recorded or read, where an archived message is "0" + id if it was received and "1" + id if it was sent.
+ * @author Group0694
+ * @version 3.0.0
+ */
+class Mailbox implements Serializable {
+    private static final long serialVersionUID = 1L;
+    static final int SENT = 1;
+    static final int RECEIVED = 1 << 1;
+    static final int UNREAD = 1 << 2;
+    static final int ARCHIVED = 1 << 3;
+    static final int ARCHIVED_SENT = 1 << 4;
+    static final int ANY = SENT | RECEIVED | UNREAD | ARCHIVED | ARCHIVED_SENT;
+    // The statuses in the order their keys are given out by getKeys
+    private static final int[] STATUSES = {SENT, RECEIVED, UNREAD, ARCHIVED};
+
+    private final LinkedHashMap<String, Byte> statuses = new LinkedHashMap<>();
+    // Number of messages with each status bit, so empty statuses are skipped without a scan
+    private final int[] counts = new int[5];
+
+    /**
+     * Checks if a message has a status
+     * @param messageId A String representation of the message id
+     * @param status One of the status bits
+     * @return true iff the message has this status
+     */
+    boolean has(String messageId, int status) {
+        Byte bits = statuses.get(messageId);
+        return bits != null && (bits & status) != 0;
+    }
+
+    /**
+     * Gives a message a status
+     * @param messageId A String representation of the message id
+     * @param status One of the status bits
+     * @return true iff the message did not have this status
+     */
+    boolean add(String messageId, int status) {
+        int bits = bitsOf(messageId);
+        if ((bits & status) != 0) return false;
+        set(messageId, bits | status);
+        return true;
+    }
+
+    /**
+     * Takes a status from a message, the message is forgotten once it has no status left
+     * @param messageId A String representation of the message id
+     * @param status One of the status bits
+     * @return true iff the message had this status
+     */
+    boolean remove(String messageId, int status) {
+        int bits = bitsOf(messageId);
+        if ((bits & status) == 0) return false;
+        set(messageId, bits & ~status);
+        return true;
+    }
+
+    /**
+     * Changes one status of a message into another, if it has the first one
+     * @param messageId A String representation of the message id
+     * @param from The status bit the message has
+     * @param to The status bit the message gets instead
+     * @return true iff the message had the first status
+     */
+    boolean move(String messageId, int from, int to) {
+        int bits = bitsOf(messageId);
+        if ((bits & from) == 0) return false;
+        set(messageId, (bits & ~from) | to);
+        return true;
+    }
+
+    /**
+     * Changes one status of every message that has it into another
+     * @param from The status bit to be changed
+     * @param to The status bit the messages get instead
+     * @return The ids of the messages that are changed
+     */
+    List<String> moveAll(int from, int to) {
+        List<String> moved = new ArrayList<>();
+        if (counts[indexOf(from)] == 0) return moved;
+        for (Map.Entry<String, Byte> entry : statuses.entrySet()) {
+            int bits = entry.getValue();
+            if ((bits & from) == 0) continue;
+            // Only the value is replaced, which keeps the order of the map
+            entry.setValue((byte) ((bits & ~from) | to));
+            counts[indexOf(from)]--;
+            if ((bits & to) == 0) counts[indexOf(to)]++;
+            moved.add(entry.getKey());
+        }
+        return moved;
+    }
+
+    /**
+     * Gets the messages with a status
+     * @param status One of the status bits
+     * @return A list of the ids of those messages, in the order they came in
+     */
+    List<String> get(int status) {
+        List<String> found = new ArrayList<>(counts[indexOf(status)]);
+        if (counts[indexOf(status)] == 0) return found;
+        for (Map.Entry<String, Byte> entry : statuses.entrySet()) {
+            if ((entry.getValue() & status) != 0) found.add(entry.getKey());
+        }
+        return found;
+    }
+
+    /**
+     * Gets the message ids under a message status key
+     * @param key A String representation of the message status
+     * @return A list of message ids, archived ones prefixed by "0" if received and "1" if sent
+     */
+    List<String> getByKey(String key) {
+        if (!key.equals("archive")) return (statusOf(key) == 0) ? new ArrayList<>() : get(statusOf(key));
+        List<String> archived = new ArrayList<>();
+        for (Map.Entry<String, Byte> entry : statuses.entrySet()) {
+            if ((entry.getValue() & ARCHIVED) != 0) archived.add("0" + entry.getKey());
+            if ((entry.getValue() & ARCHIVED_SENT) != 0) archived.add("1" + entry.getKey());
+        }
+        return archived;
+    }
+
+    /**
+     * Checks if a message id is under a message status key
+     * @param key A String representation of the message status
+     * @param messageId A String representation of the message id, prefixed as by getByKey if archived
+     * @return true iff the message has this status
+     */
+    boolean hasByKey(String key, String messageId) {
+        int status = statusOf(key, messageId);
+        return status != 0 && has(unprefixed(key, messageId), status);
+    }
+
+    /**
+     * Puts a message id under a message status key
+     * @param key A String representation of the message status
+     * @param messageId A String representation of the message id, prefixed as by getByKey if archived
+     */
+    void addByKey(String key, String messageId) {
+        int status = statusOf(key, messageId);
+        if (status != 0) add(unprefixed(key, messageId), status);
+    }
+
+    /**
+     * Takes a message id from under a message status key
+     * @param key A String representation of the message status
+     * @param messageId A String representation of the message id, prefixed as by getByKey if archived
+     */
+    void removeByKey(String key, String messageId) {
+        int status = statusOf(key, messageId);
+        if (status != 0) remove(unprefixed(key, messageId), status);
+    }
+
+    /**
+     * Gets the message status keys that have messages
+     * @return A list of String representation of message status
+     */
+    List<String> getKeys() {
+        List<String> keys = new ArrayList<>();
+        for (int status : STATUSES) {
+            if (counts[indexOf(status)] > 0 || (status == ARCHIVED && counts[indexOf(ARCHIVED_SENT)] > 0))
+                keys.add(keyOf(status));
+        }
+        return keys;
+    }
+
+    /**
+     * Drops every status whose message status key is not given, a message is forgotten once it has no status left
+     * @param keys A collection of String representation of the message status to be kept
+     */
+    void retainKeys(Collection<String> keys) {
+        int kept = 0;
+        for (String key : keys) kept |= key.equals("archive") ? ARCHIVED | ARCHIVED_SENT : statusOf(key);
+        Iterator<Map.Entry<String, Byte>> entries = statuses.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, Byte> entry = entries.next();
+            int bits = entry.getValue();
+            if ((bits & ~kept) == 0) continue;
+            for (int i = 0; i < counts.length; i++) counts[i] -= (bits & ~kept) >> i & 1;
+            if ((bits & kept) == 0) entries.remove();
+            else entry.setValue((byte) (bits & kept));
+        }
+    }
+
+    private int bitsOf(String messageId) {
+        Byte bits = statuses.get(messageId);
+        return (bits == null) ? 0 : bits;
+    }
+
+    private void set(String messageId, int bits) {
+        int old = bitsOf(messageId);
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += ((bits >> i) & 1) - ((old >> i) & 1);
+        }
+        if (bits == 0) statuses.remove(messageId);
+        else statuses.put(messageId, (byte) bits);
+    }
+
+    private static int indexOf(int status) {
+        return Integer.numberOfTrailingZeros(status);
+    }
+
+    private static int statusOf(String key) {
+        switch (key) {
+            case "sent":
+                return SENT;
+            case "received":
+                return RECEIVED;
+            case "unread":
+                return UNREAD;
+            default:
+                return 0;
+        }
+    }
+
+    private static int statusOf(String key, String messageId) {
+        if (!key.equals("archive")) return statusOf(key);
+        if (messageId.startsWith("0")) return ARCHIVED;
+        if (messageId.startsWith("1")) return ARCHIVED_SENT;
+        return 0;
+    }
+
+    private static String unprefixed(String key, String messageId) {
+        return key.equals("archive") ? messageId.substring(1) : messageId;
+    }
+
+    private static String keyOf(int status) {
+        switch (status) {
+            case SENT:
+                return "sent";
+            case RECEIVED:
+                return "received";
+            case UNREAD:
+                return "unread";
+            default:
+                return "archive";
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package account;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * An index of when every speaker is busy, used to find the speakers free for a whole event duration without asking
+ * every speaker. Time is cut into buckets of one hour, and every bucket has a bitmap of the speakers that have
+ * something scheduled during it. A speaker that is not marked in any bucket the duration touches is free, and only
+ * the marked ones are checked against their own schedule. The bitmaps are updated whenever a speaker's schedule is.
+ * @author Group0694
+ * @version 3.0.0
+ */
+class SpeakerAvailability {
+    private static final long BUCKET_MILLIS = 60 * 60 * 1000;
+
+    // Speakers are numbered in the order they are added, and the number is their bit in every bitmap
+    private final Map<String, Integer> numbers = new HashMap<>();
+    private final List<Account> speakers = new ArrayList<>();
+    private final BitSet present = new BitSet();
+    // Maps the start of every bucket, in number of buckets since the epoch, to the speakers busy during it
+    private final NavigableMap<Long, BitSet> busy = new TreeMap<>();
+
+    /**
+     * Adds a speaker with everything in its schedule, replacing the speaker of the same username if there is one
+     * @param speaker The account of the speaker
+     */
+    void add(Account speaker) {
+        remove(speaker.getName());
+        int number = speakers.size();
+        numbers.put(speaker.getName(), number);
+        speakers.add(speaker);
+        present.set(number);
+        for (Map.Entry<Timestamp[], String> entry : speaker.schedule) {
+            long[] range = bucketsOf(entry.getKey()[0], entry.getKey()[1]);
+            for (long bucket = range[0]; bucket <= range[1]; bucket++) {
+                busy.computeIfAbsent(bucket, k -> new BitSet()).set(number);
+            }
+        }
+    }
+
+    /**
+     * Removes a speaker, if it is in this index
+     * @param username A String representation of the username of the speaker
+     */
+    void remove(String username) {
+        Integer number = numbers.remove(username);
+        if (number == null) return;
+        // The number is not given to another speaker, so the bits it leaves in the bitmaps are never read
+        present.clear(number);
+        speakers.set(number, null);
+    }
+
+    /**
+     * Checks if a speaker is in this index
+     * @param username A String representation of the username
+     * @return true iff the speaker is in this index
+     */
+    boolean contains(String username) {
+        return numbers.containsKey(username);
+    }
+
+    /**
+     * Updates the buckets touched by the given duration after the speaker's schedule is changed during it
+     * @param username A String representation of the username of the speaker
+     * @param timeDuration A sorted collection of time interval where start time is at index 0 and end time is index 1
+     */
+    void refresh(String username, SortedSet<Timestamp[]> timeDuration) {
+        Integer number = numbers.get(username);
+        if (number == null) return;
+        Account speaker = speakers.get(number);
+        for (Timestamp[] t : timeDuration) {
+            long[] range = bucketsOf(t[0], t[1]);
+            for (long bucket = range[0]; bucket <= range[1]; bucket++) {
+                boolean isBusy = !speaker.schedule.isFree(bucket * BUCKET_MILLIS, (bucket + 1) * BUCKET_MILLIS);
+                BitSet bits = busy.get(bucket);
+                if (isBusy) {
+                    if (bits == null) busy.put(bucket, bits = new BitSet());
+                    bits.set(number);
+                } else if (bits != null) {
+                    bits.clear(number);
+                    if (bits.isEmpty()) busy.remove(bucket);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the speakers free for a whole duration, or already speaking at the given event
+     * @param timeDuration A sorted collection of time interval where start time is at index 0 and end time is index 1
+     * @param eventId A String representation of event id
+     * @return A list of the usernames of those speakers, in the order they were added
+     */
+    List<String> getFree(SortedSet<Timestamp[]> timeDuration, String eventId) {
+        BitSet marked = new BitSet();
+        for (Timestamp[] t : timeDuration) {
+            long[] range = bucketsOf(t[0], t[1]);
+            for (BitSet bits : busy.subMap(range[0], true, range[1], true).values()) marked.or(bits);
+        }
+        marked.and(present);
+        BitSet free = (BitSet) present.clone();
+        free.andNot(marked);
+        // A marked speaker may still be free, if what it has in those buckets does not overlap the duration
+        for (int i = marked.nextSetBit(0); i >= 0; i = marked.nextSetBit(i + 1)) {
+            Account speaker = speakers.get(i);
+            if (speaker.isInSpecialist(eventId) || speaker.schedule.isFree(timeDuration)) free.set(i);
+        }
+        List<String> result = new ArrayList<>(free.cardinality());
+        for (int i = free.nextSetBit(0); i >= 0; i = free.nextSetBit(i + 1)) result.add(speakers.get(i).getName());
+        return result;
+    }
+
+    // The first and last bucket an interval touches, an empty interval still touches the bucket it is in
+    private long[] bucketsOf(Timestamp startTime, Timestamp endTime) {
+        long first = Math.floorDiv(startTime.getTime(), BUCKET_MILLIS);
+        long last = Math.floorDiv(endTime.getTime() - 1, BUCKET_MILLIS);
+        return new long[]{first, Math.max(first, last)};
+    }
+}
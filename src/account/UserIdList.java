@@ -0,0 +1,267 @@
+package account;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A list of distinct usernames in the order they are added, kept as the int ids given by a UserSymbols. The usernames
+ * are only looked up when the list is iterated, and the list is written by username when it is serialized. A list
+ * made on its own has a table of its own until it is moved to the table of the AccountManager it is put in.
+ * Once the list is longer than a few usernames it also keeps an open addressing hash table from id to position, so
+ * checking, adding and removing a username take constant time however long the list grows. A removed username only
+ * leaves a hole, and the holes are closed up once they are as many as the usernames left.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class UserIdList implements Serializable, Iterable<String> {
+    private static final long serialVersionUID = 1L;
+    private static final int HASHED_SIZE = 16;
+    private static final int REMOVED = -1;
+
+    // The ids in the order they are added, with REMOVED at the positions of removed ones
+    private transient int[] ids;
+    private transient int end;
+    private transient int size;
+    // Maps the hash of every id to its position plus one, 0 for an empty slot, null while the list is short
+    private transient int[] table;
+    // The table the ids are from, made on first use if none is given
+    private transient UserSymbols symbols;
+
+    /**
+     * Creates an empty UserIdList
+     */
+    public UserIdList() {
+        ids = new int[0];
+    }
+
+    /**
+     * Creates an empty UserIdList of the ids of a given table
+     * @param symbols The UserSymbols the ids are given by
+     */
+    UserIdList(UserSymbols symbols) {
+        this();
+        this.symbols = symbols;
+    }
+
+    /**
+     * Adds a username to the end of the list, if it is not in the list
+     * @param username A String representation of the username
+     * @return true iff the username was not in the list
+     */
+    public boolean add(String username) {
+        return addId(symbols().intern(username));
+    }
+
+    /**
+     * Removes a username from the list
+     * @param username A String representation of the username
+     * @return true iff the username was in the list
+     */
+    public boolean remove(String username) {
+        return symbols != null && removeId(symbols.find(username));
+    }
+
+    /**
+     * Checks if a username is in the list
+     * @param username A String representation of the username
+     * @return true iff the username is in the list
+     */
+    public boolean contains(String username) {
+        return symbols != null && containsId(symbols.find(username));
+    }
+
+    /**
+     * Gets the number of usernames in the list
+     * @return The number of usernames
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets all usernames in the list
+     * @return An iterator of the usernames, in the order they were added
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int next = skipRemoved(0);
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public String next() {
+                if (next >= end) throw new NoSuchElementException();
+                String username = symbols.nameOf(ids[next]);
+                next = skipRemoved(next + 1);
+                return username;
+            }
+        };
+    }
+
+    /**
+     * Moves the list to the ids of another table, looking up every username in it again if the table is not the same
+     * @param other The UserSymbols the ids are given by from now on
+     */
+    void useSymbols(UserSymbols other) {
+        if (symbols == other) return;
+        int[] found = toIdArray();
+        UserSymbols old = symbols;
+        symbols = other;
+        ids = new int[found.length];
+        end = 0;
+        size = 0;
+        table = null;
+        for (int id : found) addId(other.intern(old.nameOf(id)));
+    }
+
+    /**
+     * Checks if an id is in the list
+     * @param id An id given by UserSymbols
+     * @return true iff the id is in the list
+     */
+    boolean containsId(int id) {
+        return positionOf(id) >= 0;
+    }
+
+    /**
+     * Adds an id to the end of the list, if it is not in the list
+     * @param id An id given by UserSymbols
+     * @return true iff the id was not in the list
+     */
+    boolean addId(int id) {
+        if (positionOf(id) >= 0) return false;
+        if (end == ids.length) {
+            if (end - size >= size && end > 0) compact();
+            else ids = Arrays.copyOf(ids, Math.max(4, end + (end >> 1)));
+        }
+        ids[end] = id;
+        if (table != null) putSlot(id, end);
+        end++;
+        size++;
+        if ((table == null && size > HASHED_SIZE) || (table != null && size * 2 > table.length)) rehash();
+        return true;
+    }
+
+    /**
+     * Removes an id from the list
+     * @param id An id given by UserSymbols
+     * @return true iff the id was in the list
+     */
+    boolean removeId(int id) {
+        int position = positionOf(id);
+        if (position < 0) return false;
+        if (table != null) removeSlot(id);
+        ids[position] = REMOVED;
+        size--;
+        if (end - size > Math.max(size, HASHED_SIZE)) compact();
+        return true;
+    }
+
+    /**
+     * Gets all ids in the list
+     * @return An array of the ids, in the order they were added
+     */
+    int[] toIdArray() {
+        int[] found = new int[size];
+        int i = 0;
+        for (int position = skipRemoved(0); position < end; position = skipRemoved(position + 1)) {
+            found[i++] = ids[position];
+        }
+        return found;
+    }
+
+    private UserSymbols symbols() {
+        if (symbols == null) symbols = new UserSymbols();
+        return symbols;
+    }
+
+    private int skipRemoved(int position) {
+        while (position < end && ids[position] == REMOVED) position++;
+        return position;
+    }
+
+    private int positionOf(int id) {
+        if (id < 0) return -1;
+        if (table == null) {
+            for (int i = 0; i < end; i++) {
+                if (ids[i] == id) return i;
+            }
+            return -1;
+        }
+        int mask = table.length - 1;
+        for (int slot = home(id, mask); table[slot] != 0; slot = (slot + 1) & mask) {
+            if (ids[table[slot] - 1] == id) return table[slot] - 1;
+        }
+        return -1;
+    }
+
+    private void putSlot(int id, int position) {
+        int mask = table.length - 1;
+        int slot = home(id, mask);
+        while (table[slot] != 0) slot = (slot + 1) & mask;
+        table[slot] = position + 1;
+    }
+
+    // Removes the slot of an id still in ids, and moves back the slots after it that would no longer be found
+    private void removeSlot(int id) {
+        int mask = table.length - 1;
+        int slot = home(id, mask);
+        while (ids[table[slot] - 1] != id) slot = (slot + 1) & mask;
+        table[slot] = 0;
+        for (int next = (slot + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int wanted = home(ids[table[next] - 1], mask);
+            // A slot stays if its home is cyclically after the emptied slot and no later than itself
+            boolean stays = (slot <= next) ? (slot < wanted && wanted <= next) : (slot < wanted || wanted <= next);
+            if (stays) continue;
+            table[slot] = table[next];
+            table[next] = 0;
+            slot = next;
+        }
+    }
+
+    private void compact() {
+        int live = 0;
+        for (int i = 0; i < end; i++) {
+            if (ids[i] != REMOVED) ids[live++] = ids[i];
+        }
+        end = live;
+        if (table != null) rehash();
+    }
+
+    private void rehash() {
+        if (size <= HASHED_SIZE / 2) {
+            table = null;
+            return;
+        }
+        table = new int[Integer.highestOneBit(size * 4 - 1)];
+        for (int i = 0; i < end; i++) {
+            if (ids[i] != REMOVED) putSlot(ids[i], i);
+        }
+    }
+
+    private static int home(int id, int mask) {
+        return (id * 0x9E3779B9 >>> 16 ^ id * 0x9E3779B9) & mask;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (String username : this) out.writeUTF(username);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int numUsernames = in.readInt();
+        ids = new int[numUsernames];
+        for (int i = 0; i < numUsernames; i++) add(in.readUTF());
+    }
+}
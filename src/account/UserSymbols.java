@@ -0,0 +1,78 @@
+package account;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The symbol table of usernames of one AccountManager. Every username is given a dense int id the first time it is
+ * interned, so collections of usernames can keep ints, and every id maps back to one shared String.
+ * The ids only live as long as the manager, anything that is written out is written by username. The id of a deleted
+ * account is released and given to the next new username, so the table stays as large as the usernames in use.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public final class UserSymbols {
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16];
+    private int size = 0;
+    // The released ids, given out again before any new one
+    private int[] free = new int[0];
+    private int numFree = 0;
+
+    /**
+     * Gets the id of a username, giving it a free id if it has none yet
+     * @param username A String representation of the username
+     * @return The id of the username
+     */
+    public int intern(String username) {
+        Integer id = ids.get(username);
+        if (id != null) return id;
+        synchronized (this) {
+            id = ids.get(username);
+            if (id != null) return id;
+            int next;
+            if (numFree > 0) {
+                next = free[--numFree];
+            } else {
+                if (size == names.length) names = Arrays.copyOf(names, size * 2);
+                next = size++;
+            }
+            names[next] = username;
+            // The name is in place before the id can be found
+            ids.put(username, next);
+            return next;
+        }
+    }
+
+    /**
+     * Gets the id of a username without interning it
+     * @param username A String representation of the username
+     * @return The id of the username, or -1 if it was never interned
+     */
+    public int find(String username) {
+        Integer id = ids.get(username);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * Gets the username of an id
+     * @param id An id returned by intern
+     * @return The String representation of the username
+     */
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    /**
+     * Releases the id of a username, once no list of this table has it any more
+     * @param username A String representation of the username
+     */
+    synchronized void release(String username) {
+        Integer id = ids.remove(username);
+        if (id == null) return;
+        names[id] = null;
+        if (numFree == free.length) free = Arrays.copyOf(free, Math.max(4, numFree * 2));
+        free[numFree++] = id;
+    }
+}
@@ -42,7 +42,7 @@ public class ConferenceRegisterSystem {
         crp.printSeparateLine();
         AccountFactory af = new AccountFactory();
         if (usernameValidator.validate(username)) {
-            if (am.getAccountInfo(username) == null) {
+            if (!am.checkUser(username)) {
                 if (passwordValidator.validate(password)) {
                     if (af.getAccount(accountType, username, password) != null) {
                         crp.printActionMessage("Account Created: " + username + ", Type: " + accountType);
@@ -61,6 +61,21 @@ public class ConferenceRegisterSystem {
         }
     }
 
+    /**
+     * Checks if the given data can create an account, without creating it or checking if the username is taken.
+     * Safe to be called by many threads at once.
+     * @param accountType A string represents the type of account.
+     * @param username A string represents the username of the account.
+     * @param password A string represents the password of the account.
+     * @return null iff the data are valid, otherwise the reason why they are not, which does not repeat the data
+     */
+    public String checkAccountData(String accountType, String username, String password) {
+        if (!usernameValidator.validate(username)) return "Invalid Username";
+        if (!passwordValidator.validate(password)) return "Invalid Password";
+        if (new AccountFactory().getAccount(accountType, username, password) == null) return "Invalid Account Type";
+        return null;
+    }
+
     private String enterUsername(Scanner c, ConferencePresenter crp, String accountType, AccountManager am) {
         crp.enterUsernameWithRestriction(usernameValidator.getDescription());
         String input = c.nextLine();
@@ -73,7 +88,7 @@ public class ConferenceRegisterSystem {
                 crp.printInvalidInput();
                 crp.getInput();
                 input = c.nextLine();
-            } else if (am.getAccountInfo(input) != null) {
+            } else if (am.checkUser(input)) {
                 crp.printAccountExist();
                 crp.getInput();
                 input = c.nextLine();
@@ -1,11 +1,16 @@
 package authentication;
 
+import java.util.regex.Pattern;
+
 /**
  * A class implements Validator interface, can check if the password from user input is valid.
  * @author Group0694
  * @version 2.0.0
  */
 public class SimpleValidationPassword implements Validator {
+    // Compiled once, since the bulk import validates every account with it
+    private static final Pattern PASSWORD = Pattern.compile("^(?=.*[A-Z])(?=.*[a-z])(?=.*[0-9])\\w{6,15}$");
+
     /**
      * Checks if the given password contains only legal characters and password not null
      * @param password the String password given by user input
@@ -13,7 +18,7 @@ public class SimpleValidationPassword implements Validator {
      */
     @Override
     public boolean validate(String password) {
-        return password != null && password.matches("^(?=.*[A-Z])(?=.*[a-z])(?=.*[0-9])\\w{6,15}$");
+        return password != null && PASSWORD.matcher(password).matches();
     }
 
     /**
@@ -1,11 +1,15 @@
 package authentication;
 
+import java.util.regex.Pattern;
+
 /**
  * A class implements Validator interface, can check if the username from user input is valid.
  * @author Group0694
  * @version 2.0.0
  */
 class SimpleValidationUsername implements Validator {
+    // Compiled once, since the bulk import validates every account with it
+    private static final Pattern USERNAME = Pattern.compile("^[a-zA-Z0-9]{3,15}");
 
     /**
      * Checks if the given username contains only legal characters, and username not null.
@@ -14,7 +18,7 @@ class SimpleValidationUsername implements Validator {
      */
     @Override
     public boolean validate(String username) {
-        return username != null && username.matches("^[a-zA-Z0-9]{3,15}");
+        return username != null && USERNAME.matcher(username).matches();
     }
 
     /**
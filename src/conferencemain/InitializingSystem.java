@@ -1,10 +1,24 @@
 package conferencemain;
 
+import data.ConferenceInfoGateway;
 import data.DataSaver;
+import data.Journal;
+import data.MainGateway;
 import data.UserDataConverter;
 import event.EventManager;
+import message.MessageCodec;
 import message.MessagingManager;
 import room.RoomManager;
+import userinterface.ConferenceCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import account.AccountCodec;
 import account.AccountManager;
 
 /**
@@ -14,31 +28,102 @@ import account.AccountManager;
  * @version 2.0.0
  */
 public class InitializingSystem{
+    // Number of threads that read the databases at startup
+    private static final int LOADER_THREADS = 3;
+
     // Storing all 4 managers to avoid long parameters for most methods in this class, and convenience
     // Knowing that this class only responsible for creating these use cases and sending them to gateway
     private AccountManager accountManager;
     private MessagingManager messagingManager;
+    private Journal accountJournal;
+    private Journal messageJournal;
+    private MessageCodec messageCodec;
+    // The versions of the managers once they are read and their journals are replayed
+    private long accountVersion;
+    private long messageVersion;
+    @SuppressWarnings("FieldMayBeFinal")
+    private MainPresenter mainPresenter = new MainPresenter();
 
     /* helper for run() */
     private boolean getData(){
+        long start = System.nanoTime();
+        ExecutorService loader = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "startup-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Messages and accounts do not depend on each other, so they are read at the same time
+        CompletableFuture<Long> messageMillis = CompletableFuture.supplyAsync(() -> timed(this::readMessage), loader);
+        CompletableFuture<Long> accountMillis = CompletableFuture.supplyAsync(() -> timed(this::readAccount), loader);
         try {
-            this.readMessage();
+            mainPresenter.printActionMessage("Read messages in " + messageMillis.join() + " ms and accounts in " +
+                    accountMillis.join() + " ms, ready in " + elapsedMillis(start) + " ms");
+        } catch (CompletionException ex) {
+            loader.shutdown();
+            if (ex.getCause() instanceof ClassNotFoundException) return false;
+            throw ex;
+        }
 
-            this.readAccount();
+        // Conferences marked for preload are read while the welcome menu waits for the first input
+        List<String> preload = readPreloadList();
+        if (!preload.isEmpty()) ConferenceCache.preload(preload, accountManager, loader);
+        loader.shutdown();
+        return true;
+    }
 
-            return true;
+    /* helper for getData() */
+    private long timed(DataReader reader){
+        long start = System.nanoTime();
+        try {
+            reader.read();
         } catch (ClassNotFoundException cnfe){
-            return false;
+            throw new CompletionException(cnfe);
+        }
+        return elapsedMillis(start);
+    }
+
+    private long elapsedMillis(long startNanos){
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private List<String> readPreloadList(){
+        List<String> preload = new ArrayList<>();
+        List<String> lines = new ConferenceInfoGateway().readTextFile("PreloadDataBase.txt");
+        if (lines == null) return preload;
+        for (String line : lines) {
+            if (!line.trim().isEmpty()) preload.add(line.trim());
         }
+        return preload;
     }
 
     /* helper for run() */
     private void saveData(){
-        DataSaver<MessagingManager> messageSaver = new DataSaver<>();
-        messageSaver.saveToFile(messageSaver.getSrcPath("MessageDataBase.ser"), messagingManager);
+        // Only commits the journals, unless they have grown large enough for a new snapshot, which is then taken
+        // in the background and the journal is emptied once it is durable. Unchanged managers are not written at all.
+        // Erased messages are still in the message journal, so it is emptied right away
+        DataSaver<MessagingManager> messageSaver = new DataSaver<>(messageCodec);
+        if (messagingManager.getVersion() == messageVersion) {
+            messageSaver.reportSkippedSave(messageSaver.getSrcPath("MessageDataBase.ser"));
+        } else if (!messageJournal.commit() || messageJournal.size() >= Journal.CHECKPOINT_THRESHOLD
+                || messagingManager.hasErasedMessages()) {
+            messageSaver.checkpoint(messageSaver.getSrcPath("MessageDataBase.ser"), messagingManager,
+                    messageJournal::reset);
+        }
+
+        DataSaver<AccountManager> accountSaver = new DataSaver<>(new AccountCodec());
+        if (accountManager.getVersion() == accountVersion) {
+            accountSaver.reportSkippedSave(accountSaver.getSrcPath("UserInfoDataBase.ser"));
+        } else if (!accountJournal.commit() || accountJournal.size() >= Journal.CHECKPOINT_THRESHOLD) {
+            accountSaver.checkpoint(accountSaver.getSrcPath("UserInfoDataBase.ser"), accountManager,
+                    accountJournal::reset);
+        }
+    }
 
-        DataSaver<AccountManager> accountSaver = new DataSaver<>();
-        accountSaver.saveToFile(accountSaver.getSrcPath("UserInfoDataBase.ser"), accountManager);
+    /* helper for run() */
+    private void discardData(){
+        // Mutations are committed to the journals in batches during the run, so they need to be rolled back
+        messageJournal.rollback();
+        accountJournal.rollback();
     }
 
     /**
@@ -50,25 +135,49 @@ public class InitializingSystem{
             WelcomeSystem welcome = new WelcomeSystem(accountManager, messagingManager);
             if (welcome.start()) {
                 this.saveData();
+            } else {
+                this.discardData();
             }
+            // Conferences still kept in memory are saved the same way as when they are evicted
+            ConferenceCache.flushAll();
+            DataSaver.awaitCheckpoints();
+            messageJournal.close();
+            accountJournal.close();
         }
     }
 
     private void readAccount() throws ClassNotFoundException {
-        DataSaver<AccountManager> readAccount = new DataSaver<>();
+        // Accounts are decoded from the file only when they are used, so startup does not depend on the user base
+        DataSaver<AccountManager> readAccount = new DataSaver<>(new AccountCodec(true));
         this.accountManager = readAccount.readFromFile(readAccount.getSrcPath("UserInfoDataBase.ser"));
         if (this.accountManager == null) {
             UserDataConverter converter = new UserDataConverter();
             converter.convertData(readAccount.getSrcPath("UserTxtDataBase.txt"),
                     readAccount.getSrcPath("UserInfoDataBase.ser"), readAccount);
             this.accountManager = readAccount.readFromFile(readAccount.getSrcPath("UserInfoDataBase.ser"));
+            // The import failed and was reported, accounts can still be created
+            if (this.accountManager == null) this.accountManager = new AccountManager();
         }
+        accountJournal = new Journal(Journal.journalPathFor(readAccount.getSrcPath("UserInfoDataBase.ser")));
+        accountJournal.replay(accountManager);
+        accountManager.setMutationLog(accountJournal);
+        accountVersion = accountManager.getVersion();
     }
 
     private void readMessage() throws ClassNotFoundException {
-        DataSaver<MessagingManager> readMessage = new DataSaver<>();
+        // The messages themselves stay in the segment files until they are shown
+        messageCodec = new MessageCodec(new MainGateway().getSrcPath("MessageDataBase"));
+        DataSaver<MessagingManager> readMessage = new DataSaver<>(messageCodec);
         this.messagingManager = readMessage.readFromFile(readMessage.getSrcPath("MessageDataBase.ser"));
-        if (this.messagingManager == null) this.messagingManager = new MessagingManager();
+        if (this.messagingManager == null) this.messagingManager = messageCodec.createManager();
+        messageJournal = new Journal(Journal.journalPathFor(readMessage.getSrcPath("MessageDataBase.ser")));
+        messageJournal.replay(messagingManager);
+        messagingManager.setMutationLog(messageJournal);
+        messageVersion = messagingManager.getVersion();
     }
 
+    // Reads one database, for getData() to run on the loader threads
+    private interface DataReader {
+        void read() throws ClassNotFoundException;
+    }
 }
@@ -4,6 +4,7 @@ import account.AccountManager;
 import event.EventManager;
 import message.MessagingManager;
 import room.RoomManager;
+import userinterface.ConferenceCache;
 import userinterface.UserSystemFactory;
 import authentication.ConferenceLoginSystem;
 import authentication.ConferenceRegisterSystem;
@@ -51,6 +52,8 @@ class WelcomeSystem {
         wp.printMenu();
         while (true){
             String input = sc.nextLine();
+            // Conferences preloaded in the background use the AccountManager until they are read
+            ConferenceCache.awaitPreload();
             switch (input){
                 case "0":
                     wp.requestTo("login");
@@ -0,0 +1,246 @@
+package data;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+
+/**
+ * Reads the compact binary format written by BinaryWriter, from a byte array or a buffer over a file. Records can
+ * be read in any order by moving to their position.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class BinaryReader {
+    private final ByteBuffer data;
+    private int position;
+    private final String[] symbols;
+    private final long sequence;
+    private final Path source;
+
+    /**
+     * Creates a BinaryReader over the bytes of a whole file, reads the header and the dictionary
+     * @param data The bytes of the whole file
+     * @throws IOException if the bytes are not in this format
+     */
+    public BinaryReader(byte[] data) throws IOException {
+        this(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Creates a BinaryReader over a whole file, reads the header and the dictionary
+     * @param data The content of the whole file
+     * @throws IOException if the content is not in this format
+     */
+    public BinaryReader(ByteBuffer data) throws IOException {
+        this(data, null);
+    }
+
+    /**
+     * Creates a BinaryReader over a whole file, reads the header and the dictionary. Nothing else is read until
+     * asked for, so the records of a file are only decoded where they are read.
+     * @param data The content of the whole file
+     * @param source The file the content was read from, so records can be read from it again later, may be null
+     * @throws IOException if the content is not in this format
+     */
+    public BinaryReader(ByteBuffer data, Path source) throws IOException {
+        this.data = data;
+        this.source = source;
+        if (!isBinaryFormat(data)) throw new StreamCorruptedException("not in the binary format");
+        position = BinaryWriter.MAGIC.length;
+        byte version = nextByte();
+        if (version < 1 || version > BinaryWriter.VERSION) throw new StreamCorruptedException("unknown format version");
+        sequence = (version >= 2) ? readVarLong() : 0;
+        symbols = new String[readVarInt()];
+        for (int i = 0; i < symbols.length; i++) symbols[i] = readString();
+    }
+
+    private BinaryReader(ByteBuffer data, String[] symbols, long sequence, Path source) {
+        this.data = data;
+        this.symbols = symbols;
+        this.sequence = sequence;
+        this.source = source;
+    }
+
+    /**
+     * Creates a BinaryReader over one record of the same file read again from it, using the dictionary of this one
+     * @param record The bytes of the record, from the position returned by position() to the end of the record
+     * @return A BinaryReader positioned at the start of the record, which does not keep the content of the file
+     */
+    public BinaryReader forRecord(ByteBuffer record) {
+        return new BinaryReader(record, symbols, sequence, source);
+    }
+
+    /**
+     * Gets the file the content was read from
+     * @return The file given when this BinaryReader was created, or null if it was not read from a file
+     */
+    public Path getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the sequence of the header
+     * @return The number of the last delta in a snapshot, or the number of a delta itself, 0 for version 1 files
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Checks if the given file content is written by BinaryWriter
+     * @param data The content of a whole file
+     * @return true iff the content starts with the magic header of this format
+     */
+    public static boolean isBinaryFormat(ByteBuffer data) {
+        if (data.limit() <= BinaryWriter.MAGIC.length) return false;
+        for (int i = 0; i < BinaryWriter.MAGIC.length; i++) {
+            if (data.get(i) != BinaryWriter.MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the current position, used to come back to a record later
+     * @return The position of the next byte to be read
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Checks if anything is left after the current position, used to read sections added to a format later
+     * @return true iff there are more bytes to be read
+     */
+    public boolean hasMore() {
+        return position < data.limit();
+    }
+
+    /**
+     * Moves to the given position, usually the start of a record
+     * @param position The position returned by position()
+     */
+    public void seek(int position) {
+        this.position = position;
+    }
+
+    /**
+     * Reads an int written by writeVarInt
+     * @return The int that is read
+     * @throws IOException if the data ends early
+     */
+    public int readVarInt() throws IOException {
+        return (int) readVarLong();
+    }
+
+    /**
+     * Reads a long written by writeVarLong
+     * @return The long that is read
+     * @throws IOException if the data ends early or the number is too long
+     */
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = nextByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new StreamCorruptedException("varint too long");
+    }
+
+    /**
+     * Reads a boolean written by writeBoolean
+     * @return The boolean that is read
+     * @throws IOException if the data ends early
+     */
+    public boolean readBoolean() throws IOException {
+        return nextByte() != 0;
+    }
+
+    /**
+     * Reads a String written by writeString
+     * @return The String that is read, may be null
+     * @throws IOException if the data ends early
+     */
+    public String readString() throws IOException {
+        int length = readVarInt() - 1;
+        if (length < 0) return null;
+        if (length > data.limit() - position) throw new EOFException();
+        byte[] bytes = new byte[length];
+        ByteBuffer slice = data.duplicate();
+        slice.position(position);
+        slice.get(bytes);
+        position += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a String written by writeSymbol
+     * @return The String that is read, may be null
+     * @throws IOException if the data ends early or refers to a String not in the dictionary
+     */
+    public String readSymbol() throws IOException {
+        int index = readVarInt() - 1;
+        if (index < 0) return null;
+        if (index >= symbols.length) throw new StreamCorruptedException("unknown symbol " + index);
+        return symbols[index];
+    }
+
+    /**
+     * Reads an id written by writeId
+     * @param prefix The first character of the id, the same as the one given to writeId
+     * @return The id that is read
+     * @throws IOException if the data ends early
+     */
+    public String readId(char prefix) throws IOException {
+        int number = readVarInt() - 1;
+        return (number < 0) ? readSymbol() : prefix + Integer.toString(number);
+    }
+
+    /**
+     * Reads a time written by writeTime
+     * @return The time that is read
+     * @throws IOException if the data ends early
+     */
+    public Timestamp readTime() throws IOException {
+        long zigzag = readVarLong();
+        return new Timestamp((zigzag >>> 1) ^ -(zigzag & 1));
+    }
+
+    /**
+     * Reads a time interval written by writeInterval
+     * @return A time interval where start time is at index 0 and end time is index 1
+     * @throws IOException if the data ends early
+     */
+    public Timestamp[] readInterval() throws IOException {
+        Timestamp start = readTime();
+        return new Timestamp[]{start, new Timestamp(start.getTime() + readVarLong())};
+    }
+
+    /**
+     * Starts reading a length-prefixed record
+     * @return The position right after this record, to be given to endRecord
+     * @throws IOException if the data ends early
+     */
+    public int beginRecord() throws IOException {
+        int length = readVarInt();
+        if (length < 0 || length > data.limit() - position) throw new EOFException();
+        return position + length;
+    }
+
+    /**
+     * Moves to the end of a record, skipping anything in it that is not read
+     * @param end The position returned by beginRecord
+     */
+    public void endRecord(int end) {
+        position = end;
+    }
+
+    private byte nextByte() throws IOException {
+        if (position >= data.limit()) throw new EOFException();
+        return data.get(position++);
+    }
+}
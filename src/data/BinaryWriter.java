@@ -0,0 +1,229 @@
+package data;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the compact binary format used by Codec. Numbers are written as varints, times as epoch millis, and
+ * repeated names (usernames, event ids, room names...) are written once into a string dictionary at the start of
+ * the file and referred to by their index. Each entity is written as a length-prefixed record.
+ * Layout: [magic "EMSB"][version][sequence][dictionary size][dictionary strings][records...]
+ * The sequence orders a snapshot and the delta files written after it, version 1 files have no sequence.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class BinaryWriter {
+    static final byte[] MAGIC = {'E', 'M', 'S', 'B'};
+    static final int VERSION = 2;
+
+    private byte[] body = new byte[256];
+    private int size = 0;
+    private final Map<String, Integer> symbols = new HashMap<>();
+    private final List<String> symbolList = new ArrayList<>();
+    private final List<Integer> recordStarts = new ArrayList<>();
+    private long sequence = 0;
+
+    /**
+     * Writes a non-negative int in 1 to 5 bytes
+     * @param value The int to be written
+     */
+    public void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes a non-negative long in 1 to 10 bytes
+     * @param value The long to be written
+     */
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            body[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        body[size++] = (byte) value;
+    }
+
+    /**
+     * Leaves room for a non-negative int that is only known once what follows it is written
+     * @return The position of the room, to be given to writeVarIntAt
+     */
+    public int reserveVarInt() {
+        ensureCapacity(5);
+        int position = size;
+        size += 5;
+        return position;
+    }
+
+    /**
+     * Writes a non-negative int into the room left by reserveVarInt, always in 5 bytes, which readVarInt reads the
+     * same as the shortest form
+     * @param position The position returned by reserveVarInt, outside of any record that is still open
+     * @param value The int to be written
+     */
+    public void writeVarIntAt(int position, int value) {
+        for (int i = 0; i < 4; i++) {
+            body[position + i] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        body[position + 4] = (byte) (value & 0x0F);
+    }
+
+    /**
+     * Writes a boolean in one byte
+     * @param value The boolean to be written
+     */
+    public void writeBoolean(boolean value) {
+        ensureCapacity(1);
+        body[size++] = (byte) (value ? 1 : 0);
+    }
+
+    /**
+     * Writes a String in place, used for free text like passwords, descriptions and message contents
+     * @param value The String to be written, may be null
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, body, size, bytes.length);
+        size += bytes.length;
+    }
+
+    /**
+     * Writes a String through the dictionary, used for names that are repeated many times in a file
+     * @param value The String to be written, may be null
+     */
+    public void writeSymbol(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = symbols.get(value);
+        if (index == null) {
+            index = symbolList.size();
+            symbols.put(value, index);
+            symbolList.add(value);
+        }
+        writeVarInt(index + 1);
+    }
+
+    /**
+     * Writes an id in the format of a prefix followed by a number (like "E12") as a varint of that number.
+     * Any other id is written through the dictionary.
+     * @param prefix The expected first character of the id
+     * @param id The id to be written
+     */
+    public void writeId(char prefix, String id) {
+        int number = parseId(prefix, id);
+        if (number >= 0) {
+            writeVarInt(number + 1);
+        } else {
+            writeVarInt(0);
+            writeSymbol(id);
+        }
+    }
+
+    /**
+     * Writes a time as epoch millis
+     * @param time The time to be written
+     */
+    public void writeTime(Timestamp time) {
+        long millis = time.getTime();
+        // zigzag, so times before 1970 still take few bytes
+        writeVarLong((millis << 1) ^ (millis >> 63));
+    }
+
+    /**
+     * Writes a time interval as its start time and its length in millis
+     * @param interval A time interval where start time is at index 0 and end time is index 1
+     */
+    public void writeInterval(Timestamp[] interval) {
+        writeTime(interval[0]);
+        writeVarLong(interval[1].getTime() - interval[0].getTime());
+    }
+
+    /**
+     * Starts a length-prefixed record, every record must be ended by endRecord
+     */
+    public void beginRecord() {
+        recordStarts.add(size);
+    }
+
+    /**
+     * Ends the last started record by putting its length in front of it
+     */
+    public void endRecord() {
+        int start = recordStarts.remove(recordStarts.size() - 1);
+        int length = size - start;
+        int prefix = varIntSize(length);
+        ensureCapacity(prefix);
+        System.arraycopy(body, start, body, start + prefix, length);
+        int end = size + prefix;
+        size = start;
+        writeVarInt(length);
+        size = end;
+    }
+
+    /**
+     * Sets the sequence written into the header
+     * @param sequence The number of the last delta in a snapshot, or the number of a delta itself
+     */
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Gets everything written, with the header and the dictionary in front of the records
+     * @return The bytes of the whole file
+     */
+    public byte[] toByteArray() {
+        BinaryWriter header = new BinaryWriter();
+        header.ensureCapacity(MAGIC.length + 1);
+        System.arraycopy(MAGIC, 0, header.body, 0, MAGIC.length);
+        header.size = MAGIC.length;
+        header.body[header.size++] = (byte) VERSION;
+        header.writeVarLong(sequence);
+        header.writeVarInt(symbolList.size());
+        for (String symbol : symbolList) header.writeString(symbol);
+        byte[] result = Arrays.copyOf(header.body, header.size + size);
+        System.arraycopy(body, 0, result, header.size, size);
+        return result;
+    }
+
+    // Returns the number of an id like "E12", or -1 if the id is not in that format
+    static int parseId(char prefix, String id) {
+        if (id == null || id.length() < 2 || id.length() > 10 || id.charAt(0) != prefix) return -1;
+        // A leading zero would not survive the round trip
+        if (id.charAt(1) == '0' && id.length() > 2) return -1;
+        long number = 0;
+        for (int i = 1; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            number = number * 10 + (c - '0');
+        }
+        return (number < Integer.MAX_VALUE) ? (int) number : -1;
+    }
+
+    private int varIntSize(int value) {
+        int bytes = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > body.length) body = Arrays.copyOf(body, Math.max(body.length * 2, size + extra));
+    }
+}
@@ -0,0 +1,34 @@
+package data;
+
+import java.io.IOException;
+
+/**
+ * An interface that converts a use case class to and from the compact binary format written by BinaryWriter.
+ * A DataSaver with a Codec writes this format instead of Java serialization.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public interface Codec<T> {
+    /**
+     * Writes the given use case class
+     * @param value The use case class to be written
+     * @param out The BinaryWriter the use case class is written to
+     */
+    void write(T value, BinaryWriter out);
+
+    /**
+     * Reads a use case class written by write
+     * @param in The BinaryReader the use case class is read from
+     * @return The use case class that is read
+     * @throws IOException if the data is damaged or does not belong to this kind of use case class
+     */
+    T read(BinaryReader in) throws IOException;
+
+    /**
+     * Migrates a use case class read from a ser file written by Java serialization before there was a Codec
+     * @param legacy The use case class read by LegacyInputStream, as one of the classes of data.legacy
+     * @return The use case class with the same information
+     * @throws IOException if the legacy use case class does not belong to this kind of use case class
+     */
+    T migrate(Object legacy) throws IOException;
+}
@@ -1,59 +1,477 @@
 package data;
 
 import conferencemain.MainPresenter;
+import data.legacy.LegacyInputStream;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
 
 /**
  * Gateway class. Contains method that read from and write to ser files.
+ * A ser file is never written in place: the new content goes to a temp file that is fsynced and then atomically
+ * renamed over the old one, and a number of prior generations are kept as "fileName.ser.1", "fileName.ser.2"...
+ * With a Codec, files are written in the compact binary format of that Codec, and ser files written by Java
+ * serialization before there was a Codec are migrated by it and written again in that format.
+ * With a DeltaCodec, a checkpoint only writes the entities changed since the last one into a delta file
+ * "fileName.ser.delta" followed by its sequence, and the ser file is read together with the deltas after it.
+ * Once the deltas are too many or too large, the next checkpoint writes the whole ser file again, with the sequence
+ * of the last delta it contains, and the deltas are deleted.
+ * There is no separate compactor that merges deltas into the ser file in the background. Merging them means reading
+ * them with the Codec, and the event and message Codecs read against the account and room managers in use, or open
+ * the message segments in use, which the background thread must not touch. So the whole ser file is encoded by the
+ * thread that takes the checkpoint, and only written by the background thread.
  * @author Group0694
- * @version 2.0.0
+ * @version 3.0.0
  */
 public class DataSaver<T> extends MainGateway {
+    // Number of prior generations kept next to each ser file by default
+    public static final int DEFAULT_GENERATIONS = 2;
+    // Number of deltas written after a ser file before the whole ser file is written again
+    public static final int MAX_DELTAS = 8;
+
+    // All checkpoints are written one after another by a single background thread
+    private static final ExecutorService checkpointWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checkpoint-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Checkpoints that are not durable yet, by file path
+    private static final Map<String, CompletableFuture<Boolean>> pendingCheckpoints = new ConcurrentHashMap<>();
+    // Milliseconds the last read or write of each file took in this run, by file path
+    private static final Map<String, Long> ioMillis = new ConcurrentHashMap<>();
+    // The deltas written after each ser file read or written in this run, by file path
+    private static final Map<String, DeltaChain> deltaChains = new HashMap<>();
 
     @SuppressWarnings("FieldMayBeFinal")
     private MainPresenter mainPresenter = new MainPresenter();
+    private final int generations;
+    private final Codec<T> codec;
+
+    /**
+     * Creates a DataSaver that uses Java serialization and keeps the default number of prior generations
+     */
+    public DataSaver() {
+        this(null, DEFAULT_GENERATIONS);
+    }
+
+    /**
+     * Creates a DataSaver that uses Java serialization and keeps the given number of prior generations
+     * @param generations The number of prior generations kept next to each ser file, 0 for none
+     */
+    public DataSaver(int generations) {
+        this(null, generations);
+    }
+
+    /**
+     * Creates a DataSaver that uses the given Codec and keeps the default number of prior generations
+     * @param codec The Codec that converts the use case class to and from the binary format
+     */
+    public DataSaver(Codec<T> codec) {
+        this(codec, DEFAULT_GENERATIONS);
+    }
+
+    /**
+     * Creates a DataSaver that uses the given Codec and keeps the given number of prior generations
+     * @param codec The Codec that converts the use case class to and from the binary format, null for Java
+     *              serialization
+     * @param generations The number of prior generations kept next to each ser file, 0 for none
+     */
+    public DataSaver(Codec<T> codec, int generations) {
+        this.codec = codec;
+        this.generations = generations;
+    }
 
-    /** Reads from a file that contains the information of a use case class
+    /** Reads from a file that contains the information of a use case class. If the file is missing or damaged,
+     * the newest readable prior generation is used instead.
      * @param path The location and name of the file reading from
      * @return A object of the use case class that extracted from a file
      * @throws ClassNotFoundException if the ser file contains the wrong class
      */
     public T readFromFile(String path) throws ClassNotFoundException {
+        // A checkpoint of this file may still be in flight
+        awaitCheckpoint(path);
+        long start = System.nanoTime();
+        T em = readGeneration(path, path);
+        if (em != null) {
+            ioMillis.put(path, elapsedMillis(start));
+            return em;
+        }
+        mainPresenter.printErrorMessage("fail to read from " + path);
+        for (int i = 1; i <= generations; i++) {
+            if (!new File(generationPath(path, i)).exists()) continue;
+            em = readGeneration(generationPath(path, i), path);
+            if (em != null) {
+                mainPresenter.printActionMessage("Recovered " + path + " from generation " + i);
+                return em;
+            }
+        }
+        return null;
+    }
+
+    /** Writes to a ser file that contains the use case class' information, returns once the file is durable
+     * @param filePath The location and name of the file reading from
+     * @param var A object of the use case class that need to be written to file
+     */
+    public void saveToFile(String filePath, T var) {
+        awaitCheckpoint(filePath);
+        long start = System.nanoTime();
+        Snapshot snapshot;
+        synchronized (deltaChains) {
+            snapshot = takeSnapshot(filePath, var, false);
+        }
+        if (snapshot != null && writeSnapshot(filePath, snapshot)) ioMillis.put(filePath, elapsedMillis(start));
+    }
+
+    /** Writes a ser file that was already written to a BinaryWriter by the Codec, for a use case class too large to
+     * be built in memory first. Returns once the file is durable.
+     * @param filePath The location and name of the file writing to
+     * @param encoded The BinaryWriter the use case class was written to
+     * @return true iff the file is durable
+     */
+    public boolean saveEncoded(String filePath, BinaryWriter encoded) {
+        awaitCheckpoint(filePath);
+        long sequence = lastDeltaOnDisk(filePath);
+        encoded.setSequence(sequence);
+        synchronized (deltaChains) {
+            // The delta chain starts again when the file is read
+            deltaChains.remove(filePath);
+        }
+        return writeSnapshot(filePath, new Snapshot(encoded.toByteArray(), false, sequence));
+    }
 
+    /** Takes a checkpoint of the use case class in the background. The use case class is copied into memory
+     * before this method returns, so it can be changed again right away, while the copy is written to the ser file,
+     * or only its changes to a delta file, by a background thread.
+     * @param filePath The location and name of the file writing to
+     * @param var A object of the use case class that need to be written to file
+     * @param afterSaved Runs on the background thread once the checkpoint is durable, may be null
+     * @return A future that completes with true iff the checkpoint is durable
+     */
+    public CompletableFuture<Boolean> checkpoint(String filePath, T var, Runnable afterSaved) {
+        long start = System.nanoTime();
+        Snapshot snapshot;
+        CompletableFuture<Boolean> previous;
+        // A failed write marks its delta chain broken while it is still pending, so it is seen either way
+        synchronized (deltaChains) {
+            snapshot = takeSnapshot(filePath, var, true);
+            previous = pendingCheckpoints.get(filePath);
+        }
+        if (snapshot == null) return CompletableFuture.completedFuture(false);
+        long serializeMillis = elapsedMillis(start);
+        CompletableFuture<Boolean> result = (previous == null ? CompletableFuture.completedFuture(true) : previous)
+                .handleAsync((previousSaved, ex) -> {
+                    // A delta only holds the changes since the checkpoint before it
+                    if (snapshot.delta && !Boolean.TRUE.equals(previousSaved)) return false;
+                    long writeStart = System.nanoTime();
+                    boolean saved = writeSnapshot(filePath, snapshot);
+                    if (saved) ioMillis.put(filePath, serializeMillis + elapsedMillis(writeStart));
+                    if (saved && afterSaved != null) afterSaved.run();
+                    return saved;
+                }, checkpointWriter);
+        pendingCheckpoints.put(filePath, result);
+        result.whenComplete((saved, ex) -> pendingCheckpoints.remove(filePath, result));
+        return result;
+    }
+
+    /**
+     * Waits until all checkpoints taken so far are written, called before the program exits
+     */
+    public static void awaitCheckpoints() {
+        for (CompletableFuture<Boolean> pending : pendingCheckpoints.values()) pending.join();
+    }
+
+    /**
+     * Reports that the use case class of the given file is unchanged, so it is not written again. The bytes not
+     * written are the size of the file, and the milliseconds not spent are estimated by the last read or write of
+     * the file in this run.
+     * @param filePath The location and name of the file that is not written
+     */
+    public void reportSkippedSave(String filePath) {
+        File file = new File(filePath);
+        Long millis = ioMillis.get(filePath);
+        mainPresenter.printActionMessage("Nothing changed in " + file.getName() + ", skipped writing " +
+                file.length() + " bytes" + (millis == null ? "" : " (about " + millis + " ms)"));
+    }
+
+    private void awaitCheckpoint(String path) {
+        CompletableFuture<Boolean> pending = pendingCheckpoints.get(path);
+        if (pending != null) pending.join();
+    }
+
+    private T readGeneration(String path, String filePath) throws ClassNotFoundException {
         // Use the example from class
         try {
-            InputStream file = new FileInputStream(path); // String path should be "fileName.ser"
-            InputStream buffer = new BufferedInputStream(file);
-            ObjectInput input = new ObjectInputStream(buffer);
-
-            // deserialize the EventManager
-            @SuppressWarnings("unchecked")
-            T em = (T)input.readObject();
-            input.close();
+            // String path should be "fileName.ser"
+            // Read into the heap rather than mapped, since a mapped file cannot be renamed over or deleted on every
+            // platform until the mapping is collected, which would make the next save or generation rotation fail.
+            // A Codec that reads its records lazily reads them from the file again, not from these bytes
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path)));
+            if (BinaryReader.isBinaryFormat(data)) {
+                if (codec == null) return null;
+                BinaryReader reader = new BinaryReader(data, Paths.get(path));
+                T em = codec.read(reader);
+                readDeltas(filePath, em, reader.getSequence(), data.capacity());
+                return em;
+            }
+            // Files written by Java serialization before there was a Codec
+            if (codec == null) {
+                try (ObjectInput input = new ObjectInputStream(new ByteArrayInputStream(data.array()))) {
+                    // deserialize the EventManager
+                    @SuppressWarnings("unchecked")
+                    T em = (T) input.readObject();
+                    return em;
+                }
+            }
+            // The classes in these files have changed since, so they are read as the classes of data.legacy and
+            // migrated, then written in the binary format right away. The legacy file is kept as a prior generation
+            T em;
+            try (ObjectInput input = new LegacyInputStream(new ByteArrayInputStream(data.array()))) {
+                em = codec.migrate(input.readObject());
+            }
+            saveToFile(filePath, em);
+            mainPresenter.printActionMessage("Converted " + new File(path).getName() + " to the binary format");
             return em;
         } catch (IOException ex) {
-            mainPresenter.printErrorMessage("fail to read from " + path);
             return null;
         }
     }
 
-    /** Writes to a ser file that contains the use case class' information
-     * @param filePath The location and name of the file reading from
-     * @param var A object of the use case class that need to be written to file
-     */
-    public void saveToFile(String filePath, T var) {
+    // Reads the deltas written after the ser file, in order, and starts the delta chain of the ser file
+    @SuppressWarnings("unchecked")
+    private void readDeltas(String filePath, T em, long sequence, long baseBytes) {
+        DeltaChain chain = new DeltaChain(sequence, baseBytes);
+        if (codec instanceof DeltaCodec) {
+            DeltaCodec<T> deltaCodec = (DeltaCodec<T>) codec;
+            // A missing delta was never made durable, so the ones after it do not apply
+            for (long next = sequence + 1; Files.exists(Paths.get(deltaPath(filePath, next))); next++) {
+                try {
+                    byte[] delta = Files.readAllBytes(Paths.get(deltaPath(filePath, next)));
+                    BinaryReader reader = new BinaryReader(ByteBuffer.wrap(delta));
+                    if (reader.getSequence() != next) throw new StreamCorruptedException("wrong delta sequence");
+                    deltaCodec.readDelta(em, reader);
+                    chain.append(next, delta.length);
+                } catch (IOException ex) {
+                    mainPresenter.printErrorMessage("fail to read from " + deltaPath(filePath, next));
+                    // The deltas after this one must not be read on top of the next one, so they are all replaced
+                    chain.broken = true;
+                    break;
+                }
+            }
+            chain.epoch = deltaCodec.getEpoch(em);
+        }
+        synchronized (deltaChains) {
+            deltaChains.put(filePath, chain);
+        }
+    }
+
+    // Serializes the whole use case class, or only its changes if a delta is allowed and worth it
+    @SuppressWarnings("unchecked")
+    private Snapshot takeSnapshot(String filePath, T var, boolean allowDelta) {
+        if (codec == null) {
+            byte[] bytes = serialize(filePath, var);
+            return (bytes == null) ? null : new Snapshot(bytes, false, 0);
+        }
+        DeltaChain chain = deltaChains.get(filePath);
+        if (allowDelta && chain != null && chain.canAppend()) {
+            BinaryWriter writer = new BinaryWriter();
+            writer.setSequence(chain.lastSequence + 1);
+            ((DeltaCodec<T>) codec).writeDelta(var, chain.epoch, writer);
+            byte[] delta = writer.toByteArray();
+            // Once the deltas would take more than half of the ser file, it is cheaper to write the ser file
+            if (chain.deltaBytes + delta.length <= chain.baseBytes / 2) {
+                chain.append(chain.lastSequence + 1, delta.length);
+                chain.epoch = ((DeltaCodec<T>) codec).getEpoch(var);
+                return new Snapshot(delta, true, chain.lastSequence);
+            }
+        }
+        long sequence = Math.max(chain == null ? 0 : chain.lastSequence, lastDeltaOnDisk(filePath));
+        BinaryWriter writer = new BinaryWriter();
+        writer.setSequence(sequence);
+        codec.write(var, writer);
+        byte[] bytes = writer.toByteArray();
+        DeltaChain next = new DeltaChain(sequence, bytes.length);
+        if (codec instanceof DeltaCodec) next.epoch = ((DeltaCodec<T>) codec).getEpoch(var);
+        deltaChains.put(filePath, next);
+        return new Snapshot(bytes, false, sequence);
+    }
+
+    // Writes a snapshot taken by takeSnapshot, and deletes the deltas a whole ser file contains once it is durable
+    private boolean writeSnapshot(String filePath, Snapshot snapshot) {
+        boolean saved = snapshot.delta
+                ? writeAtomically(deltaPath(filePath, snapshot.sequence), snapshot.bytes, false)
+                : writeAtomically(filePath, snapshot.bytes, true);
+        if (!saved) {
+            synchronized (deltaChains) {
+                DeltaChain chain = deltaChains.get(filePath);
+                if (chain != null) chain.broken = true;
+            }
+        } else if (!snapshot.delta && codec != null) {
+            deleteDeltas(filePath, snapshot.sequence);
+        }
+        return saved;
+    }
+
+    // Finds the highest sequence of the deltas of the given ser file, 0 if there are none
+    private long lastDeltaOnDisk(String filePath) {
+        long last = 0;
+        for (File delta : listDeltas(filePath)) {
+            last = Math.max(last, parseDeltaSequence(filePath, delta));
+        }
+        return last;
+    }
+
+    private void deleteDeltas(String filePath, long upToSequence) {
+        for (File delta : listDeltas(filePath)) {
+            if (parseDeltaSequence(filePath, delta) <= upToSequence && !delta.delete()) {
+                mainPresenter.printErrorMessage("fail to delete " + delta.getPath());
+            }
+        }
+    }
+
+    private File[] listDeltas(String filePath) {
+        File file = new File(filePath).getAbsoluteFile();
+        String prefix = file.getName() + ".delta";
+        File[] deltas = file.getParentFile().listFiles((dir, name) -> name.startsWith(prefix) &&
+                !name.endsWith(".tmp"));
+        return (deltas == null) ? new File[0] : deltas;
+    }
 
+    private long parseDeltaSequence(String filePath, File delta) {
         try {
-            OutputStream file = new FileOutputStream(filePath);
-            OutputStream buffer = new BufferedOutputStream(file);
+            return Long.parseLong(delta.getName().substring(new File(filePath).getName().length() + 6));
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private byte[] serialize(String filePath, T var) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
             ObjectOutput output = new ObjectOutputStream(buffer);
 
             // serialize the EventManager
             output.writeObject(var);
             output.close();
+            return buffer.toByteArray();
+        } catch (IOException ex) {
+            mainPresenter.printErrorMessage("fail to save to " + filePath);
+            return null;
+        }
+    }
+
+    private boolean writeAtomically(String filePath, byte[] snapshot, boolean keepGenerations) {
+        Path target = Paths.get(filePath);
+        Path temp = Paths.get(filePath + ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+                while (buffer.hasRemaining()) out.write(buffer);
+                out.force(true);
+            }
+            if (keepGenerations) rotateGenerations(target);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            forceDirectory(target);
+            return true;
         } catch (IOException ex) {
             mainPresenter.printErrorMessage("fail to save to " + filePath);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // The temp file is overwritten by the next save anyway
+            }
+            return false;
+        }
+    }
+
+    // Shifts "x.ser.1" to "x.ser.2" and so on, then keeps the current "x.ser" as "x.ser.1"
+    private void rotateGenerations(Path target) throws IOException {
+        if (generations <= 0 || !Files.exists(target)) return;
+        String path = target.toString();
+        for (int i = generations; i > 1; i--) {
+            Path older = Paths.get(generationPath(path, i - 1));
+            if (Files.exists(older)) {
+                Files.move(older, Paths.get(generationPath(path, i)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Path newest = Paths.get(generationPath(path, 1));
+        Files.deleteIfExists(newest);
+        try {
+            // The current file stays in place until the rename, so a hard link is enough
+            Files.createLink(newest, target);
+        } catch (IOException | UnsupportedOperationException ex) {
+            Files.copy(target, newest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Makes the rename itself durable, not supported on every platform
+    private void forceDirectory(Path target) {
+        Path directory = target.toAbsolutePath().getParent();
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException ignored) {
+            // The rename still happened, it is just not guaranteed to survive a power loss
+        }
+    }
+
+    private long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private String generationPath(String path, int generation) {
+        return path + "." + generation;
+    }
+
+    private String deltaPath(String path, long sequence) {
+        return path + ".delta" + sequence;
+    }
+
+    // The bytes of a checkpoint, either a whole ser file or a delta
+    private static class Snapshot {
+        private final byte[] bytes;
+        private final boolean delta;
+        private final long sequence;
+
+        private Snapshot(byte[] bytes, boolean delta, long sequence) {
+            this.bytes = bytes;
+            this.delta = delta;
+            this.sequence = sequence;
+        }
+    }
+
+    // The deltas written after a ser file, guarded by deltaChains
+    private static class DeltaChain {
+        private final long baseBytes;
+        private long lastSequence;
+        private int numDeltas = 0;
+        private long deltaBytes = 0;
+        // The modification epoch of the use case class when the last delta or ser file was taken, -1 if unknown
+        private long epoch = -1;
+        // true iff a delta or ser file failed to be written or read, so only a whole ser file can follow
+        private boolean broken = false;
+
+        private DeltaChain(long sequence, long baseBytes) {
+            this.lastSequence = sequence;
+            this.baseBytes = baseBytes;
+        }
+
+        private boolean canAppend() {
+            return !broken && epoch >= 0 && numDeltas < MAX_DELTAS;
+        }
+
+        private void append(long sequence, long bytes) {
+            lastSequence = sequence;
+            numDeltas++;
+            deltaBytes += bytes;
         }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package data;
+
+import java.io.IOException;
+
+/**
+ * A Codec that can also write only the entities changed since a modification epoch, into a delta file that is read
+ * on top of the last snapshot. Every entity carries the epoch of its last change, so a checkpoint only costs as much
+ * as what has changed.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public interface DeltaCodec<T> extends Codec<T> {
+    /**
+     * Gets the current modification epoch of the use case class, which only goes up as it is changed
+     * @param value The use case class
+     * @return The current modification epoch
+     */
+    long getEpoch(T value);
+
+    /**
+     * Writes every entity changed, and the id of every entity removed, after the given epoch
+     * @param value The use case class to be written
+     * @param sinceEpoch The modification epoch of the last checkpoint
+     * @param out The BinaryWriter the changes are written to
+     */
+    void writeDelta(T value, long sinceEpoch, BinaryWriter out);
+
+    /**
+     * Reads the changes written by writeDelta into the given use case class
+     * @param value The use case class read from the snapshot and the deltas before this one
+     * @param in The BinaryReader the changes are read from
+     * @throws IOException if the data is damaged
+     */
+    void readDelta(T value, BinaryReader in) throws IOException;
+}
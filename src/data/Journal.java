@@ -0,0 +1,272 @@
+package data;
+
+import conferencemain.MainPresenter;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Gateway class. An append-only write-ahead journal that sits next to a ser snapshot written by DataSaver.
+ * Each mutation is stored as one length-prefixed, checksummed record. Records are buffered and group-committed, so
+ * a batch of mutations costs one write and one fsync. On startup the journal is replayed on top of the snapshot.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class Journal implements MutationLog {
+    // Number of records since the last snapshot after which a full snapshot should be taken instead
+    public static final int CHECKPOINT_THRESHOLD = 4096;
+    private static final int DEFAULT_BATCH_SIZE = 64;
+    private static final int MAX_BATCH_BYTES = 64 * 1024;
+
+    @SuppressWarnings("FieldMayBeFinal")
+    private MainPresenter mainPresenter = new MainPresenter();
+    private final String path;
+    private final int batchSize;
+    private final List<byte[]> pending = new ArrayList<>();
+    private int pendingBytes = 0;
+    private int numRecords = 0;
+    private int openRecords = 0;
+    private long openLength = 0;
+    private boolean replaying = false;
+    private FileChannel channel;
+
+    /**
+     * Creates a journal stored at the given path
+     * @param path The location and name of the journal file
+     */
+    public Journal(String path) {
+        this(path, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a journal stored at the given path
+     * @param path The location and name of the journal file
+     * @param batchSize The number of records buffered before they are committed together
+     */
+    public Journal(String path, int batchSize) {
+        this.path = path;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets the path of the journal that belongs to the given snapshot
+     * @param snapshotPath The location and name of the ser snapshot
+     * @return The location and name of the journal file
+     */
+    public static String journalPathFor(String snapshotPath) {
+        return (snapshotPath.endsWith(".ser") ? snapshotPath.substring(0, snapshotPath.length() - 4) : snapshotPath)
+                + ".journal";
+    }
+
+    /**
+     * Buffers a record of one mutation, and commits the batch if it is full
+     * @param operation A String representation of the name of the mutating operation
+     * @param args The String representation of all arguments needed to redo this operation
+     */
+    @Override
+    public synchronized void record(String operation, String... args) {
+        // Mutations redone by replay() are already in the journal
+        if (replaying) return;
+        byte[] record = encode(operation, args);
+        pending.add(record);
+        pendingBytes += record.length;
+        numRecords++;
+        if (pending.size() >= batchSize || pendingBytes >= MAX_BATCH_BYTES) commit();
+    }
+
+    /**
+     * Writes all buffered records to the journal file with one write and one fsync
+     * @return true iff all buffered records are durable
+     */
+    public synchronized boolean commit() {
+        if (pending.isEmpty()) return true;
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(pendingBytes);
+            for (byte[] record : pending) buffer.put(record);
+            buffer.flip();
+            FileChannel out = getChannel();
+            while (buffer.hasRemaining()) out.write(buffer);
+            out.force(false);
+            pending.clear();
+            pendingBytes = 0;
+            return true;
+        } catch (IOException ex) {
+            mainPresenter.printErrorMessage("fail to write to " + path);
+            return false;
+        }
+    }
+
+    /**
+     * Replays every complete record in the journal file on the given use case class, in the order they are
+     * recorded. A torn record at the end of the file (from a crash during a write) is cut off. Mutations recorded
+     * into this journal while replaying are ignored.
+     * @param target The use case class that the records are replayed on
+     * @return The number of records replayed
+     */
+    public synchronized int replay(Journaled target) {
+        File file = new File(path);
+        if (!file.exists()) return 0;
+        long validLength = 0;
+        int replayed = 0;
+        replaying = true;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                byte[] body = readBody(input);
+                if (body == null) break;
+                validLength += 8 + body.length;
+                String[] record = decode(body);
+                try {
+                    String[] args = new String[record.length - 1];
+                    System.arraycopy(record, 1, args, 0, args.length);
+                    target.replay(record[0], args);
+                } catch (RuntimeException ex) {
+                    mainPresenter.printErrorMessage("fail to replay " + record[0] + " from " + path);
+                }
+                replayed++;
+            }
+        } catch (IOException ex) {
+            mainPresenter.printErrorMessage("fail to read from " + path);
+        } finally {
+            replaying = false;
+        }
+        try {
+            if (file.length() > validLength) getChannel().truncate(validLength);
+        } catch (IOException ex) {
+            mainPresenter.printErrorMessage("fail to repair " + path);
+        }
+        numRecords = replayed;
+        openRecords = replayed;
+        openLength = validLength;
+        return replayed;
+    }
+
+    /**
+     * Gets the number of records written since the last snapshot
+     * @return The number of records in this journal, including the ones not committed yet
+     */
+    public synchronized int size() {
+        return numRecords;
+    }
+
+    /**
+     * Empties the journal, called after a new snapshot that contains all recorded mutations is saved
+     */
+    public synchronized void reset() {
+        pending.clear();
+        pendingBytes = 0;
+        numRecords = 0;
+        openRecords = 0;
+        openLength = 0;
+        try {
+            getChannel().truncate(0);
+        } catch (IOException ex) {
+            mainPresenter.printErrorMessage("fail to reset " + path);
+        }
+    }
+
+    /**
+     * Discards every record written since the journal was replayed, so the data goes back to where it was when
+     * it was read
+     */
+    public synchronized void rollback() {
+        pending.clear();
+        pendingBytes = 0;
+        numRecords = openRecords;
+        try {
+            getChannel().truncate(openLength);
+        } catch (IOException ex) {
+            mainPresenter.printErrorMessage("fail to roll back " + path);
+        }
+    }
+
+    /**
+     * Commits all buffered records and closes the journal file
+     */
+    public synchronized void close() {
+        commit();
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException ex) {
+            mainPresenter.printErrorMessage("fail to close " + path);
+        }
+        channel = null;
+    }
+
+    private FileChannel getChannel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(new File(path).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        channel.position(channel.size());
+        return channel;
+    }
+
+    // Record layout: [int payload length][int crc32 of payload][payload]
+    // Payload layout: [short number of strings][for each string: int byte length, UTF-8 bytes], operation first
+    private byte[] encode(String operation, String[] args) {
+        try {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            payload.writeShort(args.length + 1);
+            writeString(payload, operation);
+            for (String arg : args) writeString(payload, arg);
+            byte[] body = payloadBytes.toByteArray();
+
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(body.length + 8);
+            DataOutputStream record = new DataOutputStream(recordBytes);
+            record.writeInt(body.length);
+            record.writeInt((int) crc.getValue());
+            record.write(body);
+            return recordBytes.toByteArray();
+        } catch (IOException ex) {
+            // Writing to a byte array never fails
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeString(DataOutputStream out, String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Returns null at the end of the file or at a torn or corrupted record
+    private byte[] readBody(DataInputStream input) throws IOException {
+        try {
+            int length = input.readInt();
+            int checksum = input.readInt();
+            if (length < 2) return null;
+            byte[] body = new byte[length];
+            input.readFully(body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            return ((int) crc.getValue() == checksum) ? body : null;
+        } catch (EOFException ex) {
+            return null;
+        }
+    }
+
+    private String[] decode(byte[] body) throws IOException {
+        DataInputStream payload = new DataInputStream(new ByteArrayInputStream(body));
+        String[] record = new String[payload.readShort()];
+        for (int i = 0; i < record.length; i++) {
+            int size = payload.readInt();
+            if (size < 0) continue;
+            byte[] bytes = new byte[size];
+            payload.readFully(bytes);
+            record[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return record;
+    }
+}
@@ -0,0 +1,28 @@
+package data;
+
+/**
+ * An interface for use case classes whose mutations can be recorded into a Journal and replayed from it.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public interface Journaled {
+    /**
+     * Sets the log that all following mutations will be recorded into
+     * @param log An instance of MutationLog, or null to stop recording
+     */
+    void setMutationLog(MutationLog log);
+
+    /**
+     * Redoes one recorded mutation, without recording it again
+     * @param operation A String representation of the name of the mutating operation
+     * @param args The String representation of all arguments of this operation
+     */
+    void replay(String operation, String[] args);
+
+    /**
+     * Gets the number of mutations made to the use case class since it was created or read.
+     * The use case class is unchanged as long as this number stays the same.
+     * @return The number of mutations so far
+     */
+    long getVersion();
+}
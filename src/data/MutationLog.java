@@ -0,0 +1,68 @@
+package data;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * An interface that records every mutation made through a use case class as a compact record, so the mutation can
+ * be replayed later on top of the last saved snapshot of that use case class.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public interface MutationLog {
+    /**
+     * Records one mutation
+     * @param operation A String representation of the name of the mutating operation
+     * @param args The String representation of all arguments needed to redo this operation
+     */
+    void record(String operation, String... args);
+
+    /**
+     * Encodes a time duration into one String argument, used when recording a mutation
+     * @param timeDuration A sorted collection of time interval where start time is at index 0 and end time is index 1
+     * @return A String representation of the duration in the format of "start-end,start-end" in epoch millis
+     */
+    static String encodeDuration(SortedSet<Timestamp[]> timeDuration) {
+        StringBuilder sb = new StringBuilder();
+        for (Timestamp[] t : timeDuration) {
+            if (sb.length() != 0) sb.append(',');
+            sb.append(t[0].getTime()).append('-').append(t[1].getTime());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates an empty time duration, ordered the same way as the durations of events
+     * @return An empty sorted collection of time interval where start time is at index 0 and end time is index 1
+     */
+    static SortedSet<Timestamp[]> newDuration() {
+        return new TreeSet<>((Comparator<Timestamp[]> & Serializable)
+                (Timestamp[] t1, Timestamp[] t2) -> {
+                    if (!t1[1].after(t2[0]))
+                        return -1;
+                    if (!t2[1].after(t1[0]))
+                        return 1;
+                    return 0;
+                }
+        );
+    }
+
+    /**
+     * Decodes a time duration encoded by encodeDuration
+     * @param encoded A String representation of the duration in the format of "start-end,start-end"
+     * @return A sorted collection of time interval where start time is at index 0 and end time is index 1
+     */
+    static SortedSet<Timestamp[]> decodeDuration(String encoded) {
+        SortedSet<Timestamp[]> timeDuration = newDuration();
+        if (encoded.isEmpty()) return timeDuration;
+        for (String interval : encoded.split(",")) {
+            int split = interval.indexOf('-', 1);
+            timeDuration.add(new Timestamp[]{new Timestamp(Long.parseLong(interval.substring(0, split))),
+                    new Timestamp(Long.parseLong(interval.substring(split + 1)))});
+        }
+        return timeDuration;
+    }
+}
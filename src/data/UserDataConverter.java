@@ -1,5 +1,8 @@
 package data;
 
+import account.Account;
+import account.AccountCodec;
+import account.AccountFactory;
 import account.AccountManager;
 import authentication.ConferenceRegisterSystem;
 import conferencemain.MainPresenter;
@@ -7,43 +10,30 @@ import conferencemain.MainPresenter;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Gateway class. Contains method that convert data from txt format to ser files.
+ * The txt file is streamed in chunks of records. The records of a chunk are validated in parallel, and the valid
+ * ones are written into the ser file by AccountCodec right away, so the accounts are never all in memory at once.
+ * A rejected record is reported by its line number and the reason only, since the record holds a password.
  * @author Group0694
- * @version 2.0.0
+ * @version 3.0.0
  */
 public class UserDataConverter {
+    // Number of records read, validated and written together
+    private static final int CHUNK_SIZE = 4096;
 
     @SuppressWarnings("FieldMayBeFinal")
     private MainPresenter wp = new MainPresenter();
-
-    private AccountManager readFromFile(String path) {
-        try {
-            FileReader fr = new FileReader(path);
-            BufferedReader br = new BufferedReader(fr);
-            String currLine = br.readLine();
-            String accountType, username, password;
-            AccountManager am = new AccountManager();
-            ConferenceRegisterSystem crs = new ConferenceRegisterSystem();
-            while (currLine != null) {
-                if (!currLine.startsWith("#")) {
-                    accountType = currLine;
-                    username = br.readLine();
-                    password = br.readLine();
-                    br.readLine();
-                    crs.createAccountWithData(accountType, username, password, am);
-                }
-                currLine = br.readLine();
-            }
-            fr.close();
-            br.close();
-            return am;
-        } catch (IOException e) {
-            wp.printErrorMessage("fail to read from " + path);
-            return new AccountManager();
-        }
-    }
+    @SuppressWarnings("FieldMayBeFinal")
+    private ConferenceRegisterSystem crs = new ConferenceRegisterSystem();
 
     /** Converts a txt file to a ser file and save the ser file to the data package
      * @param prePath The path of the txt file that need to be converted
@@ -51,6 +41,135 @@ public class UserDataConverter {
      * @param ds An object of the DataSaver class that will be used to write ser file
      */
     public void convertData(String prePath, String currPath, DataSaver<AccountManager> ds) {
-        ds.saveToFile(currPath, readFromFile(prePath));
+        BinaryWriter out = new BinaryWriter();
+        ImportedAccounts accounts;
+        try (BufferedReader br = new BufferedReader(new FileReader(prePath))) {
+            accounts = new ImportedAccounts(new LineCounter(br));
+            new AccountCodec().writeAccounts(accounts, out);
+        } catch (IOException e) {
+            wp.printErrorMessage("fail to read from " + prePath);
+            return;
+        }
+        if (accounts.failed) wp.printErrorMessage("fail to read from " + prePath);
+        for (String error : accounts.errors) wp.printErrorMessage(error);
+        if (!ds.saveEncoded(currPath, out)) {
+            wp.printErrorMessage("fail to write to " + currPath + ", no accounts were imported");
+            return;
+        }
+        // The old journal belongs to the ser file that was just replaced
+        Journal journal = new Journal(Journal.journalPathFor(currPath));
+        journal.reset();
+        journal.close();
+        wp.printActionMessage("Imported " + accounts.imported + " accounts from " + prePath + ", " +
+                accounts.errors.size() + " records rejected");
+    }
+
+    private List<Record> readChunk(LineCounter lines) throws IOException {
+        List<Record> chunk = new ArrayList<>();
+        String currLine = lines.next();
+        while (currLine != null) {
+            if (!currLine.startsWith("#")) {
+                // A record is the account type, username and password, then an empty line
+                Record record = new Record(lines.number, currLine, lines.next(), lines.next());
+                lines.next();
+                chunk.add(record);
+                if (chunk.size() >= CHUNK_SIZE) break;
+            }
+            currLine = lines.next();
+        }
+        return chunk;
+    }
+
+    private String check(Record record) {
+        if (record.username == null || record.password == null) return "Incomplete Record";
+        return crs.checkAccountData(record.accountType, record.username, record.password);
+    }
+
+    // The valid accounts of the txt file, validated one chunk at a time as they are reached
+    private class ImportedAccounts implements Iterator<Account> {
+        private final LineCounter lines;
+        private final Set<String> usernames = new HashSet<>();
+        private final List<String> errors = new ArrayList<>();
+        private List<Account> chunk = new ArrayList<>();
+        private int next = 0;
+        private int imported = 0;
+        private boolean failed = false;
+
+        private ImportedAccounts(LineCounter lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == chunk.size() && !failed) {
+                try {
+                    List<Record> records = readChunk(lines);
+                    if (records.isEmpty()) return false;
+                    chunk = validate(records);
+                    next = 0;
+                } catch (IOException e) {
+                    // The accounts read so far are still imported
+                    failed = true;
+                }
+            }
+            return next < chunk.size();
+        }
+
+        @Override
+        public Account next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            imported++;
+            return chunk.get(next++);
+        }
+
+        private List<Account> validate(List<Record> records) {
+            List<String> results = records.parallelStream()
+                    .map(UserDataConverter.this::check)
+                    .collect(Collectors.toList());
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < records.size(); i++) {
+                Record record = records.get(i);
+                String error = results.get(i);
+                if (error == null && !usernames.add(record.username)) error = "Account Already Exist";
+                if (error == null) {
+                    accounts.add(new AccountFactory().getAccount(record.accountType, record.username,
+                            record.password));
+                } else {
+                    errors.add("line " + record.line + ": " + error);
+                }
+            }
+            return accounts;
+        }
+    }
+
+    // One account in the txt file, with the line number of its account type
+    private static class Record {
+        private final int line;
+        private final String accountType;
+        private final String username;
+        private final String password;
+
+        private Record(int line, String accountType, String username, String password) {
+            this.line = line;
+            this.accountType = accountType;
+            this.username = username;
+            this.password = password;
+        }
+    }
+
+    // Reads lines and keeps the line number of the last one read
+    private static class LineCounter {
+        private final BufferedReader reader;
+        private int number = 0;
+
+        private LineCounter(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private String next() throws IOException {
+            String line = reader.readLine();
+            if (line != null) number++;
+            return line;
+        }
     }
 }
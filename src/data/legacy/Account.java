@@ -0,0 +1,75 @@
+package data.legacy;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * An account of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public abstract class Account implements Serializable {
+    private static final long serialVersionUID = -7832241780958511084L;
+
+    private String username;
+    private String password;
+    private List<String> friends;
+    private Map<String, List<String>> messageMap;
+    private NavigableMap<Timestamp[], String> schedule;
+
+    /**
+     * Gets the type of this account
+     * @return A String representation of the type, as used by AccountFactory
+     */
+    public abstract String getType();
+
+    /**
+     * Gets the ids of the events in the special list of this account
+     * @return The ids of the events this account organizes, hosts or may attend as a VIP
+     */
+    public abstract Collection<String> getSpecialList();
+
+    /**
+     * Gets the username of this account
+     * @return A String representation of the username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the password of this account
+     * @return A String representation of the password
+     */
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * Gets the friends of this account
+     * @return A list of the usernames of the friends
+     */
+    public List<String> getFriends() {
+        return friends;
+    }
+
+    /**
+     * Gets the message map of this account
+     * @return A map from "sent", "received", "unread" and "archive" to the ids of the messages
+     */
+    public Map<String, List<String>> getMessageMap() {
+        return messageMap;
+    }
+
+    /**
+     * Gets the schedule of this account
+     * @return A map from each time interval to the id of the event in it, in time order
+     */
+    public NavigableMap<Timestamp[], String> getSchedule() {
+        return schedule;
+    }
+}
@@ -0,0 +1,27 @@
+package data.legacy;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The AccountManager of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class AccountManager implements Serializable {
+    private static final long serialVersionUID = -142872777713458590L;
+
+    private Map<String, Map<String, Account>> allAccounts;
+
+    /**
+     * Gets all accounts in the file
+     * @return A list of all accounts of every type
+     */
+    public List<Account> getAccounts() {
+        List<Account> accounts = new ArrayList<>();
+        for (Map<String, Account> accountsOfType : allAccounts.values()) accounts.addAll(accountsOfType.values());
+        return accounts;
+    }
+}
@@ -0,0 +1,31 @@
+package data.legacy;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * An attendee account of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class Attendee extends Account {
+    private static final long serialVersionUID = 3992115694567305835L;
+
+    /**
+     * Gets the type of this account
+     * @return "Attendee"
+     */
+    @Override
+    public String getType() {
+        return "Attendee";
+    }
+
+    /**
+     * Gets the ids of the events in the special list of this account
+     * @return An empty collection, as an attendee has no special list
+     */
+    @Override
+    public Collection<String> getSpecialList() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,133 @@
+package data.legacy;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+
+/**
+ * An event of a legacy ser file. Its organizer, attendees, hosts and room were written as whole objects, so only
+ * their names are taken from them.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public abstract class Event implements Serializable {
+    private static final long serialVersionUID = -9035904805601041755L;
+
+    private String name;
+    private String ID;
+    private Account organizer;
+    private SortedSet<Timestamp[]> duration;
+    private Room location;
+    private String description;
+    private int capacity;
+    private List<Account> attendee;
+    private boolean isVIP;
+    private List<String> requiredFeatures;
+
+    /**
+     * Gets the type of this event
+     * @return A String representation of the type, as used by EventFactory
+     */
+    public abstract String getType();
+
+    /**
+     * Gets the hosts of this event
+     * @return A list of the usernames of the speakers of this event
+     */
+    public abstract List<String> getHosts();
+
+    /**
+     * Gets the name of this event
+     * @return A String representation of the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the id of this event
+     * @return A String representation of the id
+     */
+    public String getId() {
+        return ID;
+    }
+
+    /**
+     * Gets the organizer of this event
+     * @return A String representation of the username of the organizer
+     */
+    public String getOrganizerName() {
+        return organizer.getUsername();
+    }
+
+    /**
+     * Gets the duration of this event
+     * @return A sorted collection of time interval where start time is at index 0 and end time is index 1
+     */
+    public SortedSet<Timestamp[]> getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the room of this event
+     * @return A String representation of the name of the room
+     */
+    public String getLocation() {
+        return location.getName();
+    }
+
+    /**
+     * Gets the description of this event
+     * @return A String representation of the description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Gets the capacity of this event
+     * @return The max number of people can participate in the event
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the attendees of this event
+     * @return A list of the usernames of the attendees
+     */
+    public List<String> getAttendees() {
+        return usernames(attendee);
+    }
+
+    /**
+     * Checks if this event is a VIP event
+     * @return true iff only VIP accounts may attend this event
+     */
+    public boolean isVIP() {
+        return isVIP;
+    }
+
+    /**
+     * Gets the features this event requires from its room
+     * @return A list of the features
+     */
+    public List<String> getRequiredFeatures() {
+        return requiredFeatures;
+    }
+
+    /**
+     * Gets the usernames of the given accounts
+     * @param accounts The accounts, may contain null
+     * @return A list of the usernames of the accounts that are not null
+     */
+    static List<String> usernames(List<Account> accounts) {
+        List<String> usernames = new ArrayList<>();
+        for (Account account : accounts) {
+            if (account != null) usernames.add(account.getUsername());
+        }
+        return usernames;
+    }
+}
@@ -0,0 +1,36 @@
+package data.legacy;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The EventManager of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class EventManager implements Serializable {
+    private static final long serialVersionUID = 1969529941749448825L;
+
+    private int numEvents;
+    private Map<String, Map<String, Event>> eventList;
+
+    /**
+     * Gets the number of events ever created, used for the next event id
+     * @return The number of events ever created
+     */
+    public int getNumEvents() {
+        return numEvents;
+    }
+
+    /**
+     * Gets all events in the file
+     * @return A list of all events of every type
+     */
+    public List<Event> getEvents() {
+        List<Event> events = new ArrayList<>();
+        for (Map<String, Event> eventsOfType : eventList.values()) events.addAll(eventsOfType.values());
+        return events;
+    }
+}
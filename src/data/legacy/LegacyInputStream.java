@@ -0,0 +1,59 @@
+package data.legacy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An ObjectInputStream that reads the ser files written by Java serialization before there was a Codec.
+ * The use case and entity classes in those files are read as the classes of this package with the same simple name
+ * and serialVersionUID, which only keep the fields a Codec needs to migrate them, and serializable lambdas are read
+ * without the methods they were compiled from.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class LegacyInputStream extends ObjectInputStream {
+    private static final Map<String, Class<?>> LEGACY_CLASSES = new HashMap<>();
+
+    static {
+        register("account.AccountManager", AccountManager.class);
+        register("account.Account", Account.class);
+        register("account.Attendee", Attendee.class);
+        register("account.Organizer", Organizer.class);
+        register("account.Speaker", Speaker.class);
+        register("account.VIPAttendee", VIPAttendee.class);
+        register("event.EventManager", EventManager.class);
+        register("event.Event", Event.class);
+        register("event.Talk", Talk.class);
+        register("event.Party", Party.class);
+        register("event.PanelDiscussion", PanelDiscussion.class);
+        register("room.RoomManager", RoomManager.class);
+        register("room.Room", Room.class);
+        register("message.MessagingManager", MessagingManager.class);
+        register("message.Message", Message.class);
+        register("message.WordMessage", WordMessage.class);
+        register("java.lang.invoke.SerializedLambda", SerializedLambda.class);
+    }
+
+    /**
+     * Creates a LegacyInputStream that reads from the given InputStream
+     * @param in The InputStream of a ser file written by Java serialization
+     * @throws IOException if the stream header cannot be read
+     */
+    public LegacyInputStream(InputStream in) throws IOException {
+        super(in);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+        Class<?> legacy = LEGACY_CLASSES.get(desc.getName());
+        return (legacy == null) ? super.resolveClass(desc) : legacy;
+    }
+
+    private static void register(String name, Class<?> legacy) {
+        LEGACY_CLASSES.put(name, legacy);
+    }
+}
@@ -0,0 +1,56 @@
+package data.legacy;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * A message of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public abstract class Message implements Serializable {
+    private static final long serialVersionUID = 4849792693501844108L;
+
+    private String senderUsername;
+    private List<String> receiverUsername;
+    private Timestamp time;
+    private String id;
+
+    /**
+     * Gets the id of this message
+     * @return A String representation of the id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the username of the sender of this message
+     * @return A String representation of the username
+     */
+    public String getSenderUsername() {
+        return senderUsername;
+    }
+
+    /**
+     * Gets the receivers of this message
+     * @return A list of the usernames of the receivers
+     */
+    public List<String> getReceiverUsername() {
+        return receiverUsername;
+    }
+
+    /**
+     * Gets the time this message was sent
+     * @return The time this message was sent
+     */
+    public Timestamp getTime() {
+        return time;
+    }
+
+    // The number in the id, the order the messages were sent in
+    int getNumber() {
+        return Integer.parseInt(id.substring(1));
+    }
+}
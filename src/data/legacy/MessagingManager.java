@@ -0,0 +1,36 @@
+package data.legacy;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The MessagingManager of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class MessagingManager implements Serializable {
+    private static final long serialVersionUID = 2800319974591454299L;
+
+    private int numMessage;
+    private Map<String, Message> messageMap;
+
+    /**
+     * Gets the number of messages ever sent, used for the next message id
+     * @return The number of messages ever sent
+     */
+    public int getNumMessage() {
+        return numMessage;
+    }
+
+    /**
+     * Gets all messages in the file, in the order they were sent
+     * @return A list of all messages
+     */
+    public List<Message> getMessages() {
+        List<Message> messages = new ArrayList<>(messageMap.values());
+        messages.sort((m1, m2) -> Integer.compare(m1.getNumber(), m2.getNumber()));
+        return messages;
+    }
+}
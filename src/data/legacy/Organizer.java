@@ -0,0 +1,33 @@
+package data.legacy;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An organizer account of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class Organizer extends Account {
+    private static final long serialVersionUID = -7851358582057207616L;
+
+    private List<String> organizedEvents;
+
+    /**
+     * Gets the type of this account
+     * @return "Organizer"
+     */
+    @Override
+    public String getType() {
+        return "Organizer";
+    }
+
+    /**
+     * Gets the ids of the events in the special list of this account
+     * @return The ids of the events this organizer organizes
+     */
+    @Override
+    public Collection<String> getSpecialList() {
+        return organizedEvents;
+    }
+}
@@ -0,0 +1,32 @@
+package data.legacy;
+
+import java.util.List;
+
+/**
+ * A panel discussion of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class PanelDiscussion extends Event {
+    private static final long serialVersionUID = 8645550066782055579L;
+
+    private List<Account> host;
+
+    /**
+     * Gets the type of this event
+     * @return "panel discussion"
+     */
+    @Override
+    public String getType() {
+        return "panel discussion";
+    }
+
+    /**
+     * Gets the hosts of this event
+     * @return A list of the usernames of the speakers
+     */
+    @Override
+    public List<String> getHosts() {
+        return usernames(host);
+    }
+}
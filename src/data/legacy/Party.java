@@ -0,0 +1,31 @@
+package data.legacy;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A party of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class Party extends Event {
+    private static final long serialVersionUID = -7155167049031583720L;
+
+    /**
+     * Gets the type of this event
+     * @return "party"
+     */
+    @Override
+    public String getType() {
+        return "party";
+    }
+
+    /**
+     * Gets the hosts of this event
+     * @return An empty list, as a party has no speaker
+     */
+    @Override
+    public List<String> getHosts() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,67 @@
+package data.legacy;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * A room of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class Room implements Serializable {
+    private static final long serialVersionUID = -6080713419386975117L;
+
+    private Integer capacity;
+    private NavigableMap<Integer, Integer> availableTime;
+    private String roomName;
+    private NavigableMap<Timestamp[], String> schedule;
+    private List<String> features;
+
+    /**
+     * Gets the name of this room
+     * @return A String representation of the name
+     */
+    public String getName() {
+        return roomName;
+    }
+
+    /**
+     * Gets the capacity of this room
+     * @return The max number of people the room can hold
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the available time slots of this room
+     * @return An array of slots, each with the start hour at index 0 and the end hour at index 1
+     */
+    public Integer[][] getAvailableTimeSlots() {
+        Integer[][] slots = new Integer[availableTime.size()][];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> slot : availableTime.entrySet()) {
+            slots[i++] = new Integer[]{slot.getKey(), slot.getValue()};
+        }
+        return slots;
+    }
+
+    /**
+     * Gets the features of this room
+     * @return A list of the features
+     */
+    public List<String> getFeatures() {
+        return features;
+    }
+
+    /**
+     * Gets the schedule of this room
+     * @return A map from each time interval to the id of the event in it, in time order
+     */
+    public NavigableMap<Timestamp[], String> getSchedule() {
+        return schedule;
+    }
+}
@@ -0,0 +1,34 @@
+package data.legacy;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The RoomManager of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class RoomManager implements Serializable {
+    private static final long serialVersionUID = 8000706553742451211L;
+
+    private Map<String, Room> roomList;
+    private List<String> roomFeatureList;
+
+    /**
+     * Gets all rooms in the file
+     * @return A list of all rooms
+     */
+    public List<Room> getRooms() {
+        return new ArrayList<>(roomList.values());
+    }
+
+    /**
+     * Gets the features history list
+     * @return A list of all features ever added to a room
+     */
+    public List<String> getAllFeatures() {
+        return roomFeatureList;
+    }
+}
@@ -0,0 +1,21 @@
+package data.legacy;
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+/**
+ * Read in place of a serializable lambda in a legacy ser file. The comparators of the sorted maps and sets in those
+ * files were lambdas of classes that have changed since, so they cannot be rebuilt. The maps and sets read from
+ * a legacy file are only walked in order while they are migrated, which never uses their comparator.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class SerializedLambda implements Serializable {
+    private static final long serialVersionUID = 8025925345765570181L;
+
+    private Object readResolve() {
+        return (Comparator<Object>) (o1, o2) -> {
+            throw new UnsupportedOperationException("a sorted collection of a legacy ser file is only walked");
+        };
+    }
+}
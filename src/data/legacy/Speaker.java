@@ -0,0 +1,33 @@
+package data.legacy;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A speaker account of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class Speaker extends Account {
+    private static final long serialVersionUID = 5539317211502204665L;
+
+    private Set<String> hostingEvents;
+
+    /**
+     * Gets the type of this account
+     * @return "Speaker"
+     */
+    @Override
+    public String getType() {
+        return "Speaker";
+    }
+
+    /**
+     * Gets the ids of the events in the special list of this account
+     * @return The ids of the events this speaker hosts
+     */
+    @Override
+    public Collection<String> getSpecialList() {
+        return hostingEvents;
+    }
+}
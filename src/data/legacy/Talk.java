@@ -0,0 +1,33 @@
+package data.legacy;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A talk of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class Talk extends Event {
+    private static final long serialVersionUID = 874513061175737477L;
+
+    private Account speaker;
+
+    /**
+     * Gets the type of this event
+     * @return "talk"
+     */
+    @Override
+    public String getType() {
+        return "talk";
+    }
+
+    /**
+     * Gets the hosts of this event
+     * @return A list of the username of the speaker, empty if there is no speaker yet
+     */
+    @Override
+    public List<String> getHosts() {
+        return usernames(Collections.singletonList(speaker));
+    }
+}
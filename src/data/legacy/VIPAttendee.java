@@ -0,0 +1,33 @@
+package data.legacy;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A VIP attendee account of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class VIPAttendee extends Account {
+    private static final long serialVersionUID = 3221994054067733067L;
+
+    private Set<String> vipEvents;
+
+    /**
+     * Gets the type of this account
+     * @return "VIP"
+     */
+    @Override
+    public String getType() {
+        return "VIP";
+    }
+
+    /**
+     * Gets the ids of the events in the special list of this account
+     * @return The ids of the VIP events this account may attend
+     */
+    @Override
+    public Collection<String> getSpecialList() {
+        return vipEvents;
+    }
+}
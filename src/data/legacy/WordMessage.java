@@ -0,0 +1,29 @@
+package data.legacy;
+
+/**
+ * A word message of a legacy ser file.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class WordMessage extends Message {
+    private static final long serialVersionUID = 6499127733812453766L;
+
+    private String subject;
+    private String content;
+
+    /**
+     * Gets the subject of this message
+     * @return A String representation of the subject
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Gets the content of this message
+     * @return A String representation of the content
+     */
+    public String getContent() {
+        return content;
+    }
+}
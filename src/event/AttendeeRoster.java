@@ -0,0 +1,96 @@
+package event;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * The attendees of an event, by username in the order they signed up. Looking up, adding and removing an attendee
+ * take constant time however many attendees the event has, and the number of attendees is kept as they come and go.
+ * An attendee is the same one only if it is the same instance of EventWithSpecObserver, a different instance with the
+ * same username, such as the account after it is upgraded to a VIP, is not in the roster, and takes the place of the
+ * old one when it is added.
+ * @author Group0694
+ * @version 3.0.0
+ */
+class AttendeeRoster implements Serializable, Iterable<EventWithSpecObserver> {
+    private static final long serialVersionUID = 1L;
+    private final LinkedHashMap<String, EventWithSpecObserver> attendees = new LinkedHashMap<>();
+
+    /**
+     * Checks if an attendee is in the roster
+     * @param observer An instance of EventWithSpecObserver, represents the attendee
+     * @return true iff this instance is in the roster
+     */
+    boolean contains(EventWithSpecObserver observer) {
+        EventWithSpecObserver found = attendees.get(observer.getName());
+        return found != null && found.equals(observer);
+    }
+
+    /**
+     * Adds an attendee at the end of the roster, or in place of the attendee with the same username
+     * @param observer An instance of EventWithSpecObserver, represents the attendee
+     */
+    void add(EventWithSpecObserver observer) {
+        attendees.put(observer.getName(), observer);
+    }
+
+    /**
+     * Removes an attendee
+     * @param observer An instance of EventWithSpecObserver, represents the attendee
+     * @return true iff this instance was in the roster
+     */
+    boolean remove(EventWithSpecObserver observer) {
+        if (!contains(observer)) return false;
+        attendees.remove(observer.getName());
+        return true;
+    }
+
+    /**
+     * Removes the attendee with a username, whichever instance it is
+     * @param username A String representation of the username of the attendee
+     * @return The attendee removed, or null if there is no attendee with this username
+     */
+    EventWithSpecObserver removeNamed(String username) {
+        return attendees.remove(username);
+    }
+
+    /**
+     * Gets the number of attendees
+     * @return The number of attendees
+     */
+    int size() {
+        return attendees.size();
+    }
+
+    /**
+     * Gets the usernames of the attendees without copying them
+     * @return An iterator of the usernames in the order they signed up, which cannot remove them and must not be used
+     * after the roster changes
+     */
+    Iterator<String> names() {
+        return Collections.unmodifiableSet(attendees.keySet()).iterator();
+    }
+
+    /**
+     * Gets one page of the usernames of the attendees, the pages before it are skipped without being copied
+     * @param from The number of attendees before the page, in the order they signed up
+     * @param limit The largest number of usernames on the page
+     * @return A list of the usernames on the page, empty if there are no attendees past the given number
+     */
+    List<String> page(int from, int limit) {
+        List<String> page = new ArrayList<>(Math.max(0, Math.min(limit, attendees.size() - from)));
+        Iterator<String> names = attendees.keySet().iterator();
+        for (int i = 0; i < from && names.hasNext(); i++) names.next();
+        while (page.size() < limit && names.hasNext()) page.add(names.next());
+        return page;
+    }
+
+    /**
+     * Gets the attendees in the order they signed up
+     * @return An iterator of the attendees, which cannot remove them
+     */
+    @Override
+    public Iterator<EventWithSpecObserver> iterator() {
+        return Collections.unmodifiableCollection(attendees.values()).iterator();
+    }
+}
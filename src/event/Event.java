@@ -7,7 +7,7 @@ import java.sql.Timestamp;
 
 /**
  * An abstract entity class of events, stores name, ID, durationw, location, description, capacity,
- * and a list of attendees of the event. Implements Serializable.
+ * and a roster of attendees of the event. Implements Serializable.
  * Abstract because there are different kind of events.
  * Methods in this class are some getter and setter for attributes in this class.
  * @author Group0694
@@ -21,11 +21,13 @@ abstract class Event implements Serializable {
     private EventObserver location;
     private final String description;
     private int capacity;
-    private final List<EventWithSpecObserver> attendee;
+    private final AttendeeRoster attendee;
     private boolean isVIP = false;
     private final List<String> requiredFeatures;
+    // The version of the manager when this event was last changed, 0 if it is unchanged since it was read
+    private transient long epoch;
     /**
-     * Constructs a event object. Also notifies Room and Organizer of this event.
+     * Constructs a event object. Room and Organizer are notified of this event by notifyCreated.
      * @param name name of the new event
      * @param organizer An instance of EventWithSpecObserver, represents the organizer who created this event
      * @param duration A sorted collection of time interval where start time is at index 0 and end time is index 1
@@ -43,8 +45,15 @@ abstract class Event implements Serializable {
         this.location = location;
         this.description = description;
         this.capacity = capacity;
-        this.attendee = new ArrayList<>();
+        this.attendee = new AttendeeRoster();
         this.requiredFeatures = new ArrayList<>();
+    }
+
+    /**
+     * Notifies Room and Organizer of this new event. Not called for events read back from a file, whose Room and
+     * Organizer already know them.
+     */
+    protected void notifyCreated() {
         this.notifyRoomAdd();
         this.organizer.updateSpecAdd(this.ID);
     }
@@ -74,6 +83,22 @@ abstract class Event implements Serializable {
         return this.duration.iterator();
     }
 
+    /**
+     * Gets the username of the organizer who created this event
+     * @return username of the organizer
+     */
+    protected String getOrganizerName() {
+        return organizer.getName();
+    }
+
+    /**
+     * Gets description of this event
+     * @return description of event
+     */
+    protected String getDescription() {
+        return description;
+    }
+
     /**
      * Gets location of this event, which represents as the name of room holds this event
      * @return name of room which holds the event
@@ -139,18 +164,48 @@ abstract class Event implements Serializable {
      * @return true if removed successfully, else false
      */
     protected boolean removeAttendee(EventWithSpecObserver attendeeObserver) {
-        if (attendee.contains(attendeeObserver)) {
-            attendee.remove(attendeeObserver);
-            if (attendeeObserver.isVip() && this.isVIP) {
-                attendeeObserver.updateRemoveWithSpec(this.ID, this.duration);
-            } else {
-                attendeeObserver.updateRemove(this.ID, this.duration);
-            }
+        if (attendee.remove(attendeeObserver)) {
+            notifyRemoved(attendeeObserver);
             return true;
         }
         return false;
     }
 
+    /**
+     * Removes many attendees from the attendee list of this event, looking up each of them rather than walking the
+     * list. The attendees are found by username, so an attendee is also removed if its account was replaced by one of
+     * another type.
+     * @param attendeeObservers Maps the username of every attendee to be removed to its current instance of
+     *                          EventWithSpecObserver, which is notified
+     * @return The number of attendees removed
+     */
+    protected int removeAttendees(Map<String, EventWithSpecObserver> attendeeObservers) {
+        int removed = 0;
+        for (Map.Entry<String, EventWithSpecObserver> entry : attendeeObservers.entrySet()) {
+            if (attendee.removeNamed(entry.getKey()) == null) continue;
+            notifyRemoved(entry.getValue());
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the attendee of the given username without notifying it, used when its account is deleted
+     * @param username A String representation of the username of the attendee
+     * @return true iff the attendee was in the attendee list
+     */
+    protected boolean removeAttendeeNamed(String username) {
+        return attendee.removeNamed(username) != null;
+    }
+
+    private void notifyRemoved(EventWithSpecObserver attendeeObserver) {
+        if (attendeeObserver.isVip() && this.isVIP) {
+            attendeeObserver.updateRemoveWithSpec(this.ID, this.duration);
+        } else {
+            attendeeObserver.updateRemove(this.ID, this.duration);
+        }
+    }
+
     /**
      * Prints event duration
      * @return A String representation of this event duration
@@ -198,16 +253,36 @@ abstract class Event implements Serializable {
     protected abstract Iterator<String> getHosts();
 
     /**
-     * Gets the attendees of this event in a list.
-     * This is an abstract method which will show attendees of the event.
-     * @return An iterator of the attendee list
+     * Puts an attendee read by EventCodec back into this event, without notifying the attendee
+     * @param attendeeObserver An instance of EventWithSpecObserver, represents the attendee of this event
+     */
+    protected void restoreAttendee(EventWithSpecObserver attendeeObserver) {
+        attendee.add(attendeeObserver);
+    }
+
+    /**
+     * Puts the hosts read by EventCodec back into this event, without notifying the hosts
+     * @param speakers A list of EventWithSpecObserver, represents the hosts of this event
+     */
+    abstract protected void restoreHosts(List<EventWithSpecObserver> speakers);
+
+    /**
+     * Gets the attendees of this event without copying them.
+     * @return An iterator of the usernames of the attendees in the order they signed up, which must not be used after
+     * the attendees change
     */
     protected Iterator<String> getAttendees() {
-        List<String> lst = new ArrayList<>();
-        for (EventObserver observer : attendee) {
-            lst.add(observer.getName());
-        }
-        return lst.iterator();
+        return attendee.names();
+    }
+
+    /**
+     * Gets one page of the attendees of this event.
+     * @param from The number of attendees before the page, in the order they signed up
+     * @param limit The largest number of attendees on the page
+     * @return A list of the usernames of the attendees on the page
+     */
+    protected List<String> getAttendees(int from, int limit) {
+        return attendee.page(from, limit);
     }
 
     /**
@@ -331,4 +406,20 @@ abstract class Event implements Serializable {
      * Notifies the host observer to remove and update an event
      */
     abstract protected void notifyHostRemove();
+
+    /**
+     * Gets the modification epoch of this event
+     * @return The version of the manager when this event was last changed, 0 if it is unchanged since it was read
+     */
+    long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Sets the modification epoch of this event, called by the manager whenever it is changed
+     * @param epoch The current version of the manager
+     */
+    void setEpoch(long epoch) {
+        this.epoch = epoch;
+    }
 }
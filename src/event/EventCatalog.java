@@ -0,0 +1,124 @@
+package event;
+
+import room.IntervalCalendar;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * The events of an EventManager, indexed by id and by time. The id index is a hash map, and every time slot of every
+ * event is put into a shared interval calendar, so the events held during a period, at a moment, or next after a
+ * moment are found in logarithmic time plus the number of slots found, however many events there are.
+ * Every room also has a calendar of the slots of its own events, keyed by the room name in lower case, so the events
+ * of a room are found without looking at the events of other rooms.
+ * @author Group0694
+ * @version 3.0.0
+ */
+class EventCatalog {
+    private final Map<String, Event> events = new HashMap<>();
+    private final IntervalCalendar slots = new IntervalCalendar(true);
+    private final Map<String, IntervalCalendar> slotsByRoom = new HashMap<>();
+
+    /**
+     * Adds an event with all its time slots, the same event may be added again
+     * @param event The event to be added
+     */
+    void add(Event event) {
+        events.put(event.getId(), event);
+        slots.putAll(event.duration, event.getId());
+        slotsByRoom.computeIfAbsent(roomKey(event.getLocation()), k -> new IntervalCalendar(true))
+                .putAll(event.duration, event.getId());
+    }
+
+    /**
+     * Removes an event with all its time slots, it must still have the time slots and the room it was added with
+     * @param event The event to be removed
+     */
+    void remove(Event event) {
+        if (events.remove(event.getId()) == null) return;
+        slots.removeAll(event.duration, event.getId());
+        String room = roomKey(event.getLocation());
+        IntervalCalendar roomSlots = slotsByRoom.get(room);
+        if (roomSlots == null) return;
+        roomSlots.removeAll(event.duration, event.getId());
+        if (roomSlots.size() == 0) slotsByRoom.remove(room);
+    }
+
+    /**
+     * Finds an event by its id
+     * @param eventId A String representation of event id
+     * @return The event, or null if there is no such event
+     */
+    Event get(String eventId) {
+        return events.get(eventId);
+    }
+
+    /**
+     * Gets the number of events
+     * @return The number of events
+     */
+    int size() {
+        return events.size();
+    }
+
+    /**
+     * Gets the events held in a room
+     * @param room A String representation of the room name, in any case
+     * @return A list of event ids without repeats, in ascending order of their first slot
+     */
+    List<String> getInRoom(String room) {
+        IntervalCalendar roomSlots = slotsByRoom.get(roomKey(room));
+        Set<String> found = new LinkedHashSet<>();
+        if (roomSlots != null) roomSlots.forEach(slot -> found.add(slot.getValue()));
+        return new ArrayList<>(found);
+    }
+
+    /**
+     * Gets the events held in a room at some time during a period, such as one day
+     * @param room A String representation of the room name, in any case
+     * @param start The start of the period, inclusive
+     * @param end The end of the period, exclusive
+     * @return A list of event ids without repeats, in ascending order of their first slot overlapping the period
+     */
+    List<String> getInRoom(String room, Timestamp start, Timestamp end) {
+        IntervalCalendar roomSlots = slotsByRoom.get(roomKey(room));
+        if (roomSlots == null) return new ArrayList<>();
+        return new ArrayList<>(new LinkedHashSet<>(roomSlots.getOverlapping(start.getTime(), end.getTime())));
+    }
+
+    /**
+     * Gets the events held at some time during a period
+     * @param start The start of the period, inclusive
+     * @param end The end of the period, exclusive
+     * @return A list of event ids without repeats, in ascending order of their first slot overlapping the period
+     */
+    List<String> getOverlapping(Timestamp start, Timestamp end) {
+        return new ArrayList<>(new LinkedHashSet<>(slots.getOverlapping(start.getTime(), end.getTime())));
+    }
+
+    /**
+     * Gets the events being held at a moment
+     * @param time The moment
+     * @return A list of event ids without repeats, in ascending order of the start of their slot held then
+     */
+    List<String> getHappeningAt(Timestamp time) {
+        return getOverlapping(time, new Timestamp(time.getTime() + 1));
+    }
+
+    /**
+     * Gets the next events that have a slot starting at or after a moment
+     * @param time The moment
+     * @param limit The largest number of events to be found
+     * @return A list of event ids without repeats, in ascending order of their first slot starting then or later
+     */
+    List<String> getNext(Timestamp time, int limit) {
+        Set<String> found = new LinkedHashSet<>();
+        Iterator<Map.Entry<Timestamp[], String>> starting = slots.iteratorFrom(time.getTime());
+        while (found.size() < limit && starting.hasNext()) found.add(starting.next().getValue());
+        return new ArrayList<>(found);
+    }
+
+    private static String roomKey(String room) {
+        return room.toLowerCase(Locale.ROOT);
+    }
+}
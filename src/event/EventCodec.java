@@ -0,0 +1,245 @@
+package event;
+
+import data.BinaryReader;
+import data.BinaryWriter;
+import data.DeltaCodec;
+import data.MutationLog;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.function.Function;
+
+/**
+ * A Codec of EventManager. Each event is written as one record. The organizer, attendees, hosts and room of an event
+ * are written by name only, and are found again by name when the event is read, so accounts and rooms are no longer
+ * copied into the event file. An event whose organizer no longer exists, such as one of an account deleted while
+ * another conference was open, is left out, and its room and the accounts in it are freed the same as when it is
+ * cancelled. A delta holds the records of the events changed since the last checkpoint, then the ids of the events
+ * cancelled since then.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class EventCodec implements DeltaCodec<EventManager> {
+    private final Function<String, EventWithSpecObserver> accountObservers;
+    private final Function<String, EventObserver> roomObservers;
+
+    /**
+     * Creates an EventCodec that finds the observers of the events it reads by name
+     * @param accountObservers Finds the EventWithSpecObserver of an account by its username
+     * @param roomObservers Finds the EventObserver of a room by its room name
+     */
+    public EventCodec(Function<String, EventWithSpecObserver> accountObservers,
+                      Function<String, EventObserver> roomObservers) {
+        this.accountObservers = accountObservers;
+        this.roomObservers = roomObservers;
+    }
+
+    /**
+     * Writes all events of the given EventManager
+     * @param manager The EventManager to be written
+     * @param out The BinaryWriter the EventManager is written to
+     */
+    @Override
+    public void write(EventManager manager, BinaryWriter out) {
+        out.writeVarInt(manager.getNumEvents());
+        List<Event> events = toList(manager.getEvents());
+        out.writeVarInt(events.size());
+        for (Event event : events) writeEvent(event, out);
+    }
+
+    /**
+     * Reads an EventManager written by write
+     * @param in The BinaryReader the EventManager is read from
+     * @return The EventManager that is read
+     * @throws IOException if the data is damaged, or the room of an event does not exist
+     */
+    @Override
+    public EventManager read(BinaryReader in) throws IOException {
+        EventManager manager = new EventManager();
+        manager.restoreNumEvents(in.readVarInt());
+        int numEvents = in.readVarInt();
+        for (int i = 0; i < numEvents; i++) {
+            Event event = readEvent(in);
+            if (event != null) manager.restoreEvent(event);
+        }
+        return manager;
+    }
+
+    /**
+     * Migrates the EventManager of a legacy ser file. The organizer, attendees, hosts and room of each event are
+     * found by name, the same way as when the binary format is read.
+     * @param legacy The EventManager read by LegacyInputStream
+     * @return The EventManager with the same events
+     * @throws IOException if legacy is not an EventManager, or the room of an event does not exist
+     */
+    @Override
+    public EventManager migrate(Object legacy) throws IOException {
+        if (!(legacy instanceof data.legacy.EventManager)) throw new StreamCorruptedException("not events");
+        EventManager manager = new EventManager();
+        manager.restoreNumEvents(((data.legacy.EventManager) legacy).getNumEvents());
+        for (data.legacy.Event old : ((data.legacy.EventManager) legacy).getEvents()) {
+            SortedSet<Timestamp[]> duration = MutationLog.newDuration();
+            duration.addAll(old.getDuration());
+            Event event = restoreEvent(old.getType(), old.getId(), old.getName(), old.getOrganizerName(),
+                    old.getLocation(), old.getDescription(), old.getCapacity(), old.isVIP(), duration,
+                    old.getRequiredFeatures(), old.getAttendees(), old.getHosts());
+            if (event != null) manager.restoreEvent(event);
+        }
+        return manager;
+    }
+
+    /**
+     * Gets the current modification epoch of the given EventManager
+     * @param manager The EventManager
+     * @return The number of mutations made to the EventManager since it was created or read
+     */
+    @Override
+    public long getEpoch(EventManager manager) {
+        return manager.getVersion();
+    }
+
+    /**
+     * Writes the events of the given EventManager changed or cancelled after the given epoch
+     * @param manager The EventManager to be written
+     * @param sinceEpoch The modification epoch of the last checkpoint
+     * @param out The BinaryWriter the changes are written to
+     */
+    @Override
+    public void writeDelta(EventManager manager, long sinceEpoch, BinaryWriter out) {
+        out.writeVarInt(manager.getNumEvents());
+        List<Event> events = toList(manager.getEventsChangedSince(sinceEpoch));
+        out.writeVarInt(events.size());
+        for (Event event : events) writeEvent(event, out);
+        List<String> cancelled = toList(manager.getEventsRemovedSince(sinceEpoch));
+        out.writeVarInt(cancelled.size());
+        for (String eventId : cancelled) out.writeId('E', eventId);
+    }
+
+    /**
+     * Reads the changes written by writeDelta into the given EventManager
+     * @param manager The EventManager read from the snapshot and the deltas before this one
+     * @param in The BinaryReader the changes are read from
+     * @throws IOException if the data is damaged, or the room of an event does not exist
+     */
+    @Override
+    public void readDelta(EventManager manager, BinaryReader in) throws IOException {
+        manager.restoreNumEvents(in.readVarInt());
+        int numEvents = in.readVarInt();
+        for (int i = 0; i < numEvents; i++) {
+            // The organizer of an event never changes, so an event left out here was left out of the snapshot too
+            Event event = readEvent(in);
+            if (event != null) manager.replaceEvent(event);
+        }
+        int numCancelled = in.readVarInt();
+        for (int i = 0; i < numCancelled; i++) manager.removeRestoredEvent(in.readId('E'));
+    }
+
+    private void writeEvent(Event event, BinaryWriter out) {
+        out.beginRecord();
+        out.writeSymbol(event.getType());
+        out.writeId('E', event.getId());
+        out.writeString(event.getName());
+        out.writeSymbol(event.getOrganizerName());
+        out.writeSymbol(event.getLocation());
+        out.writeString(event.getDescription());
+        out.writeVarInt(event.getCapacity());
+        out.writeBoolean(event.isVIP());
+
+        List<Timestamp[]> duration = toList(event.getDuration());
+        out.writeVarInt(duration.size());
+        for (Timestamp[] interval : duration) out.writeInterval(interval);
+
+        writeSymbols(toList(event.getRequiredFeatures()), out);
+        writeSymbols(toList(event.getAttendees()), out);
+        writeSymbols(toList(event.getHosts()), out);
+        out.endRecord();
+    }
+
+    private Event readEvent(BinaryReader in) throws IOException {
+        int end = in.beginRecord();
+        String type = in.readSymbol();
+        String id = in.readId('E');
+        String name = in.readString();
+        String organizerName = in.readSymbol();
+        String roomName = in.readSymbol();
+        String description = in.readString();
+        int capacity = in.readVarInt();
+        boolean isVIP = in.readBoolean();
+
+        SortedSet<Timestamp[]> duration = MutationLog.newDuration();
+        int numIntervals = in.readVarInt();
+        for (int i = 0; i < numIntervals; i++) duration.add(in.readInterval());
+
+        Event event = restoreEvent(type, id, name, organizerName, roomName, description, capacity, isVIP, duration,
+                readSymbols(in), readSymbols(in), readSymbols(in));
+        in.endRecord(end);
+        return event;
+    }
+
+    // Returns null for an event whose organizer no longer exists
+    private Event restoreEvent(String type, String id, String name, String organizerName, String roomName,
+                               String description, int capacity, boolean isVIP, SortedSet<Timestamp[]> duration,
+                               List<String> requiredFeatures, List<String> attendees, List<String> hostNames)
+            throws IOException {
+        EventObserver room = roomObservers.apply(roomName);
+        if (room == null) throw new StreamCorruptedException("unknown room " + roomName);
+        EventWithSpecObserver organizer = accountObservers.apply(organizerName);
+        if (organizer == null) {
+            leaveOut(id, duration, room, attendees, hostNames);
+            return null;
+        }
+        Event event = new EventFactory().restoreEvent(type, name, organizer, duration, room, description, capacity,
+                id);
+        if (event == null) throw new StreamCorruptedException("unknown event type " + type);
+        event.setVIP(isVIP);
+        event.addRequiredFeatures(requiredFeatures);
+
+        // Accounts that no longer exist are left out
+        for (String attendee : attendees) {
+            EventWithSpecObserver observer = accountObservers.apply(attendee);
+            if (observer != null) event.restoreAttendee(observer);
+        }
+        List<EventWithSpecObserver> hosts = new ArrayList<>();
+        for (String host : hostNames) {
+            EventWithSpecObserver observer = accountObservers.apply(host);
+            if (observer != null) hosts.add(observer);
+        }
+        event.restoreHosts(hosts);
+        return event;
+    }
+
+    // Frees the room and takes the event out of the schedules and special lists of the accounts still in it, which
+    // only records a change if they have it
+    private void leaveOut(String id, SortedSet<Timestamp[]> duration, EventObserver room, List<String> attendees,
+                          List<String> hostNames) {
+        room.updateRemove(id, duration);
+        List<String> usernames = new ArrayList<>(attendees);
+        usernames.addAll(hostNames);
+        for (String username : usernames) {
+            EventWithSpecObserver observer = accountObservers.apply(username);
+            if (observer != null) observer.updateRemoveWithSpec(id, duration);
+        }
+    }
+
+    private void writeSymbols(List<String> symbols, BinaryWriter out) {
+        out.writeVarInt(symbols.size());
+        for (String symbol : symbols) out.writeSymbol(symbol);
+    }
+
+    private List<String> readSymbols(BinaryReader in) throws IOException {
+        List<String> symbols = new ArrayList<>();
+        int size = in.readVarInt();
+        for (int i = 0; i < size; i++) symbols.add(in.readSymbol());
+        return symbols;
+    }
+
+    private <E> List<E> toList(Iterator<E> iterator) {
+        List<E> lst = new ArrayList<>();
+        iterator.forEachRemaining(lst::add);
+        return lst;
+    }
+}
@@ -24,6 +24,25 @@ public class EventFactory {
      */
     Event makeEvent(String type, String name, EventWithSpecObserver organizer, SortedSet<Timestamp[]> timeDuration,
                               EventObserver location, String description, int capacity, String id){
+        Event event = restoreEvent(type, name, organizer, timeDuration, location, description, capacity, id);
+        if (event != null) event.notifyCreated();
+        return event;
+    }
+
+    /**
+     * Constructs the Event Entity of an event read back from a file, without notifying its room and organizer
+     * @param type The type of the event, used for determining which constructor to call
+     * @param name name of the event
+     * @param organizer An instance of EventWithSpecObserver, represents the organizer of this event
+     * @param timeDuration A sorted collection of time interval where start time is at index 0 and end time is index 1
+     * @param location An instance of EventObserver, represents the room the event held in
+     * @param description description of the event
+     * @param capacity the max number of people can participate in the event
+     * @param id The unique ID of this event
+     * @return the event object of given type, null if the type does not exist
+     */
+    Event restoreEvent(String type, String name, EventWithSpecObserver organizer, SortedSet<Timestamp[]> timeDuration,
+                       EventObserver location, String description, int capacity, String id){
         switch (type.toLowerCase()){
             case "talk":
                 return new Talk(name, organizer, timeDuration, location, description, capacity, id);
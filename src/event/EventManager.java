@@ -1,52 +1,130 @@
 package event;
 
+import data.Journaled;
+import data.MutationLog;
+
 import java.io.Serializable;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
 
 
 /**
- * An use case class of event. Implements Serializable.
+ * An use case class of event. Implements Serializable, Journaled.
  * Stores all event in a map with event id of event map to the corresponding event. Also a sorted map with
  * time map to a list of toString of events start at that time.
  * Also stores total number of events.
  * Has methods to construct new events, get event with given information, and change the information of event.
+ * Every mutation is recorded into the attached MutationLog, if there is one.
  * @author Group0694
  * @version 2.0.0
  */
-public class EventManager implements Serializable {
+public class EventManager implements Serializable, Journaled {
     // Type map to Hashmap <id, Event>
     private final Map<String, Map<String, Event>> eventList;
-    // Key first star time, map a list of event happens during this time
+    // Key first star time, map a list of event happens during this time, split into expired and upcoming events
     // Value is a list of events starts with this time, String[] == {event time list to string, event id, event name}
-    private final SortedMap<Timestamp, List<String[]>> eventSchedule;
+    private final EventTimeline eventSchedule;
     private int numEvents;
     private final String[] eventType = {"talk", "party", "panel discussion"};
+    private transient MutationLog mutationLog;
+    // Number of mutations since this manager was created or read, the manager is unchanged while it stays the same
+    private transient long version;
+    // The modification epoch at which each event was cancelled, kept for the delta written by EventCodec
+    private transient Map<String, Long> removedEvents;
+    // Finds the account and room observers by name when replaying recorded mutations
+    private transient Function<String, EventWithSpecObserver> accountObservers;
+    private transient Function<String, EventObserver> roomObservers;
+    // Gives out the numbers of the ids of new events, shared by the EventManagers of all conferences
+    private transient IntUnaryOperator eventNumbers;
+    // The events by id and by every time slot, built when it is first asked for and then kept up to date
+    private transient EventCatalog catalog;
+    // The rows of eventSchedule that are VIP events, built when it is first asked for and then kept up to date
+    private transient EventTimeline vipSchedule;
+    // The views of all events by id, built when it is first asked for and then replaced as a whole on the first
+    // read after a batch of mutations, so a map that has been handed out never changes
+    private transient volatile Map<String, EventView> snapshot;
+    // The ids of the events changed since the snapshot was last published, attendees are not in the views so
+    // signing up for an event or leaving it does not change them. Only touched by the one thread that changes this
+    // manager, which is also the thread that calls its read methods, since they publish first
+    private transient Set<String> unpublished;
 
     /**
      * Constructs a EventManager, set everything to empty.
      */
     public EventManager() {
         eventList = new HashMap<>();
-        eventSchedule = new TreeMap<>();
+        eventSchedule = new EventTimeline();
         numEvents = 0;
     }
 
     private Event findEvent(String id) {
-        for (Map<String, Event> events: eventList.values()) {
-            if (events != null && events.get(id) != null) {
-                return events.get(id);
+        return getCatalog().get(id);
+    }
+
+    private EventCatalog getCatalog() {
+        if (catalog == null) {
+            EventCatalog events = new EventCatalog();
+            for (Map<String, Event> eventsOfType : eventList.values()) {
+                if (eventsOfType == null) continue;
+                for (Event event : eventsOfType.values()) {
+                    if (event != null) events.add(event);
+                }
+            }
+            catalog = events;
+        }
+        return catalog;
+    }
+
+    private Map<String, EventView> getSnapshot() {
+        publish();
+        Map<String, EventView> views = snapshot;
+        if (views == null) {
+            Map<String, EventView> built = new HashMap<>();
+            for (Map<String, Event> eventsOfType : eventList.values()) {
+                if (eventsOfType == null) continue;
+                for (Event event : eventsOfType.values()) {
+                    if (event != null) built.put(event.getId(), new EventView(event));
+                }
             }
+            unpublished = new HashSet<>();
+            views = Collections.unmodifiableMap(built);
+            snapshot = views;
         }
-        return null;
+        return views;
     }
 
-    private int totalNumberOfEvents(){
-        int sum = 0;
-        for (Map<String, Event> events: eventList.values()){
-            if (events != null) sum += events.size();
+    private EventView findView(String id) {
+        return getSnapshot().get(id);
+    }
+
+    // Marks an event as changed, so its view is made again when the snapshot is next published
+    private void unpublished(Event event) {
+        if (snapshot != null) unpublished.add(event.getId());
+    }
+
+    // Publishes a new snapshot with the views of the events changed since the last one made again, the old snapshot
+    // is left as it is for whoever still reads it. Runs once for all mutations made since the last read
+    private void publish() {
+        if (snapshot == null || unpublished.isEmpty()) return;
+        Map<String, EventView> views = new HashMap<>(snapshot);
+        for (String eventId : unpublished) {
+            Event event = findEvent(eventId);
+            if (event == null) views.remove(eventId);
+            else views.put(eventId, new EventView(event));
         }
-        return sum;
+        unpublished.clear();
+        snapshot = Collections.unmodifiableMap(views);
+    }
+
+    // The ids of events given out here are never given out again
+    private void useNumberOf(String eventID) {
+        numEvents = Math.max(numEvents, Integer.parseInt(eventID.substring(1)) + 1);
+    }
+
+    private int totalNumberOfEvents(){
+        return getCatalog().size();
     }
 
     /**
@@ -56,35 +134,47 @@ public class EventManager implements Serializable {
     public List<String> allEventTypes(){ return Arrays.asList(eventType); }
 
     /**
-     * Gets Schedule of all events
-     * @return A list of arrays where in the format [time, id, event name]
+     * Gets Schedule of all events, split into the upcoming ("curr") and expired ("expired") ones at the current time.
+     * Nothing is copied or filtered, the parts are views of a schedule kept up to date as events change.
+     * @return Two collections of arrays where in the format [time, id, event name], in order of start time
      * @param vip indicates if only VIP events are wanted
      */
-    Map<String, List<String[]>> getEventSchedule(boolean vip) {
-        List<String[]> curr = new ArrayList<>();
-        List<String[]> expired = new ArrayList<>();
+    Map<String, Collection<String[]>> getEventSchedule(boolean vip) {
+        EventTimeline schedule = vip ? getVipSchedule() : eventSchedule;
         Timestamp currTime = new Timestamp(new Date().getTime());
-        for (Timestamp t : eventSchedule.keySet()) {
-            List<String[]> value = eventSchedule.get(t);
-            if (currTime.before(t)) {
-                addEventAtTimeToList(vip, curr, value);
-            } else {
-                addEventAtTimeToList(vip, expired, value);
-            }
-        }
-        Map<String, List<String[]>> m = new HashMap<>();
-        m.put("curr", curr);
-        m.put("expired", expired);
+        Map<String, Collection<String[]>> m = new HashMap<>();
+        m.put("curr", schedule.getUpcoming(currTime));
+        m.put("expired", schedule.getExpired(currTime));
         return m;
     }
 
-    private void addEventAtTimeToList(boolean vip, List<String[]> list, List<String[]> value) {
-        for (String[] item : value) {
-            Event event = this.findEvent(item[1]);
-            if (!vip || event != null && event.isVIP())// (not VIP only) or (VIP only and check if event is VIP)
-                list.add(item);
-                // list.add(getEventScheduleValue(t, item));
+    private EventTimeline getVipSchedule() {
+        if (vipSchedule == null) {
+            EventTimeline schedule = new EventTimeline();
+            for (Iterator<List<String[]>> atTimes = eventSchedule.all(); atTimes.hasNext(); ) {
+                for (String[] item : atTimes.next()) {
+                    Event event = this.findEvent(item[1]);
+                    if (event != null && event.isVIP()) schedule.add(event.getFirstTime(), item);
+                }
+            }
+            vipSchedule = schedule;
         }
+        return vipSchedule;
+    }
+
+    // Puts the row of an event into the schedule, at its first start time
+    private void schedule(Event event) {
+        String[] row = new String[]{event.printEventDuration(), event.getId(), event.getName()};
+        eventSchedule.add(event.getFirstTime(), row);
+        if (vipSchedule != null && event.isVIP()) vipSchedule.add(event.getFirstTime(), row);
+        unpublished(event);
+    }
+
+    // Takes the row of an event out of the schedule, before its first start time is changed
+    private void unschedule(Event event) {
+        eventSchedule.remove(event.getFirstTime(), event.getId());
+        if (vipSchedule != null) vipSchedule.remove(event.getFirstTime(), event.getId());
+        unpublished(event);
     }
 
     /**
@@ -93,12 +183,7 @@ public class EventManager implements Serializable {
      * @return true iff event exists
      */
     public boolean checkEvent(String eventID) {
-        for (Map<String, Event> events: eventList.values()) {
-            if (events != null && events.get(eventID) != null) {
-                return true;
-            }
-        }
-        return false;
+        return findEvent(eventID) != null;
     }
 
     /**
@@ -117,45 +202,95 @@ public class EventManager implements Serializable {
     String createEvent(String type, String name, EventWithSpecObserver organizer, SortedSet<Timestamp[]> timeDuration,
                               EventObserver location, String description, int capacity) {
         numEvents = Math.max(numEvents, totalNumberOfEvents());
-        String id = "E" + numEvents;
+        int number = (eventNumbers == null) ? numEvents : eventNumbers.applyAsInt(numEvents);
+        return createEvent("E" + number, type, name, organizer, timeDuration, location, description, capacity);
+    }
 
+    private String createEvent(String id, String type, String name, EventWithSpecObserver organizer,
+                               SortedSet<Timestamp[]> timeDuration, EventObserver location, String description,
+                               int capacity) {
         Event newEvent = new EventFactory().makeEvent(type, name, organizer, timeDuration, location,
                 description, capacity, id);
         if (newEvent == null) return null;
 
         this.eventList.computeIfAbsent(type.toUpperCase(), k -> new HashMap<>());
         this.eventList.get(type.toUpperCase()).put(id, newEvent);
-        this.eventSchedule.computeIfAbsent(newEvent.getFirstTime(), k -> new ArrayList<>());
-        this.eventSchedule.get(newEvent.getFirstTime()).add(new String[]{newEvent.printEventDuration(), id, name});
-        numEvents++;
+        getCatalog().add(newEvent);
+        schedule(newEvent);
+        useNumberOf(id);
+        record(newEvent, "createEvent", type, name, organizer.getName(), MutationLog.encodeDuration(timeDuration),
+                location.getName(), description, String.valueOf(capacity), id);
         return id;
     }
 
     /**
-     * Gets all the events starts during the given period of time.
+     * Gets all the events held at some time during the given period of time, including the ones that start before it
+     * and the ones with a later slot in it.
      * @param time start of the time period
      * @param endTime end of the time period
-     * @return a map contains all events start during the given period of time with start time map to them
+     * @return a list of events, each as {event time list to string, event id, event name}, in ascending order of
+     * their first slot in the period
      */
-    Map<Timestamp, List<String[]>> getEventsByTime(Timestamp time, Timestamp endTime){
-        return this.eventSchedule.subMap(time, endTime);
+    List<String[]> getEventsByTime(Timestamp time, Timestamp endTime){
+        return describe(getCatalog().getOverlapping(time, endTime));
+    }
+
+    /**
+     * Gets all the events being held at the given time.
+     * @param time the time
+     * @return a list of events, each as {event time list to string, event id, event name}
+     */
+    List<String[]> getEventsAtTime(Timestamp time){
+        return describe(getCatalog().getHappeningAt(time));
+    }
+
+    /**
+     * Gets the next events that have a time slot starting at or after the given time.
+     * @param time the time
+     * @param limit the largest number of events wanted
+     * @return a list of events, each as {event time list to string, event id, event name}, in ascending order of
+     * their first slot starting then or later
+     */
+    List<String[]> getNextEvents(Timestamp time, int limit){
+        return describe(getCatalog().getNext(time, limit));
+    }
+
+    // Uses the descriptions kept in eventSchedule, so the durations are not printed again
+    private List<String[]> describe(List<String> eventIds) {
+        List<String[]> result = new ArrayList<>(eventIds.size());
+        for (String eventId : eventIds) {
+            Event event = findEvent(eventId);
+            String[] found = eventSchedule.find(event.getFirstTime(), eventId);
+            result.add((found != null) ? found : new String[]{event.printEventDuration(), eventId, event.getName()});
+        }
+        return result;
     }
 
     /**
      * Gets all the events are held in a given room.
      * @param location the name of given room
-     * @return a map contains all events are held in the given room by event id mapped to event name
+     * @return a map contains all events are held in the given room by event id mapped to event name, in ascending
+     * order of their first start time
      */
     Map<String, String> getEventByLocation(String location){
-        Map<String, String> result = new HashMap<>();
-        for(Map<String, Event> events: eventList.values()){
-            if(events != null){
-                for (Event event : events.values()){
-                    if (event != null && event.getLocation().equalsIgnoreCase(location)) result.put(
-                            event.getId(), event.getName());
-                }
-            }
-        }
+        return namesOf(getCatalog().getInRoom(location));
+    }
+
+    /**
+     * Gets the events held in a given room at some time during the given period, such as one day.
+     * @param location the name of given room, in any case
+     * @param time start of the time period
+     * @param endTime end of the time period
+     * @return a map contains the events by event id mapped to event name, in ascending order of their first slot in
+     * the period
+     */
+    Map<String, String> getEventByLocation(String location, Timestamp time, Timestamp endTime){
+        return namesOf(getCatalog().getInRoom(location, time, endTime));
+    }
+
+    private Map<String, String> namesOf(List<String> eventIds) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String eventId : eventIds) result.put(eventId, findEvent(eventId).getName());
         return result;
     }
 
@@ -167,7 +302,9 @@ public class EventManager implements Serializable {
      */
     public boolean addAttendee(EventWithSpecObserver observer, String id){
         Event event = findEvent(id);
-        return !(event == null || event.isInEvent(observer)) && event.addAttendee(observer);
+        if (event == null || event.isInEvent(observer) || !event.addAttendee(observer)) return false;
+        record(event, "addAttendee", observer.getName(), id);
+        return true;
     }
 
     /**
@@ -178,7 +315,9 @@ public class EventManager implements Serializable {
      */
     public boolean removeAttendee(EventWithSpecObserver observer, String eventID){
         Event event = findEvent(eventID);
-        return event != null && event.removeAttendee(observer);
+        if (event == null || !event.removeAttendee(observer)) return false;
+        record(event, "removeAttendee", observer.getName(), eventID);
+        return true;
     }
 
     /**
@@ -190,10 +329,13 @@ public class EventManager implements Serializable {
      */
     boolean scheduleSpeaker(String eventID, List<EventWithSpecObserver> username) {
         Event event = findEvent(eventID);
-        if (event != null) {
-            return event.changeHost(username);
-        }
-        return false;
+        if (event == null || !event.changeHost(username)) return false;
+        unpublished(event);
+        String[] args = new String[username.size() + 1];
+        args[0] = eventID;
+        for (int i = 0; i < username.size(); i++) args[i + 1] = username.get(i).getName();
+        record(event, "scheduleSpeaker", args);
+        return true;
     }
 
     /**
@@ -204,19 +346,13 @@ public class EventManager implements Serializable {
     void rescheduleEvent(String eventID, SortedSet<Timestamp[]> timeDuration) {
         Event event = findEvent(eventID);
         if (event != null) {  //&& timeDuration.first()[0] != event.getFirstTime()
-            String name = event.getName();
-            Timestamp startTime = timeDuration.first()[0];
-            for(String[] lst : eventSchedule.get(event.getFirstTime())) {
-                // lst[0] is the time duration
-                if (lst[1].equals(eventID) && lst[2].equals(name)) {
-                    eventSchedule.get(event.getFirstTime()).remove(lst);
-                    break;
-                }
-            }
+            unschedule(event);
             // Notify room, host, and attendee observers
+            getCatalog().remove(event);
             event.setTime(timeDuration);
-            eventSchedule.computeIfAbsent(startTime, k -> new ArrayList<>());
-            eventSchedule.get(startTime).add(new String[]{event.printEventDuration(), eventID, name});
+            getCatalog().add(event);
+            schedule(event);
+            record(event, "rescheduleEvent", eventID, MutationLog.encodeDuration(timeDuration));
         }
     }
 
@@ -228,23 +364,19 @@ public class EventManager implements Serializable {
     boolean cancelEvent(String eventID) {
         Event event = findEvent(eventID);
         if (event == null) return false;
-        List<String[]> events = eventSchedule.get(event.getFirstTime());
-        if (events == null) return false;
+        if (eventSchedule.find(event.getFirstTime(), eventID) == null) return false;
         // Notify all observers remove
         event.notifyRoomRemove();
         event.notifyHostRemove();
         event.notifyAttendeesRemove();
+        getCatalog().remove(event);
         for (Map<String, Event> eventMap : eventList.values()) {
             eventMap.remove(eventID);
         }
-        int index = -1;
-        for (int i=0;i<events.size();i++) {
-            if (events.get(i) != null && eventID.equalsIgnoreCase(events.get(i)[1])) {
-                index = i;
-                break;
-            }
-        }
-        if (index != -1) events.remove(index);
+        unschedule(event);
+        record("cancelEvent", eventID);
+        if (removedEvents == null) removedEvents = new HashMap<>();
+        removedEvents.put(eventID, version);
         return true;
     }
 
@@ -255,8 +387,8 @@ public class EventManager implements Serializable {
      * @return the toString of event with given id if it exists
      */
     String provideDescription(String ID){
-        Event event = findEvent(ID);
-        return (event == null) ? null : event.toString();
+        EventView event = findView(ID);
+        return (event == null) ? null : event.getDescription();
     }
 
     /**
@@ -265,20 +397,33 @@ public class EventManager implements Serializable {
      * @return An iterator of hosts for this event, or null if this event does not exist
      */
     public Iterator<String> getHosts(String eventID){
-        Event event = findEvent(eventID);
-        return (event == null) ? null : event.getHosts();
+        EventView event = findView(eventID);
+        return (event == null) ? null : event.getHosts().iterator();
     }
 
     /**
-     * Returns all attendees of a given event.
+     * Returns all attendees of a given event, without copying them.
      * @param eventID id of the event we want to work on
-     * @return An iterator of hosts for this event, or null if this event does not exist
+     * @return An iterator of attendees for this event in the order they signed up, or null if this event does not
+     * exist. It must be used up before the event is changed.
      */
     public Iterator<String> getAttendees(String eventID){
         Event event = findEvent(eventID);
         return (event == null) ? null : event.getAttendees();
     }
 
+    /**
+     * Returns one page of the attendees of a given event, for events too large to go through at once.
+     * @param eventID id of the event we want to work on
+     * @param from the number of attendees before the page, in the order they signed up
+     * @param limit the largest number of attendees on the page
+     * @return A list of attendees on the page, empty past the last attendee, or null if this event does not exist
+     */
+    public List<String> getAttendees(String eventID, int from, int limit){
+        Event event = findEvent(eventID);
+        return (event == null) ? null : event.getAttendees(from, limit);
+    }
+
     /**
      * Checks if the attendee has signed up with the given event id
      * @param eventID id of the event
@@ -293,25 +438,12 @@ public class EventManager implements Serializable {
     /**
      * Gets event duration with given event Id
      * @param eventId A String representation of event id
-     * @return An instance of SortedSet of this event duration
+     * @return An instance of SortedSet of this event duration, which cannot be changed, or null if the event does not
+     * exist
      */
     public SortedSet<Timestamp[]> getEventDuration(String eventId) {
-        Event event = findEvent(eventId);
-        if (event == null) {
-            return null;
-        }
-        SortedSet<Timestamp[]> sortedSet = new TreeSet<>((Comparator<Timestamp[]> & Serializable)
-                (Timestamp[] t1, Timestamp[] t2) -> {
-                    if (!t1[1].after(t2[0]))
-                        return -1;
-                    if (!t2[1].after(t1[0]))
-                        return 1;
-                    return 0;
-                }
-        );
-        Iterator<Timestamp[]> t = event.getDuration();
-        t.forEachRemaining(sortedSet::add);
-        return sortedSet;
+        EventView event = findView(eventId);
+        return (event == null) ? null : event.getDuration();
     }
 
     /**
@@ -320,8 +452,8 @@ public class EventManager implements Serializable {
      * @return room where the event located
      */
     String getRoom(String eventID){
-        Event event = findEvent(eventID);
-        return (event == null) ? null : event.getLocation();
+        EventView event = findView(eventID);
+        return (event == null) ? null : event.getRoom();
     }
 
     /**
@@ -339,8 +471,8 @@ public class EventManager implements Serializable {
      * @return the number of speakers this event requires, or -2 if the event does not exist
      */
     int numSpeakers(String eventID){
-        Event event = findEvent(eventID);
-        return (event == null) ? -2 : event.getNumSpeaker(); // -2 if event not exist, -1 if multiple speakers
+        EventView event = findView(eventID);
+        return (event == null) ? -2 : event.getNumSpeakers(); // -2 if event not exist, -1 if multiple speakers
     }
 
     /**
@@ -349,7 +481,7 @@ public class EventManager implements Serializable {
      * @return the capacity this event requires, or -1 if the event is not found
      */
     int getCapacity(String eventID){
-        Event event = findEvent(eventID);
+        EventView event = findView(eventID);
         return (event == null) ? -1 : event.getCapacity();
     }
 
@@ -364,6 +496,8 @@ public class EventManager implements Serializable {
         if (event == null) return false;
         else {
             event.setCapacity(newCapacity);
+            unpublished(event);
+            record(event, "setCapacity", eventID, String.valueOf(newCapacity));
             return true;
         }
     }
@@ -378,7 +512,11 @@ public class EventManager implements Serializable {
         Event event = findEvent(eventID);
         if (event == null) return false;
         else {
+            getCatalog().remove(event);
             event.setLocation(room);
+            getCatalog().add(event);
+            unpublished(event);
+            record(event, "changeRoom", eventID, room.getName());
             return true;
         }
     }
@@ -403,7 +541,13 @@ public class EventManager implements Serializable {
         Event event = findEvent(eventID);
         if (event == null) return false;
         else {
+            if (vipSchedule != null) {
+                vipSchedule.remove(event.getFirstTime(), eventID);
+                if (isVIP) vipSchedule.add(event.getFirstTime(), eventSchedule.find(event.getFirstTime(), eventID));
+            }
             event.setVIP(isVIP);
+            unpublished(event);
+            record(event, "setVIP", eventID, String.valueOf(isVIP));
             return true;
         }
     }
@@ -414,7 +558,7 @@ public class EventManager implements Serializable {
      * @return true iff the event exists and is VIP only
      */
     public boolean isVIP(String eventID){
-        Event event = findEvent(eventID);
+        EventView event = findView(eventID);
         return event != null && event.isVIP();
     }
 
@@ -436,7 +580,12 @@ public class EventManager implements Serializable {
      */
     boolean setRequiredFeatures(String eventID, List<String> requiredFeatures){
         Event event = findEvent(eventID);
-        return event != null && event.addRequiredFeatures(requiredFeatures);
+        if (event == null || !event.addRequiredFeatures(requiredFeatures)) return false;
+        List<String> args = new ArrayList<>();
+        args.add(eventID);
+        args.addAll(requiredFeatures);
+        record(event, "setRequiredFeatures", args.toArray(new String[0]));
+        return true;
     }
 
     /**
@@ -445,42 +594,142 @@ public class EventManager implements Serializable {
      * @param observer An instance of EventWithSpecObserver, represents the attendee of this event
      */
     public void updateVIPEvent(List<String> vipEvents, EventWithSpecObserver observer) {
-        for (String eventId : vipEvents) {
-            Event e = findEvent(eventId);
+        updateVIPEvents(Collections.singletonMap(observer, vipEvents));
+    }
+
+    /**
+     * Removes many accounts from the vip events they attend, looking up every event and walking its attendee list
+     * once however many of the accounts attend it
+     * @param vipEvents Maps every account, as an instance of EventWithSpecObserver, to the vip event ids it attends
+     */
+    public void updateVIPEvents(Map<EventWithSpecObserver, List<String>> vipEvents) {
+        Map<String, Map<String, EventWithSpecObserver>> attendeesByEvent = new LinkedHashMap<>();
+        for (Map.Entry<EventWithSpecObserver, List<String>> entry : vipEvents.entrySet()) {
+            for (String eventId : entry.getValue()) {
+                attendeesByEvent.computeIfAbsent(eventId, k -> new HashMap<>())
+                        .put(entry.getKey().getName(), entry.getKey());
+            }
+        }
+        List<Event> changed = new ArrayList<>();
+        for (Map.Entry<String, Map<String, EventWithSpecObserver>> entry : attendeesByEvent.entrySet()) {
+            Event e = findEvent(entry.getKey());
             if (e != null) {
-                e.removeAttendee(observer);
+                e.removeAttendees(entry.getValue());
+                changed.add(e);
             }
         }
+        // Recorded account by account, the same as one call of updateVIPEvent each
+        for (Map.Entry<EventWithSpecObserver, List<String>> entry : vipEvents.entrySet()) {
+            List<String> args = new ArrayList<>();
+            args.add(entry.getKey().getName());
+            args.addAll(entry.getValue());
+            record("updateVIPEvent", args.toArray(new String[0]));
+        }
+        for (Event e : changed) e.setEpoch(version);
+    }
+
+    /**
+     * Takes an account that is being deleted out of the given events. An event the account organizes or hosts is
+     * cancelled, which also frees its room and the schedules of its attendees, and from every other event the account
+     * is only taken out of the attendee list.
+     * @param username A String representation of the username of the account
+     * @param eventIds The ids of the events in the schedule and special list of the account, no other event is
+     *                 looked at
+     * @return The number of events cancelled
+     */
+    public int removeAccount(String username, Collection<String> eventIds) {
+        int numCancelled = 0;
+        List<Event> changed = new ArrayList<>();
+        for (String eventId : eventIds) {
+            Event e = findEvent(eventId);
+            if (e == null) continue;
+            if (isRunBy(e, username)) {
+                if (cancelEvent(eventId)) numCancelled++;
+            } else if (e.removeAttendeeNamed(username)) {
+                changed.add(e);
+            }
+        }
+        if (!changed.isEmpty()) {
+            List<String> args = new ArrayList<>();
+            args.add(username);
+            for (Event e : changed) args.add(e.getId());
+            record("removeAccount", args.toArray(new String[0]));
+            for (Event e : changed) e.setEpoch(version);
+        }
+        return numCancelled;
+    }
+
+    /**
+     * Checks if an account is in an event of this conference, as its organizer, one of its hosts or an attendee.
+     * An older event of another conference may have the same id, and is not in this manager.
+     * @param eventID id of the event
+     * @param observer The EventWithSpecObserver of the account
+     * @return true iff the event exists here and the account is in it
+     */
+    public boolean isAttached(String eventID, EventWithSpecObserver observer) {
+        Event event = findEvent(eventID);
+        return event != null && (isRunBy(event, observer.getName()) || event.isInEvent(observer));
+    }
+
+    private boolean isRunBy(Event event, String username) {
+        if (event.getOrganizerName().equals(username)) return true;
+        Iterator<String> hosts = event.getHosts();
+        while (hosts.hasNext()) {
+            if (hosts.next().equals(username)) return true;
+        }
+        return false;
     }
 
     /**
-     * Gets all the valid event
+     * Gets all the valid events one by one, in ascending order of their first start time, without copying them
      * @param accountIsVip True iff given account is vip
      * @param isVip True iff user what to access vip only event
-     * @return A map that maps valid event id to its duration
+     * @return An iterator of the ids of events that have not started yet and the account can attend
      */
-    public Map<String, SortedSet<Timestamp[]>> getAllEventTime(boolean accountIsVip, boolean isVip) {
+    public Iterator<String> getUpcomingEvents(boolean accountIsVip, boolean isVip) {
         Timestamp currTime = new Timestamp(new Date().getTime());
-        SortedMap<Timestamp, List<String[]>> validMap = eventSchedule.tailMap(currTime);
-        Map<String, SortedSet<Timestamp[]>> o = new HashMap<>();
-        String eventId;
-        for (Timestamp key : validMap.keySet()) {
-            for(String[] value : validMap.get(key)) { // value[1] event id
-                eventId = value[1];
-                if (!isValidEvent(eventId)) {
-                    continue;
-                }
-                if (isVip) {
-                    if (isVIP(eventId)) {
-                        o.put(eventId, getEventDuration(eventId));
+        Iterator<List<String[]>> startingAt = eventSchedule.startingAt(currTime);
+        return new Iterator<String>() {
+            private Iterator<String[]> events = Collections.emptyIterator();
+            private String next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                if (next == null) throw new NoSuchElementException();
+                String eventId = next;
+                next = advance();
+                return eventId;
+            }
+
+            private String advance() {
+                while (true) {
+                    while (!events.hasNext()) {
+                        if (!startingAt.hasNext()) return null;
+                        events = startingAt.next().iterator();
                     }
-                }
-                else if (accountIsVip || isVIP(eventId)) {
-                    o.put(eventId, getEventDuration(eventId));
+                    String eventId = events.next()[1]; // value[1] event id
+                    if (!isValidEvent(eventId)) continue;
+                    // VIP only events are only for VIP accounts
+                    if (isVip ? isVIP(eventId) : (accountIsVip || !isVIP(eventId))) return eventId;
                 }
             }
-        }
-        return o;
+        };
+    }
+
+    /**
+     * Gets the time slots of an event without copying them
+     * @param eventId A String representation of event id
+     * @return An iterator of the time intervals of this event, in ascending order, or an empty iterator if the event
+     * does not exist. The intervals must not be changed.
+     */
+    public Iterator<Timestamp[]> getEventSlots(String eventId) {
+        EventView event = findView(eventId);
+        return (event == null) ? Collections.emptyIterator() : event.getDuration().iterator();
     }
 
     /**
@@ -491,7 +740,228 @@ public class EventManager implements Serializable {
         Event event = findEvent(eventId);
         if (event != null) {
             event.notifyHostAdd();
+            record("updateHostAdd", eventId);
+        }
+    }
+
+    /**
+     * Gets all events in the order of their start time, used when this manager is written by EventCodec
+     * @return An iterator of all events
+     */
+    Iterator<Event> getEvents() {
+        Set<Event> events = new LinkedHashSet<>();
+        for (Iterator<List<String[]>> atTimes = eventSchedule.all(); atTimes.hasNext(); ) {
+            for (String[] item : atTimes.next()) {
+                Event event = findEvent(item[1]);
+                if (event != null) events.add(event);
+            }
         }
+        for (Map<String, Event> eventsOfType : eventList.values()) {
+            if (eventsOfType != null) events.addAll(eventsOfType.values());
+        }
+        return events.iterator();
+    }
+
+    /**
+     * Gets the number used for the id of the next event
+     * @return The number used for the id of the next event
+     */
+    int getNumEvents() {
+        return numEvents;
+    }
+
+    /**
+     * Puts an event read by EventCodec back into this manager, without recording it
+     * @param event The event to be put back
+     */
+    void restoreEvent(Event event) {
+        this.eventList.computeIfAbsent(event.getType().toUpperCase(), k -> new HashMap<>());
+        this.eventList.get(event.getType().toUpperCase()).put(event.getId(), event);
+        if (catalog != null) catalog.add(event);
+        schedule(event);
+    }
+
+    /**
+     * Gets the events changed after the given modification epoch, used when a delta is written by EventCodec
+     * @param epoch The modification epoch of the last checkpoint
+     * @return An iterator of the events changed since then
+     */
+    Iterator<Event> getEventsChangedSince(long epoch) {
+        List<Event> events = new ArrayList<>();
+        for (Map<String, Event> eventsOfType : eventList.values()) {
+            for (Event event : eventsOfType.values()) {
+                if (event != null && event.getEpoch() > epoch) events.add(event);
+            }
+        }
+        return events.iterator();
+    }
+
+    /**
+     * Gets the ids of the events cancelled after the given modification epoch, used when a delta is written by
+     * EventCodec
+     * @param epoch The modification epoch of the last checkpoint
+     * @return An iterator of the ids of the events cancelled since then
+     */
+    Iterator<String> getEventsRemovedSince(long epoch) {
+        List<String> ids = new ArrayList<>();
+        if (removedEvents != null) {
+            for (Map.Entry<String, Long> removed : removedEvents.entrySet()) {
+                if (removed.getValue() > epoch) ids.add(removed.getKey());
+            }
+        }
+        return ids.iterator();
+    }
+
+    /**
+     * Puts an event read from a delta by EventCodec into this manager in place of the old one, without recording
+     * it or notifying anyone
+     * @param event The event to be put in
+     */
+    void replaceEvent(Event event) {
+        removeRestoredEvent(event.getId());
+        restoreEvent(event);
+    }
+
+    /**
+     * Takes out an event that a delta read by EventCodec says is cancelled, without recording it or notifying
+     * anyone, since the accounts and rooms have their own deltas
+     * @param eventID id of the cancelled event
+     */
+    void removeRestoredEvent(String eventID) {
+        Event event = findEvent(eventID);
+        if (event == null) return;
+        getCatalog().remove(event);
+        for (Map<String, Event> eventMap : eventList.values()) eventMap.remove(eventID);
+        unschedule(event);
+    }
+
+    /**
+     * Sets the number used for the id of the next event, read by EventCodec
+     * @param numEvents The number used for the id of the next event
+     */
+    void restoreNumEvents(int numEvents) {
+        this.numEvents = numEvents;
+    }
+
+    /**
+     * Sets what gives out the numbers of the ids of new events, so that no two conferences give the same id to their
+     * events, and the schedule and special list of an account tell apart the events of all conferences
+     * @param eventNumbers Gives out the number of the next id, given the number this manager would use itself
+     */
+    public void setEventNumbers(IntUnaryOperator eventNumbers) {
+        this.eventNumbers = eventNumbers;
+    }
+
+    /**
+     * Sets where the account and room observers are found by name when replaying recorded mutations
+     * @param accountObservers Finds the EventWithSpecObserver of an account by its username
+     * @param roomObservers Finds the EventObserver of a room by its room name
+     */
+    public void setObserverSources(Function<String, EventWithSpecObserver> accountObservers,
+                                   Function<String, EventObserver> roomObservers) {
+        this.accountObservers = accountObservers;
+        this.roomObservers = roomObservers;
+    }
+
+    /**
+     * Sets the log that all following mutations of this manager will be recorded into
+     * @param log An instance of MutationLog, or null to stop recording
+     */
+    @Override
+    public void setMutationLog(MutationLog log) {
+        this.mutationLog = log;
+    }
+
+    /**
+     * Gets the number of mutations made to this manager since it was created or read
+     * @return The number of mutations so far
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Redoes one recorded mutation of this manager. Assumes the observer sources are set.
+     * An account named by a record may have been deleted after the record was written. Its events were cancelled and
+     * it was taken out of the others by the records of its deletion, which come later, so what the record did to it is
+     * skipped.
+     * @param operation A String representation of the name of the mutating operation
+     * @param args The String representation of all arguments of this operation
+     */
+    @Override
+    public void replay(String operation, String[] args) {
+        List<String> rest = Arrays.asList(args).subList(1, args.length);
+        switch (operation) {
+            case "createEvent":
+                EventWithSpecObserver organizer = accountObservers.apply(args[2]);
+                // Records written before ids were shared by all conferences have no id, and get the next one here
+                String id = (args.length > 7) ? args[7] : "E" + Math.max(numEvents, totalNumberOfEvents());
+                if (organizer != null) {
+                    createEvent(id, args[0], args[1], organizer, MutationLog.decodeDuration(args[3]),
+                            roomObservers.apply(args[4]), args[5], Integer.parseInt(args[6]));
+                } else {
+                    // The id is still used up, so the events created after it get the same ids as before
+                    useNumberOf(id);
+                }
+                break;
+            case "addAttendee":
+                EventWithSpecObserver attendee = accountObservers.apply(args[0]);
+                if (attendee != null) addAttendee(attendee, args[1]);
+                break;
+            case "removeAttendee":
+                attendee = accountObservers.apply(args[0]);
+                if (attendee != null) removeAttendee(attendee, args[1]);
+                break;
+            case "scheduleSpeaker":
+                List<EventWithSpecObserver> hosts = new ArrayList<>();
+                for (String host : rest) {
+                    EventWithSpecObserver observer = accountObservers.apply(host);
+                    if (observer != null) hosts.add(observer);
+                }
+                scheduleSpeaker(args[0], hosts);
+                break;
+            case "rescheduleEvent":
+                rescheduleEvent(args[0], MutationLog.decodeDuration(args[1]));
+                break;
+            case "cancelEvent":
+                cancelEvent(args[0]);
+                break;
+            case "setCapacity":
+                setCapacity(args[0], Integer.parseInt(args[1]));
+                break;
+            case "changeRoom":
+                changeRoom(args[0], roomObservers.apply(args[1]));
+                break;
+            case "setVIP":
+                setVIP(args[0], Boolean.parseBoolean(args[1]));
+                break;
+            case "setRequiredFeatures":
+                setRequiredFeatures(args[0], rest);
+                break;
+            case "updateVIPEvent":
+                attendee = accountObservers.apply(args[0]);
+                if (attendee != null) updateVIPEvent(rest, attendee);
+                break;
+            case "removeAccount":
+                removeAccount(args[0], rest);
+                break;
+            case "updateHostAdd":
+                updateHostAdd(args[0]);
+                break;
+        }
+    }
+
+    // Records a mutation, the views of the events it changed are published on the next read
+    private void record(String operation, String... args) {
+        version++;
+        if (mutationLog != null) mutationLog.record(operation, args);
+    }
+
+    // Records a mutation of the given event, and marks the event as changed by it
+    private void record(Event event, String operation, String... args) {
+        record(operation, args);
+        event.setEpoch(version);
     }
 }
 
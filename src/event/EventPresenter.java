@@ -3,6 +3,7 @@ package event;
 import conferencemain.MainPresenter;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -21,7 +22,7 @@ class EventPresenter extends MainPresenter {
      * @param expired The list of expired event's information
      * @param curr The list of currently available event's information
      */
-    void printEventList(List<String[]> expired, List<String[]> curr) {
+    void printEventList(Collection<String[]> expired, Collection<String[]> curr) {
         System.out.println("Expired Events: ");
         for(String[] s : expired) {
             System.out.println("Event ID: " + s[1] + ", Event Name: " + s[2]);
@@ -53,21 +54,19 @@ class EventPresenter extends MainPresenter {
     }
 
     /**
-     * Prints out the list of toString description of all events starts in given time period.
-     * If there are no event in given map, tells user that no event found
-     * @param events a map which stores map time to a list of event id and name of events start at the time
+     * Prints out the list of toString description of all events found by time.
+     * If there are no event in given list, tells user that no event found
+     * @param events a list of events, each as {event time list to string, event id, event name}
      */
-    void getEventByTimeMessage(Map<Timestamp, List<String[]>> events) {
+    void getEventByTimeMessage(List<String[]> events) {
         boolean key = false;
-        for(Timestamp time: events.keySet()) {
-            for (String[] s : events.get(time)) {
-                if (!key) {
-                    key = true;
-                }
-                System.out.println("Event Id: " + s[1] + ", Event Name: " + s[2]);
-                System.out.println("Event Duration: ");
-                System.out.println(s[0]);
+        for (String[] s : events) {
+            if (!key) {
+                key = true;
             }
+            System.out.println("Event Id: " + s[1] + ", Event Name: " + s[2]);
+            System.out.println("Event Duration: ");
+            System.out.println(s[0]);
         }
         if (!key) {
             super.printErrorMessage("no events found");
@@ -122,6 +121,37 @@ class EventPresenter extends MainPresenter {
         System.out.println(description);
     }
 
+    /**
+     * Prints out one page of the attendees of an event, followed by the options to move between pages.
+     * If the event has no attendees, tells user that there are none.
+     * @param eventId The id of the event
+     * @param from The number of attendees before the page
+     * @param page The usernames of the attendees on the page
+     * @param hasPrevious true iff there is a page before this one
+     * @param hasNext true iff there is a page after this one
+     */
+    void printAttendeePage(String eventId, int from, List<String> page, boolean hasPrevious, boolean hasNext) {
+        super.printSeparateLine();
+        if (page.isEmpty()) {
+            System.out.println("Event " + eventId + " has no attendees.");
+        } else {
+            System.out.println("Attendees " + (from + 1) + " to " + (from + page.size()) + " of " + eventId + ":");
+            System.out.println(String.join(", ", page));
+        }
+        if (hasNext) System.out.println("n: next page");
+        if (hasPrevious) System.out.println("p: previous page");
+        System.out.println("r: return to previous page");
+        super.getInput();
+    }
+
+    /**
+     * Prints out an error message that the speaker does not speak at the event.
+     * @param eventId The id of the event
+     */
+    void notSpeakerOf(String eventId) {
+        super.printErrorMessage("You are not a speaker of event " + eventId);
+    }
+
     /**
      * Prints out result of entering event capacity.
      * @param roomCapacity the capacity of room user want to add event to.
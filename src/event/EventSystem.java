@@ -11,6 +11,8 @@ import java.util.*;
  * @version 2.0.0
  */
 public class EventSystem {
+    private static final int NEXT_EVENTS_LIMIT = 10;
+    private static final int ATTENDEES_PAGE_SIZE = 20;
     private final EventManager events;
     private final EventPresenter presenter;
 
@@ -28,9 +30,9 @@ public class EventSystem {
      * @param vip indicates if only VIP events are needed
      */
     public void printEventList(boolean vip){
-        Map<String, List<String[]>> allEvents = events.getEventSchedule(vip);
-        List<String[]> curr = allEvents.get("curr");
-        List<String[]> expired = allEvents.get("expired");
+        Map<String, Collection<String[]>> allEvents = events.getEventSchedule(vip);
+        Collection<String[]> curr = allEvents.get("curr");
+        Collection<String[]> expired = allEvents.get("expired");
         if (curr.size() + expired.size() == 0) {
             presenter.printErrorMessage("There is no event at this time.");
         } else {
@@ -67,30 +69,36 @@ public class EventSystem {
         presenter.getEventByLocationMessage(events.getEventByLocation(location), location);
     }
 
+    /**
+     * Gets all events in given location held during the time period, both provided by user input, such as the
+     * events of one room today.
+     * Gives prompt to user to enter the location, then the start time and end time in a correct format.
+     */
+    public void getEventByLocationAndTime () {
+        Scanner sc = new Scanner(System.in);
+        presenter.askEventLocation();
+        String location = sc.nextLine();
+        Timestamp startTime = askTime(sc, "start");
+        Timestamp endTime = askTime(sc, "end");
+        if (endTime.before(startTime)) {
+            presenter.endTimeBeforeStartTime();
+            return;
+        }
+        presenter.getEventByLocationMessage(events.getEventByLocation(location, startTime, endTime), location);
+    }
+
     /**
      * Gets all event with time given time period provided by user input.
      * Gives prompt to user to enter start time and end time, which has to be in a correct format.
      * If the input time is not in a correct format, then give feedback to user to let user correct the input format.
      * Ask for the start of the time period first, if get the correct format, goes to end of the time period.
-     * Gets all event starts during the time period.
+     * Gets all event held at some time during the time period, even if they start before it.
      * When get the correct format, return the description of all corresponding events to user.
      */
     public void getEventByTime () {
         Scanner sc = new Scanner(System.in);
-        presenter.askEndTime("start");
-        String time = sc.nextLine();
-        while (isWrongFormat(time + ":00:00.0")){
-            presenter.wrongTimeFormat();
-            time = sc.nextLine();
-        }
-        Timestamp startTime = Timestamp.valueOf(time + ":00:00.0");
-        presenter.askEndTime("end");
-        String otherTime = sc.nextLine();
-        while (isWrongFormat(otherTime + ":00:00.0")){
-            presenter.wrongTimeFormat();
-            otherTime = sc.nextLine();
-        }
-        Timestamp endTime = Timestamp.valueOf(otherTime + ":00:00.0");
+        Timestamp startTime = askTime(sc, "start");
+        Timestamp endTime = askTime(sc, "end");
         if (endTime.before(startTime)) {
             presenter.endTimeBeforeStartTime();
             return;
@@ -98,6 +106,96 @@ public class EventSystem {
         presenter.getEventByTimeMessage(events.getEventsByTime(startTime, endTime));
     }
 
+    /**
+     * Gets all event being held at the time provided by user input.
+     * Gives prompt to user to enter the time, which has to be in a correct format, and then prints the description
+     * of all corresponding events to user.
+     */
+    public void getEventAtTime () {
+        Scanner sc = new Scanner(System.in);
+        presenter.getEventByTimeMessage(events.getEventsAtTime(askTime(sc, "the")));
+    }
+
+    /**
+     * Gets the next events that start at or after the time provided by user input.
+     * Gives prompt to user to enter the time, which has to be in a correct format, and then prints the description
+     * of at most ten corresponding events to user.
+     */
+    public void getNextEvents () {
+        Scanner sc = new Scanner(System.in);
+        presenter.getEventByTimeMessage(events.getNextEvents(askTime(sc, "start"), NEXT_EVENTS_LIMIT));
+    }
+
+    /**
+     * Shows the attendees of an event which the event id is given by user input, one page at a time.
+     * Gives prompt to user to enter event id, then to go to the next or previous page until the user returns.
+     */
+    public void viewAttendees() {
+        Scanner sc = new Scanner(System.in);
+        presenter.askEventId();
+        String eventId = sc.nextLine();
+        if (events.checkEvent(eventId)) {
+            pageAttendees(sc, eventId);
+        } else {
+            presenter.eventNotExist();
+        }
+    }
+
+    /**
+     * Shows the attendees of an event given by user input that the given speaker speaks at, one page at a time.
+     * Gives prompt to user to enter event id, then to go to the next or previous page until the user returns.
+     * @param speakerName The username of the speaker
+     */
+    public void viewAttendees(String speakerName) {
+        Scanner sc = new Scanner(System.in);
+        presenter.askEventId();
+        String eventId = sc.nextLine();
+        Iterator<String> hosts = events.getHosts(eventId);
+        if (hosts == null) {
+            presenter.eventNotExist();
+            return;
+        }
+        while (hosts.hasNext()) {
+            if (hosts.next().equals(speakerName)) {
+                pageAttendees(sc, eventId);
+                return;
+            }
+        }
+        presenter.notSpeakerOf(eventId);
+    }
+
+    // Prints one page of attendees at a time, only the page shown and the first attendee after it are copied
+    private void pageAttendees(Scanner sc, String eventId) {
+        int from = 0;
+        for (;;) {
+            List<String> page = events.getAttendees(eventId, from, ATTENDEES_PAGE_SIZE + 1);
+            boolean hasNext = page.size() > ATTENDEES_PAGE_SIZE;
+            if (hasNext) page = page.subList(0, ATTENDEES_PAGE_SIZE);
+            presenter.printAttendeePage(eventId, from, page, from > 0, hasNext);
+            String input = sc.nextLine();
+            if ("n".equalsIgnoreCase(input) && hasNext) {
+                from += ATTENDEES_PAGE_SIZE;
+            } else if ("p".equalsIgnoreCase(input) && from > 0) {
+                from -= ATTENDEES_PAGE_SIZE;
+            } else if ("r".equalsIgnoreCase(input)) {
+                return;
+            } else {
+                presenter.printInvalidInput();
+            }
+        }
+    }
+
+    // Asks until the time entered is in the format 'yyyy-mm-dd hh'
+    private Timestamp askTime(Scanner sc, String s) {
+        presenter.askEndTime(s);
+        String time = sc.nextLine();
+        while (isWrongFormat(time + ":00:00.0")){
+            presenter.wrongTimeFormat();
+            time = sc.nextLine();
+        }
+        return Timestamp.valueOf(time + ":00:00.0");
+    }
+
     //private helper
     private boolean isWrongFormat(String myTime) {
         // Decide to use try catch to present corner case
@@ -0,0 +1,152 @@
+package event;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * The schedule rows of events in order of their first start time, split into expired and upcoming ones.
+ * Every row is {event time list to string, event id, event name}. The split is a boundary time, and the rows that
+ * start at or before it are expired. The boundary is swept forward to the current time whenever the two parts are
+ * asked for, which moves only the rows that started since the last sweep, and the number of rows on each side is
+ * kept as rows are added, removed and swept, so neither part is ever rebuilt.
+ * @author Group0694
+ * @version 3.0.0
+ */
+class EventTimeline implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final NavigableMap<Timestamp, List<String[]>> rows = new TreeMap<>();
+    // The rows that start at or before this time are expired, none are if it is null
+    private Timestamp sweptTo;
+    private int numExpired;
+    private int numUpcoming;
+
+    /**
+     * Adds the row of an event
+     * @param start The first start time of the event
+     * @param row A String array {event time list to string, event id, event name}
+     */
+    void add(Timestamp start, String[] row) {
+        rows.computeIfAbsent(start, k -> new ArrayList<>()).add(row);
+        if (isExpired(start)) numExpired++;
+        else numUpcoming++;
+    }
+
+    /**
+     * Removes the row of an event
+     * @param start The first start time of the event, as it was when the row was added
+     * @param eventId A String representation of event id
+     * @return true iff the row was removed
+     */
+    boolean remove(Timestamp start, String eventId) {
+        List<String[]> atTime = rows.get(start);
+        if (atTime == null || !atTime.removeIf(row -> row != null && eventId.equalsIgnoreCase(row[1]))) return false;
+        if (atTime.isEmpty()) rows.remove(start);
+        if (isExpired(start)) numExpired--;
+        else numUpcoming--;
+        return true;
+    }
+
+    /**
+     * Finds the row of an event
+     * @param start The first start time of the event
+     * @param eventId A String representation of event id
+     * @return The row, or null if there is none
+     */
+    String[] find(Timestamp start, String eventId) {
+        for (String[] row : rows.getOrDefault(start, Collections.emptyList())) {
+            if (row != null && eventId.equals(row[1])) return row;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the rows in order of start time, starting at a given time
+     * @param start The earliest start time, inclusive
+     * @return An iterator of the rows of each start time
+     */
+    Iterator<List<String[]>> startingAt(Timestamp start) {
+        return rows.tailMap(start, true).values().iterator();
+    }
+
+    /**
+     * Gets all rows in order of start time
+     * @return An iterator of the rows of each start time
+     */
+    Iterator<List<String[]>> all() {
+        return rows.values().iterator();
+    }
+
+    /**
+     * Gets the rows of the events that have started, after sweeping the boundary to the given time
+     * @param now The current time
+     * @return A view of the rows in order of start time, which follows later changes
+     */
+    Collection<String[]> getExpired(Timestamp now) {
+        sweep(now);
+        return new Part(true);
+    }
+
+    /**
+     * Gets the rows of the events that have not started, after sweeping the boundary to the given time
+     * @param now The current time
+     * @return A view of the rows in order of start time, which follows later changes
+     */
+    Collection<String[]> getUpcoming(Timestamp now) {
+        sweep(now);
+        return new Part(false);
+    }
+
+    private boolean isExpired(Timestamp start) {
+        return sweptTo != null && !start.after(sweptTo);
+    }
+
+    // Moves the rows between the old and the new boundary to the other side, the clock may also have gone back
+    private void sweep(Timestamp now) {
+        if (sweptTo != null && sweptTo.equals(now)) return;
+        boolean forward = sweptTo == null || now.after(sweptTo);
+        Collection<List<String[]>> passed = (sweptTo == null) ? rows.headMap(now, true).values()
+                : forward ? rows.subMap(sweptTo, false, now, true).values()
+                : rows.subMap(now, false, sweptTo, true).values();
+        int moved = 0;
+        for (List<String[]> atTime : passed) moved += atTime.size();
+        numExpired += forward ? moved : -moved;
+        numUpcoming -= forward ? moved : -moved;
+        sweptTo = now;
+    }
+
+    // One side of the boundary
+    private class Part extends AbstractCollection<String[]> {
+        private final boolean expired;
+
+        private Part(boolean expired) {
+            this.expired = expired;
+        }
+
+        @Override
+        public Iterator<String[]> iterator() {
+            Iterator<List<String[]>> atTimes = ((expired) ? rows.headMap(sweptTo, true)
+                    : (sweptTo == null) ? rows : rows.tailMap(sweptTo, false)).values().iterator();
+            return new Iterator<String[]>() {
+                private Iterator<String[]> atTime = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!atTime.hasNext() && atTimes.hasNext()) atTime = atTimes.next().iterator();
+                    return atTime.hasNext();
+                }
+
+                @Override
+                public String[] next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return atTime.next();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return (expired) ? numExpired : numUpcoming;
+        }
+    }
+}
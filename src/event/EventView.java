@@ -0,0 +1,129 @@
+package event;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * A read only copy of what an event looks like at one moment: its time slots, room, hosts, VIP status, capacity and
+ * description. A view is made once when the event changes and never changes itself, so it is handed out as it is
+ * and can be read by any thread while the event goes on changing.
+ * @author Group0694
+ * @version 3.0.0
+ */
+final class EventView {
+    // Orders the time slots of an event, where two overlapping slots are the same
+    private static final Comparator<Timestamp[]> BY_TIME = (Comparator<Timestamp[]> & Serializable)
+            (Timestamp[] t1, Timestamp[] t2) -> {
+                if (!t1[1].after(t2[0]))
+                    return -1;
+                if (!t2[1].after(t1[0]))
+                    return 1;
+                return 0;
+            };
+
+    private final String id;
+    private final String name;
+    private final SortedSet<Timestamp[]> duration;
+    private final String room;
+    private final List<String> hosts;
+    private final int numSpeakers;
+    private final boolean isVIP;
+    private final int capacity;
+    private final String description;
+
+    /**
+     * Makes the view of an event as it is now
+     * @param event The event to be copied
+     */
+    EventView(Event event) {
+        this.id = event.getId();
+        this.name = event.getName();
+        SortedSet<Timestamp[]> slots = new TreeSet<>(BY_TIME);
+        for (Iterator<Timestamp[]> t = event.getDuration(); t.hasNext(); ) {
+            Timestamp[] slot = t.next();
+            slots.add(new Timestamp[]{slot[0], slot[1]});
+        }
+        this.duration = Collections.unmodifiableSortedSet(slots);
+        this.room = event.getLocation();
+        List<String> names = new ArrayList<>();
+        event.getHosts().forEachRemaining(names::add);
+        this.hosts = Collections.unmodifiableList(names);
+        this.numSpeakers = event.getNumSpeaker();
+        this.isVIP = event.isVIP();
+        this.capacity = event.getCapacity();
+        this.description = event.toString();
+    }
+
+    /**
+     * Gets the event id
+     * @return A String representation of event id
+     */
+    String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the event name
+     * @return A String representation of event name
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the time slots of the event
+     * @return A sorted set of the time intervals in ascending order, which cannot be changed
+     */
+    SortedSet<Timestamp[]> getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the room of the event
+     * @return A String representation of the room name
+     */
+    String getRoom() {
+        return room;
+    }
+
+    /**
+     * Gets the hosts of the event
+     * @return A list of the usernames of the hosts, which cannot be changed
+     */
+    List<String> getHosts() {
+        return hosts;
+    }
+
+    /**
+     * Gets the number of speakers the event requires
+     * @return The number of speakers, -1 if it takes any number of them
+     */
+    int getNumSpeakers() {
+        return numSpeakers;
+    }
+
+    /**
+     * Checks if the event is VIP only
+     * @return true iff the event is VIP only
+     */
+    boolean isVIP() {
+        return isVIP;
+    }
+
+    /**
+     * Gets the capacity of the event
+     * @return The max number of people who can attend the event
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the description of the event, the same as its toString
+     * @return A String representation of the name, time, room, capacity and description of the event
+     */
+    String getDescription() {
+        return description;
+    }
+}
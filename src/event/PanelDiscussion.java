@@ -44,6 +44,15 @@ class PanelDiscussion extends Event  {
         return true;
     }
 
+    /**
+     * Puts the speakers read back from a file into this PanelDiscussion, without notifying the observers
+     * @param speakers A collection of EventWithSpecObserver instances, represents the speakers of PanelDiscussion
+     */
+    @Override
+    protected void restoreHosts(List<EventWithSpecObserver> speakers) {
+        host.addAll(speakers);
+    }
+
     private List<String> getHostNames() {
         List<String> o = new ArrayList<>();
         for (EventObserver item : host) {
@@ -38,6 +38,14 @@ class Party extends Event  {
         return false;
     }
 
+    /**
+     * Puts the hosts read back from a file into this party, which has none
+     * @param speakers A collection of EventWithSpecObserver instances, always empty for party
+     */
+    @Override
+    protected void restoreHosts(List<EventWithSpecObserver> speakers) {
+    }
+
     /**
      * Gets the speakers of this event, none in this case
      * @return an empty Iterator, as Party has no speakers
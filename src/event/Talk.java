@@ -44,6 +44,15 @@ class Talk extends Event {
         return true;
     }
 
+    /**
+     * Puts the speaker read back from a file into this talk, without notifying the speaker
+     * @param speakers A collection of EventWithSpecObserver, contains the only speaker of this talk
+     */
+    @Override
+    protected void restoreHosts(List<EventWithSpecObserver> speakers) {
+        if (speakers.size() == 1) this.speaker = speakers.get(0);
+    }
+
     /**
      * Shows the speaker of this talk.
      * @return An iterator that only contains the one speaker for this talk
@@ -51,7 +60,7 @@ class Talk extends Event {
     @Override
     protected Iterator<String> getHosts() {
         List<String> speaker = new ArrayList<>();
-        speaker.add(this.speaker.getName());
+        if (this.speaker != null) speaker.add(this.speaker.getName());
         return speaker.iterator();
     }
 
@@ -81,7 +90,7 @@ class Talk extends Event {
      */
     @Override
     public String toString(){
-        return super.toString() + "Host: " + speaker.getName();
+        return super.toString() + "Host: " + ((speaker == null) ? "" : speaker.getName());
     }
 
     /**
@@ -89,7 +98,9 @@ class Talk extends Event {
      */
     @Override
     protected void notifyHostAdd() {
-        this.speaker.updateAddWithSpec(getId(), this.duration);
+        if (this.speaker != null) {
+            this.speaker.updateAddWithSpec(getId(), this.duration);
+        }
     }
 
     /**
@@ -18,6 +18,8 @@ abstract class Message implements Serializable {
     private final List<String> receiverUsername;
     private final Timestamp time;
     private final String id;
+    // The version of the manager when this message was last changed, 0 if it is unchanged since it was read
+    private transient long epoch;
 
     /**
      * Constructs a Message object
@@ -73,4 +75,20 @@ abstract class Message implements Serializable {
      * @return the string information of message without receiver.(Receiver view of message)
      */
     protected abstract String toStringReceived(String username);
+
+    /**
+     * Gets the modification epoch of this message
+     * @return The version of the manager when this message was last changed, 0 if it is unchanged since it was read
+     */
+    long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Sets the modification epoch of this message, called by the manager whenever it is changed
+     * @param epoch The current version of the manager
+     */
+    void setEpoch(long epoch) {
+        this.epoch = epoch;
+    }
 }
@@ -0,0 +1,209 @@
+package message;
+
+import data.BinaryReader;
+import data.BinaryWriter;
+import data.DeltaCodec;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Codec of MessagingManager. The messages themselves are in the segments of a MessageLog, so only its index is
+ * written, as the id and location of each message, followed by the end of the segments. Messages that are kept in
+ * memory are written as one record each with their id, sender, receivers, time, subject and content.
+ * A delta holds the same for the messages sent since the last checkpoint, since messages are never changed. The
+ * messages appended to the segments after the last ser file or delta are cut off, and the saved ones among them are
+ * appended again when the journal is replayed.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class MessageCodec implements DeltaCodec<MessagingManager> {
+    private final String logPath;
+
+    /**
+     * Creates a MessageCodec that keeps messages in the segments of the given path
+     * @param logPath The location and name of the segments, without the segment number
+     */
+    public MessageCodec(String logPath) {
+        this.logPath = logPath;
+    }
+
+    /**
+     * Creates an empty MessagingManager, used when there is no ser file to be read. The messages already in the
+     * segments are all indexed again.
+     * @return The MessagingManager that is created
+     */
+    public MessagingManager createManager() {
+        MessagingManager manager = new MessagingManager();
+        openLog(manager);
+        return manager;
+    }
+
+    /**
+     * Writes all messages of the given MessagingManager
+     * @param manager The MessagingManager to be written
+     * @param out The BinaryWriter the MessagingManager is written to
+     */
+    @Override
+    public void write(MessagingManager manager, BinaryWriter out) {
+        out.writeVarInt(manager.getNumMessage());
+        List<Message> messages = toList(manager.getMessages());
+        out.writeVarInt(messages.size());
+        // Only word messages exist for now, a type would be written first once there are more
+        for (Message message : messages) writeMessage((WordMessage) message, out);
+
+        // Without the index, the segments are scanned from the start when this is read
+        writeLocations(manager, manager.getLogIndex(true), out);
+    }
+
+    /**
+     * Reads a MessagingManager written by write, with the messages appended to the segments after it was written
+     * @param in The BinaryReader the MessagingManager is read from
+     * @return The MessagingManager that is read
+     * @throws IOException if the data is damaged, or the segments cannot be read
+     */
+    @Override
+    public MessagingManager read(BinaryReader in) throws IOException {
+        MessagingManager manager = new MessagingManager();
+        manager.restoreNumMessage(in.readVarInt());
+        int numMessages = in.readVarInt();
+        for (int i = 0; i < numMessages; i++) manager.restoreMessage(readMessage(in));
+
+        MessageLog log = new MessageLog(logPath);
+        manager.restoreLog(log, 0);
+        try {
+            readLocations(manager, in);
+        } catch (IOException ex) {
+            // This manager is not used, the segments are opened again for the one that is
+            log.close();
+            throw ex;
+        }
+        return manager;
+    }
+
+    /**
+     * Migrates the MessagingManager of a legacy ser file. Its messages are appended to the segments, unless they
+     * are there already from an earlier migration of the same file.
+     * @param legacy The MessagingManager read by LegacyInputStream
+     * @return The MessagingManager with the same messages
+     * @throws IOException if legacy is not a MessagingManager
+     */
+    @Override
+    public MessagingManager migrate(Object legacy) throws IOException {
+        if (!(legacy instanceof data.legacy.MessagingManager)) throw new StreamCorruptedException("not messages");
+        MessagingManager manager = new MessagingManager();
+        // Only word messages exist for now
+        for (data.legacy.Message old : ((data.legacy.MessagingManager) legacy).getMessages()) {
+            data.legacy.WordMessage word = (data.legacy.WordMessage) old;
+            List<String> receivers = new ArrayList<>(word.getReceiverUsername());
+            manager.restoreMessage(new WordMessage(word.getSenderUsername(), receivers, word.getId(), word.getTime(),
+                    word.getSubject(), word.getContent()));
+        }
+        manager.restoreNumMessage(((data.legacy.MessagingManager) legacy).getNumMessage());
+        openLog(manager);
+        return manager;
+    }
+
+    /**
+     * Gets the current modification epoch of the given MessagingManager
+     * @param manager The MessagingManager
+     * @return The number of messages sent through the MessagingManager since it was created or read
+     */
+    @Override
+    public long getEpoch(MessagingManager manager) {
+        return manager.getVersion();
+    }
+
+    /**
+     * Writes the messages of the given MessagingManager sent after the given epoch
+     * @param manager The MessagingManager to be written
+     * @param sinceEpoch The modification epoch of the last checkpoint
+     * @param out The BinaryWriter the new messages are written to
+     */
+    @Override
+    public void writeDelta(MessagingManager manager, long sinceEpoch, BinaryWriter out) {
+        out.writeVarInt(manager.getNumMessage());
+        List<Message> messages = toList(manager.getMessagesChangedSince(sinceEpoch));
+        out.writeVarInt(messages.size());
+        for (Message message : messages) writeMessage((WordMessage) message, out);
+        // Without the locations, the segments are scanned from the end in the ser file or the delta before this one
+        writeLocations(manager, manager.getLogIndex(false), out);
+    }
+
+    /**
+     * Reads the messages written by writeDelta into the given MessagingManager
+     * @param manager The MessagingManager read from the snapshot and the deltas before this one
+     * @param in The BinaryReader the new messages are read from
+     * @throws IOException if the data is damaged
+     */
+    @Override
+    public void readDelta(MessagingManager manager, BinaryReader in) throws IOException {
+        manager.restoreNumMessage(in.readVarInt());
+        int numMessages = in.readVarInt();
+        for (int i = 0; i < numMessages; i++) manager.restoreMessage(readMessage(in));
+        readLocations(manager, in);
+    }
+
+    private void openLog(MessagingManager manager) {
+        try {
+            manager.restoreLog(new MessageLog(logPath), 0);
+        } catch (IOException ex) {
+            // Without segments, the messages are kept in memory and written into the ser file
+        }
+    }
+
+    // The journal is emptied once this is durable, so getLogIndex makes the segments durable before
+    private void writeLocations(MessagingManager manager, Map<String, Long> locations, BinaryWriter out) {
+        if (locations == null) return;
+        out.writeVarInt(locations.size());
+        for (Map.Entry<String, Long> location : locations.entrySet()) {
+            out.writeId('M', location.getKey());
+            out.writeVarLong(location.getValue());
+        }
+        out.writeVarLong(manager.getLogEnd());
+    }
+
+    private void readLocations(MessagingManager manager, BinaryReader in) throws IOException {
+        // Files written before there were segments end here
+        if (!in.hasMore()) return;
+        Map<String, Long> locations = new HashMap<>();
+        int numLocations = in.readVarInt();
+        for (int i = 0; i < numLocations; i++) locations.put(in.readId('M'), in.readVarLong());
+        manager.restoreLogLocations(locations, in.readVarLong());
+    }
+
+    private void writeMessage(WordMessage message, BinaryWriter out) {
+        out.beginRecord();
+        out.writeId('M', message.getId());
+        out.writeSymbol(message.getSenderUsername());
+        List<String> receivers = toList(message.getReceiverUsername());
+        out.writeVarInt(receivers.size());
+        for (String receiver : receivers) out.writeSymbol(receiver);
+        out.writeTime(message.getTime());
+        out.writeString(message.getSubject());
+        out.writeString(message.getContent());
+        out.endRecord();
+    }
+
+    private WordMessage readMessage(BinaryReader in) throws IOException {
+        int end = in.beginRecord();
+        String id = in.readId('M');
+        String sender = in.readSymbol();
+        List<String> receivers = new ArrayList<>();
+        int numReceivers = in.readVarInt();
+        for (int i = 0; i < numReceivers; i++) receivers.add(in.readSymbol());
+        WordMessage message = new WordMessage(sender, receivers, id, in.readTime(), in.readString(), in.readString());
+        in.endRecord(end);
+        return message;
+    }
+
+    private <E> List<E> toList(Iterator<E> iterator) {
+        List<E> lst = new ArrayList<>();
+        iterator.forEachRemaining(lst::add);
+        return lst;
+    }
+}
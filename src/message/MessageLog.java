@@ -0,0 +1,372 @@
+package message;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The sent messages, kept in append-only segment files "fileName.seg0", "fileName.seg1"... instead of in memory.
+ * Each sent message is appended as one length-prefixed, checksummed record, and only an index from message id to
+ * the segment and offset of its record is kept in memory, so a message is only read when it is shown.
+ * Once a segment is full it is sealed and read through a read-only channel opened when it is first read, the newest
+ * one is read through its own channel. Segments are read with positional reads rather than mapped, since a mapped
+ * file cannot be deleted on every platform until the mapping is collected, and truncate deletes segments.
+ * Records are never moved, but everything in a message except its id and time can be erased in place, such as for
+ * the messages of a deleted account.
+ * @author Group0694
+ * @version 3.0.0
+ */
+class MessageLog {
+    // Size a segment may grow to before it is sealed and a new one is started
+    static final int SEGMENT_BYTES = 4 * 1024 * 1024;
+    private static final int HEADER_BYTES = 8;
+
+    private final String path;
+    private final List<FileChannel> sealed = new ArrayList<>();
+    private final Map<String, Long> index = new HashMap<>();
+    private FileChannel active;
+    private long activeLength;
+
+    /**
+     * Opens the segments of the given path, and creates the first one if there are none
+     * @param path The location and name of the segments, without the segment number
+     * @throws IOException if a segment cannot be opened
+     */
+    MessageLog(String path) throws IOException {
+        this.path = path;
+        int numSegments = 0;
+        while (Files.exists(segmentPath(numSegments))) numSegments++;
+        for (int i = 0; i < numSegments - 1; i++) sealed.add(null);
+        active = FileChannel.open(segmentPath(Math.max(numSegments - 1, 0)), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeLength = active.size();
+    }
+
+    /**
+     * Puts the location of a message read by MessageCodec into the index
+     * @param messageId A String representation of the message id
+     * @param location The location returned by append
+     */
+    synchronized void restoreLocation(String messageId, long location) {
+        index.put(messageId, location);
+    }
+
+    /**
+     * Cuts the segments off at the given location. The records after it were appended in sessions that were not
+     * saved, and the ones that were saved through the journal are appended again when the journal is replayed.
+     * Called before any record is read, so the segments that are deleted are not open yet.
+     * @param end The location returned by getEnd when the index was written
+     * @throws IOException if a segment cannot be cut off or deleted
+     */
+    synchronized void truncate(long end) throws IOException {
+        int segment = segmentOf(end);
+        // The segments do not reach the end, there is nothing to cut off
+        if (segment > sealed.size() || (segment == sealed.size() && offsetOf(end) >= activeLength)) return;
+        if (segment < sealed.size()) {
+            active.close();
+            for (int i = segment; i < sealed.size(); i++) {
+                if (sealed.get(i) != null) sealed.get(i).close();
+            }
+            for (int i = sealed.size(); i > segment; i--) Files.deleteIfExists(segmentPath(i));
+            sealed.subList(segment, sealed.size()).clear();
+            active = FileChannel.open(segmentPath(segment), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        activeLength = Math.min(offsetOf(end), active.size());
+        active.truncate(activeLength);
+        index.values().removeIf(location -> location >= end);
+    }
+
+    /**
+     * Indexes every record from the given location to the end of the segments, the ones appended after the index
+     * was written. A torn record at the end, left by a crash while it was appended, is cut off.
+     * @param from The location returned by getEnd when the index was written, 0 for the start of the segments
+     * @return The ids of the messages that are indexed
+     * @throws IOException if a segment cannot be read
+     */
+    synchronized List<String> recover(long from) throws IOException {
+        List<String> recovered = new ArrayList<>();
+        for (int segment = segmentOf(from); segment <= sealed.size(); segment++) {
+            long offset = (segment == segmentOf(from)) ? offsetOf(from) : 0;
+            long length = length(segment);
+            while (offset < length) {
+                ByteBuffer body = readBody(segment, offset, length);
+                if (body == null) break;
+                String messageId = readString(body);
+                index.put(messageId, locationOf(segment, offset));
+                recovered.add(messageId);
+                offset += HEADER_BYTES + body.limit();
+            }
+            if (segment == sealed.size() && offset < activeLength) {
+                active.truncate(offset);
+                activeLength = offset;
+            }
+        }
+        return recovered;
+    }
+
+    /**
+     * Appends a sent message to the newest segment, sealing it first if it is full. The record is only written to
+     * the file, it is durable once force is called.
+     * @param message The message to be appended
+     * @throws IOException if the segment cannot be written
+     */
+    synchronized void append(WordMessage message) throws IOException {
+        byte[] record = encode(message);
+        if (activeLength > 0 && activeLength + record.length > SEGMENT_BYTES) seal();
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        long position = activeLength;
+        while (buffer.hasRemaining()) position += active.write(buffer, position);
+        index.put(message.getId(), locationOf(sealed.size(), activeLength));
+        activeLength = position;
+    }
+
+    /**
+     * Erases the sender, receivers, subject and content of a message in its record, which keeps its length so no
+     * other record moves. Only the id and send time are left.
+     * The message stays in the index, so it is not appended again when the journal is replayed. The change is
+     * durable once force is called, or right away in a sealed segment.
+     * @param messageId A String representation of the message id
+     * @return true iff the message is in the segments and its record is erased
+     * @throws IOException if the segment cannot be read or written
+     */
+    synchronized boolean erase(String messageId) throws IOException {
+        Long location = index.get(messageId);
+        if (location == null) return false;
+        int segment = segmentOf(location);
+        long offset = offsetOf(location);
+        ByteBuffer body = readBody(segment, offset, length(segment));
+        if (body == null) return false;
+        WordMessage message = decode(body.duplicate());
+        WordMessage blank = new WordMessage("", new ArrayList<>(), messageId, message.getTime(), "", "");
+        // The rest of the body is zeros, which are never read
+        byte[] erased = Arrays.copyOf(encodeBody(blank), body.limit());
+        ByteBuffer record = ByteBuffer.wrap(toRecord(erased));
+        if (segment == sealed.size()) {
+            while (record.hasRemaining()) active.write(record, offset + record.position());
+            return true;
+        }
+        // The read-only channel of the sealed segment sees the change, as it reads the same file
+        try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.WRITE)) {
+            while (record.hasRemaining()) channel.write(record, offset + record.position());
+            channel.force(true);
+        }
+        return true;
+    }
+
+    /**
+     * Reads a message from its record
+     * @param messageId A String representation of the message id
+     * @return The message that is read, or null if there is no such message or its record cannot be read
+     */
+    synchronized WordMessage read(String messageId) {
+        Long location = index.get(messageId);
+        if (location == null) return null;
+        int segment = segmentOf(location);
+        try {
+            ByteBuffer body = readBody(segment, offsetOf(location), length(segment));
+            return (body == null) ? null : decode(body);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if a message is in the segments
+     * @param messageId A String representation of the message id
+     * @return true iff the message is in the index
+     */
+    synchronized boolean contains(String messageId) {
+        return index.containsKey(messageId);
+    }
+
+    /**
+     * Gets a copy of the index, written by MessageCodec so the segments are not scanned on the next startup
+     * @return A map from message id to the location of its record
+     */
+    synchronized Map<String, Long> getIndex() {
+        return new HashMap<>(index);
+    }
+
+    /**
+     * Gets the locations of the given messages
+     * @param messageIds The ids of messages in the index
+     * @return A map from message id to the location of its record
+     */
+    synchronized Map<String, Long> getLocations(List<String> messageIds) {
+        Map<String, Long> locations = new HashMap<>();
+        for (String messageId : messageIds) {
+            Long location = index.get(messageId);
+            if (location != null) locations.put(messageId, location);
+        }
+        return locations;
+    }
+
+    /**
+     * Gets the location right after the last record
+     * @return The location the next record will be appended at, unless the segment is sealed first
+     */
+    synchronized long getEnd() {
+        return locationOf(sealed.size(), activeLength);
+    }
+
+    /**
+     * Makes every appended record durable
+     * @throws IOException if the segment cannot be written
+     */
+    synchronized void force() throws IOException {
+        active.force(true);
+    }
+
+    /**
+     * Closes the segments, used when the MessagingManager this was opened for is not used after all
+     */
+    synchronized void close() {
+        try {
+            active.close();
+            for (FileChannel channel : sealed) {
+                if (channel != null) channel.close();
+            }
+        } catch (IOException ex) {
+            // Closing only gives the files back, nothing is lost if it fails
+        }
+    }
+
+    private void seal() throws IOException {
+        active.force(true);
+        active.close();
+        sealed.add(null);
+        active = FileChannel.open(segmentPath(sealed.size()), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        activeLength = 0;
+    }
+
+    private FileChannel channel(int segment) throws IOException {
+        if (segment == sealed.size()) return active;
+        if (sealed.get(segment) == null) {
+            sealed.set(segment, FileChannel.open(segmentPath(segment), StandardOpenOption.READ));
+        }
+        return sealed.get(segment);
+    }
+
+    // A sealed segment never changes length, the newest one may have records past its length that were cut off
+    private long length(int segment) throws IOException {
+        return (segment < sealed.size()) ? channel(segment).size() : activeLength;
+    }
+
+    // Returns null at the end of the segment or at a torn or corrupted record
+    private ByteBuffer readBody(int segment, long offset, long length) throws IOException {
+        if (offset + HEADER_BYTES > length) return null;
+        ByteBuffer header = read(segment, offset, HEADER_BYTES);
+        int bodyLength = header.getInt();
+        int checksum = header.getInt();
+        if (bodyLength <= 0 || offset + HEADER_BYTES + bodyLength > length) return null;
+        ByteBuffer body = read(segment, offset + HEADER_BYTES, bodyLength);
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        return ((int) crc.getValue() == checksum) ? body : null;
+    }
+
+    private ByteBuffer read(int segment, long offset, int length) throws IOException {
+        FileChannel channel = channel(segment);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) throw new EOFException();
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // Record layout: [int payload length][int crc32 of payload][payload]
+    // Payload layout: id, sender, [int number of receivers][receivers], [long send time millis], subject, content,
+    // each string as [int byte length][UTF-8 bytes]
+    private byte[] encode(WordMessage message) {
+        return toRecord(encodeBody(message));
+    }
+
+    private byte[] encodeBody(WordMessage message) {
+        try {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            writeString(payload, message.getId());
+            writeString(payload, message.getSenderUsername());
+            List<String> receivers = new ArrayList<>();
+            message.getReceiverUsername().forEachRemaining(receivers::add);
+            payload.writeInt(receivers.size());
+            for (String receiver : receivers) writeString(payload, receiver);
+            payload.writeLong(message.getTime().getTime());
+            writeString(payload, message.getSubject());
+            writeString(payload, message.getContent());
+            return payloadBytes.toByteArray();
+        } catch (IOException ex) {
+            // Writing to a byte array never fails
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private byte[] toRecord(byte[] body) {
+        try {
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(body.length + HEADER_BYTES);
+            DataOutputStream record = new DataOutputStream(recordBytes);
+            record.writeInt(body.length);
+            record.writeInt((int) crc.getValue());
+            record.write(body);
+            return recordBytes.toByteArray();
+        } catch (IOException ex) {
+            // Writing to a byte array never fails
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private WordMessage decode(ByteBuffer body) {
+        String messageId = readString(body);
+        String sender = readString(body);
+        List<String> receivers = new ArrayList<>();
+        int numReceivers = body.getInt();
+        for (int i = 0; i < numReceivers; i++) receivers.add(readString(body));
+        Timestamp time = new Timestamp(body.getLong());
+        return new WordMessage(sender, receivers, messageId, time, readString(body), readString(body));
+    }
+
+    private void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Path segmentPath(int segment) {
+        return Paths.get(path + ".seg" + segment);
+    }
+
+    // A location is the segment number in the high 32 bits and the offset in it in the low 32 bits
+    private static long locationOf(int segment, long offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    private static int segmentOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static long offsetOf(long location) {
+        return location & 0xFFFFFFFFL;
+    }
+}
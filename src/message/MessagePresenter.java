@@ -133,6 +133,15 @@ class MessagePresenter extends MainPresenter {
         super.printActionMessage(action + " the Message: " + input);
     }
 
+    /**
+     * Informs the user how many messages from an account are archived
+     * @param sender A String representation of the sender username
+     * @param numArchived The number of messages archived
+     */
+    void printArchivedFrom(String sender, int numArchived) {
+        super.printActionMessage("Archive " + numArchived + " message(s) from " + sender);
+    }
+
     /**
      * Informs the user that the user is not a current speaker
      */
@@ -193,4 +202,4 @@ class MessagePresenter extends MainPresenter {
     void accountDoesNotExist() {
         super.printErrorMessage("User does not exist");
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
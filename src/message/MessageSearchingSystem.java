@@ -2,6 +2,7 @@ package message;
 
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Scanner;
 import account.AccountManager;
 
@@ -76,9 +77,8 @@ public class MessageSearchingSystem {
         presenter.printAllMessages(messages.getReceivedMessages(messageUnreadId, sorter),
                 "The unread message:",
                 "All messages have been reviewed");
-        messageUnreadId = accounts.getMessageMap(username, unreadKey);
-
-        updateMessageStatus(messageUnreadId, username, receivedKey, unreadKey);
+        // Every unread message is shown, so all of them are read now
+        accounts.markAllRead(username);
     }
 
     /**
@@ -137,19 +137,26 @@ public class MessageSearchingSystem {
         presenter.printAllMessages(messages.getReceivedMessagesFromSpecificAccount(sender, messageUnreadId, sorter),
                 "The message unread from " + sender + " are:",
                 "You have reviewed all messages from " + sender);
-        messageUnreadId = accounts.getMessageMap(currUsername, unreadKey);
-        updateMessageStatus(messageUnreadId, currUsername, receivedKey, unreadKey);
+        // Only the unread messages from this sender are shown, so the others stay unread
+        accounts.markRead(currUsername,
+                messages.getMessageIdsFrom(sender, accounts.getMessageMap(currUsername, unreadKey)));
     }
 
-    private void updateMessageStatus(Iterator<String> messageUnreadId, String username, String receivedKey,
-                                     String unreadKey) {
-        String id;
-        while (messageUnreadId.hasNext()) {
-            id = messageUnreadId.next();
-            messageUnreadId.remove();
-            accounts.removeMessageMap(username, unreadKey, id);
-            accounts.updateMessageMap(username, receivedKey, id);
+    /**
+     * Archives every message received from a specific account
+     * @param currUsername A String representation of current user's username
+     * @param receivedKey A String representation of received message key
+     * @param unreadKey A String representation of unread message key
+     */
+    public void archiveMessagesFromSpecificAccount(String currUsername, String receivedKey, String unreadKey) {
+        String sender = this.inputUsername(false);
+        if (sender == null) {
+            presenter.accountDoesNotExist();
+            return;
         }
+        List<String> messageIds = messages.getMessageIdsFrom(sender, accounts.getMessageMap(currUsername, unreadKey));
+        messageIds.addAll(messages.getMessageIdsFrom(sender, accounts.getMessageMap(currUsername, receivedKey)));
+        presenter.printArchivedFrom(sender, accounts.archiveMessages(currUsername, messageIds));
     }
 
     //view a sent message from a specific user
@@ -108,6 +108,27 @@ public class MessageSendingSystem {
         }
     }
 
+    /**
+     * Withdraws the given messages from the mailboxes of their receivers, such as the messages sent by an account that
+     * is deleted, then erases everything in them but their id and time. The messages are grouped by receiver first, so
+     * every mailbox is changed once.
+     * @param messageIds A list of the ids of the messages to be withdrawn
+     */
+    public void withdrawMessages(List<String> messageIds) {
+        Map<String, List<String>> byReceiver = new LinkedHashMap<>();
+        for (String messageId : messageIds) {
+            Iterator<String> receivers = messages.getReceivers(messageId);
+            if (receivers == null) continue;
+            while (receivers.hasNext()) {
+                byReceiver.computeIfAbsent(receivers.next(), k -> new ArrayList<>()).add(messageId);
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : byReceiver.entrySet()) {
+            accounts.removeMessages(entry.getKey(), entry.getValue());
+        }
+        if (!messageIds.isEmpty()) messages.eraseMessages(messageIds);
+    }
+
     //send message to all speakers, valid for organizer
 
     /**
@@ -122,12 +143,13 @@ public class MessageSendingSystem {
     public void sendMessageToSpeakers (String organizerName) {
         if (!messagable(organizerName)) return;
         Scanner sc = new Scanner(System.in);
-        List<String> speakers = accounts.getUsernameForType("Speaker");
+        Collection<String> speakers = accounts.getUsernameForType("Speaker");
         if(speakers.isEmpty()){
             presenter.noSpeakers();
             return;
         }
-        sendMessage(organizerName, sc, speakers);
+        // The message keeps its own list of receivers
+        sendMessage(organizerName, sc, new ArrayList<>(speakers));
     }
 
     //send message to all attendees, valid for organizer
@@ -144,12 +166,12 @@ public class MessageSendingSystem {
     public void sendMessageToAttendees (String organizerName) {
         if (!messagable(organizerName)) return;
         Scanner sc = new Scanner(System.in);
-        List<String> attendees = accounts.getUsernameForType("Attendee");
+        Collection<String> attendees = accounts.getUsernameForType("Attendee");
         if(attendees.isEmpty()){
             presenter.noAttendees();
             return;
         }
-        sendMessage(organizerName, sc, attendees);
+        sendMessage(organizerName, sc, new ArrayList<>(attendees));
     }
 
     //send message to all attendees in some events, valid for speaker
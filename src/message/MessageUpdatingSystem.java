@@ -32,24 +32,8 @@ public class MessageUpdatingSystem {
         Scanner c = new Scanner(System.in);
         presenter.askMessageID();
         String messageId = c.nextLine();
-        // Is unread message (however when putting back it should be in received list
-        if (accounts.isValidMessageId(currUsername, messageId, MessageStatus.UNREAD.toString())) {
-            String newMessageId = "0" + messageId; // 0 means it's in received list
-            // Remove from unread list and update to archive list
-            updateMessageStatus(currUsername, messageId, newMessageId, MessageStatus.ARCHIVE.toString(),
-                    MessageStatus.UNREAD.toString());
-            presenter.printActionMessageId(messageId, "Archive");
-        } else if (accounts.isValidMessageId(currUsername, messageId, MessageStatus.RECEIVED.toString())) {
-            // Received Status
-            String newMessageId = "0" + messageId;
-            updateMessageStatus(currUsername, messageId, newMessageId, MessageStatus.ARCHIVE.toString(),
-                    MessageStatus.RECEIVED.toString());
-            presenter.printActionMessageId(messageId, "Archive");
-        } else if (accounts.isValidMessageId(currUsername, messageId, MessageStatus.SENT.toString())) {
-            // Sent Status
-            String newMessageId = "1" + messageId;
-            updateMessageStatus(currUsername, messageId, newMessageId, MessageStatus.ARCHIVE.toString(),
-                    MessageStatus.SENT.toString());
+        // An unread message is put back in the received list when it is unarchived
+        if (accounts.archiveMessage(currUsername, messageId)) {
             presenter.printActionMessageId(messageId, "Archive");
         } else {
             presenter.printInvalidMessageId(messageId);
@@ -64,18 +48,8 @@ public class MessageUpdatingSystem {
         Scanner c = new Scanner(System.in);
         presenter.askMessageID();
         String messageId = c.nextLine();
-        // Put in received message Id
-        String newMessageId = "0" + messageId;
-        if (accounts.isValidMessageId(currUsername, newMessageId, MessageStatus.ARCHIVE.toString())) {
-            updateMessageStatus(currUsername, newMessageId, messageId, MessageStatus.RECEIVED.toString(),
-                    MessageStatus.ARCHIVE.toString());
-            presenter.printActionMessageId(messageId, "Unarchive");
-            return;
-        }
-        newMessageId = "1" + messageId;
-        if (accounts.isValidMessageId(currUsername, newMessageId, MessageStatus.ARCHIVE.toString())) {
-            updateMessageStatus(currUsername, newMessageId, messageId, MessageStatus.SENT.toString(),
-                    MessageStatus.ARCHIVE.toString());
+        // Put back in the received or sent list, wherever it was archived from
+        if (accounts.unarchiveMessage(currUsername, messageId)) {
             presenter.printActionMessageId(messageId, "Unarchive");
             return;
         }
@@ -90,9 +64,7 @@ public class MessageUpdatingSystem {
         Scanner c = new Scanner(System.in);
         presenter.askMessageID();
         String messageId = c.nextLine();
-        if (accounts.isValidMessageId(currUsername, messageId, MessageStatus.RECEIVED.toString())) {
-            updateMessageStatus(currUsername, messageId, messageId, MessageStatus.UNREAD.toString(),
-                    MessageStatus.RECEIVED.toString());
+        if (accounts.markUnread(currUsername, messageId)) {
             presenter.printActionMessageId(messageId, "Unread");
         } else {
             presenter.printInvalidMessageId(messageId);
@@ -118,9 +90,4 @@ public class MessageUpdatingSystem {
         }
         presenter.printInvalidMessageId(messageId);
     }
-
-    private void updateMessageStatus(String username, String messageId, String newMessageId, String updateKey, String removeKey) {
-        accounts.removeMessageMap(username, removeKey, messageId);
-        accounts.updateMessageMap(username, updateKey, newMessageId);
-    }
 }
@@ -1,21 +1,42 @@
 package message;
 
+import data.Journaled;
+import data.MutationLog;
+
+import java.io.IOException;
 import java.io.Serializable;
 import java.sql.Timestamp;
 import java.util.*;
 
 /**
  * An use case class of messaging feature.
- * Stores all sent messages in a HashMap, which has username of all users map to their sent messages.
+ * Stores all sent messages in a MessageLog, which keeps them in segment files and reads a message only when it is
+ * shown. Without a MessageLog, or if a message cannot be appended to it, messages are kept in a HashMap instead.
  * Contains constructor of Message, this class should be used to construct new message.
  * Methods in this class contains all the operations to a message.
  * Input information is given by Message controller system.
+ * Every sent message is recorded into the attached MutationLog, if there is one.
  * @author Group0694
  * @version 2.0.0
  */
-public class MessagingManager implements Serializable {
+public class MessagingManager implements Serializable, Journaled {
     private final Map<String, Message> messageMap = new HashMap<>();
     private int numMessage = 0;
+    private transient MutationLog mutationLog;
+    // Number of mutations since this manager was created or read, the manager is unchanged while it stays the same
+    private transient long version;
+    // The segments the sent messages are appended to, null if every message is kept in messageMap
+    private transient MessageLog log;
+    // The location in the segments after which messages are not indexed yet, -1 once they are
+    private transient long scanFrom = -1;
+    // true iff scanFrom is the end of the segments when the ser file or a delta was written
+    private transient boolean endSaved;
+    // The ids of the messages appended to the segments since this manager was last written by MessageCodec
+    private transient List<String> appended = new ArrayList<>();
+    // The ids of the messages to be erased in the MessageLog when this manager is next written by MessageCodec
+    private transient List<String> erasing = new ArrayList<>();
+    // true iff messages were erased since this manager was read, their text is in the journal until a checkpoint
+    private transient boolean erased;
     // username map a list of message sent
 
     /**
@@ -79,12 +100,63 @@ public class MessagingManager implements Serializable {
         return lst;
     }
 
+    /**
+     * Gets the ids of the messages sent by a specific account
+     * @param senderUsername A String representation of the sender username
+     * @param messageIds An iterator of message ids of the current user
+     * @return A list of the ids of the messages sent by the sender, in the given order
+     */
+    List<String> getMessageIdsFrom(String senderUsername, Iterator<String> messageIds) {
+        List<String> lst = new ArrayList<>();
+        while (messageIds.hasNext()) {
+            String id = messageIds.next();
+            Message m = getMessage(id);
+            if (m != null && m.getSenderUsername().equals(senderUsername)) lst.add(id);
+        }
+        return lst;
+    }
+
+    /**
+     * Gets the receivers of a message
+     * @param messageId A String representation of the message id
+     * @return An iterator of the usernames of the receivers, or null if there is no such message
+     */
+    Iterator<String> getReceivers(String messageId) {
+        Message m = getMessage(messageId);
+        return (m == null) ? null : m.getReceiverUsername();
+    }
+
+    /**
+     * Erases the sender, receivers, subject and content of messages, such as the ones sent by a deleted account once
+     * they are withdrawn from their receivers. The ones kept in memory are dropped, and the ones in the MessageLog are
+     * erased in their records when this manager is next written, so nothing is erased if the session is discarded. The
+     * erasing is recorded, so messages appended again when the journal is replayed are erased again.
+     * @param messageIds A list of the ids of the messages to be erased
+     */
+    void eraseMessages(List<String> messageIds) {
+        scanLog();
+        for (String messageId : messageIds) messageMap.remove(messageId);
+        if (log != null) erasing.addAll(messageIds);
+        version++;
+        erased = true;
+        if (mutationLog != null) mutationLog.record("eraseMessages", messageIds.toArray(new String[0]));
+    }
+
+    /**
+     * Checks if messages were erased since this manager was read. The journal still has their text as they were
+     * sent, so it should be emptied by a checkpoint on the next save
+     * @return true iff messages were erased
+     */
+    public boolean hasErasedMessages() {
+        return erased;
+    }
+
     private List<Message> getSortMessage(Iterator<String> messageId, MessageSorter sorter) {
         List<Message> lst = new ArrayList<>();
         String id;
         while (messageId.hasNext()) {
             id = messageId.next();
-            lst.add(messageMap.get(id));
+            lst.add(getMessage(id));
         }
         sorter.sortMessage(lst);
         return lst;
@@ -117,10 +189,10 @@ public class MessagingManager implements Serializable {
             // Received list
             id = messageArchived.next();
             if (id.charAt(0) == '0') {
-                Message m = messageMap.get(id.substring(1));
+                Message m = getMessage(id.substring(1));
                 lst.add(m.toStringReceived(m.getSenderUsername()));
             } else if (id.charAt(0) == '1') {
-                Message m = messageMap.get(id.substring(1));
+                Message m = getMessage(id.substring(1));
                 lst.add(m.toString());
             }
         }
@@ -140,15 +212,244 @@ public class MessagingManager implements Serializable {
     String sendWordMessage(String senderUsername, List<String> receivers, String subject, String content) {
         // List of receivers will require AccountManager, either check username exist or get a list of Speaker
         // In controller level, you SHOULD check all username when you ask user to input receiver username
+        scanLog();
         Timestamp sendTime = new Timestamp(new Date().getTime());
         String messageId = "M" + numMessage;
-        Message newMessage = new WordMessage(senderUsername, receivers, messageId, sendTime, subject, content);
+        putWordMessage(senderUsername, receivers, messageId, sendTime, subject, content);
 
-        // Update to the message map
-        messageMap.put(messageId, newMessage);
-        // Update message id
-        numMessage ++;
+        if (mutationLog != null) {
+            List<String> args = new ArrayList<>(Arrays.asList(messageId, String.valueOf(sendTime.getTime()),
+                    senderUsername, subject, content));
+            args.addAll(receivers);
+            mutationLog.record("sendWordMessage", args.toArray(new String[0]));
+        }
         return messageId; // It will return message id
     }
 
+    private void putWordMessage(String senderUsername, List<String> receivers, String messageId, Timestamp sendTime,
+                                String subject, String content) {
+        scanLog();
+        WordMessage newMessage = new WordMessage(senderUsername, receivers, messageId, sendTime, subject, content);
+        version++;
+        newMessage.setEpoch(version);
+
+        // A replayed message may already be in the segments, if they were written after the ser file
+        if (log == null || !log.contains(messageId)) store(newMessage);
+        // Update message id
+        numMessage = Math.max(numMessage, Integer.parseInt(messageId.substring(1))) + 1;
+    }
+
+    private void store(WordMessage message) {
+        if (log != null) {
+            try {
+                log.append(message);
+                appended.add(message.getId());
+                return;
+            } catch (IOException ex) {
+                // The message stays in memory and is written with the ser file instead
+            }
+        }
+        messageMap.put(message.getId(), message);
+    }
+
+    private Message getMessage(String messageId) {
+        scanLog();
+        Message message = messageMap.get(messageId);
+        return (message == null && log != null) ? log.read(messageId) : message;
+    }
+
+    // Cuts off the messages appended to the segments after the last ser file or delta, once they are first needed.
+    // They were sent in sessions that were not saved, or are appended again when the journal is replayed. Without a
+    // saved end, the segments are all there is, so every message in them is indexed instead
+    private void scanLog() {
+        if (log == null || scanFrom < 0) return;
+        try {
+            if (endSaved) {
+                log.truncate(scanFrom);
+            } else {
+                for (String messageId : log.recover(scanFrom)) {
+                    appended.add(messageId);
+                    numMessage = Math.max(numMessage, Integer.parseInt(messageId.substring(1)) + 1);
+                }
+            }
+        } catch (IOException ex) {
+            // The messages indexed so far can still be read, the rest are appended again by the journal
+        }
+        scanFrom = -1;
+        // Messages read from an older ser file that had no segments are moved into them
+        Iterator<Message> inMemory = messageMap.values().iterator();
+        while (inMemory.hasNext()) {
+            Message message = inMemory.next();
+            if (!log.contains(message.getId())) {
+                try {
+                    // Only word messages exist for now
+                    log.append((WordMessage) message);
+                    appended.add(message.getId());
+                } catch (IOException ex) {
+                    continue;
+                }
+            }
+            inMemory.remove();
+        }
+    }
+
+    /**
+     * Gets the messages kept in memory instead of in the MessageLog, used when this manager is written by
+     * MessageCodec
+     * @return An iterator of the messages kept in memory
+     */
+    Iterator<Message> getMessages() {
+        scanLog();
+        return messageMap.values().iterator();
+    }
+
+    /**
+     * Gets the messages kept in memory that were sent after the given modification epoch, used when a delta is
+     * written by MessageCodec. The ones in the MessageLog are in getLogIndex instead
+     * @param epoch The modification epoch of the last checkpoint
+     * @return An iterator of the messages kept in memory sent since then
+     */
+    Iterator<Message> getMessagesChangedSince(long epoch) {
+        scanLog();
+        List<Message> messages = new ArrayList<>();
+        for (Message message : messageMap.values()) {
+            if (message.getEpoch() > epoch) messages.add(message);
+        }
+        return messages.iterator();
+    }
+
+    /**
+     * Gets the number used for the id of the next message
+     * @return The number used for the id of the next message
+     */
+    int getNumMessage() {
+        scanLog();
+        return numMessage;
+    }
+
+    /**
+     * Puts a message read by MessageCodec back into this manager, without recording it. With a MessageLog, it is
+     * appended to the segments unless it is already there, once the segments are scanned
+     * @param message The message to be put back
+     */
+    void restoreMessage(Message message) {
+        // The segments are only scanned after the locations in all deltas are read
+        if (log == null || scanFrom >= 0) {
+            messageMap.put(message.getId(), message);
+            return;
+        }
+        // Only word messages exist for now
+        if (!log.contains(message.getId())) store((WordMessage) message);
+    }
+
+    /**
+     * Starts keeping messages in the given MessageLog. Once the segments are first needed, after the locations in
+     * the deltas are read, the messages appended after the last saved location are cut off, or indexed if no
+     * location was saved.
+     * @param log The MessageLog with the index read by MessageCodec
+     * @param from The location of the end of the segments when the index was written, 0 if there is no index
+     */
+    void restoreLog(MessageLog log, long from) {
+        this.log = log;
+        this.scanFrom = from;
+    }
+
+    /**
+     * Puts the locations of messages read from a delta by MessageCodec into the index of the MessageLog
+     * @param locations A map from message id to the location of its record
+     * @param end The location of the end of the segments when the delta was written
+     */
+    void restoreLogLocations(Map<String, Long> locations, long end) {
+        if (log == null) return;
+        for (Map.Entry<String, Long> location : locations.entrySet()) {
+            log.restoreLocation(location.getKey(), location.getValue());
+            numMessage = Math.max(numMessage, Integer.parseInt(location.getKey().substring(1)) + 1);
+        }
+        if (scanFrom >= 0) {
+            scanFrom = Math.max(scanFrom, end);
+            endSaved = true;
+        }
+    }
+
+    /**
+     * Erases the messages given to eraseMessages in the MessageLog, makes every message in it durable, then gets the
+     * locations of the ones appended since the last time this was called, used when this manager is written by
+     * MessageCodec. The ser file or delta that is written holds these locations, and a failed write is always
+     * followed by a whole ser file.
+     * @param all true to get the locations of all messages in the MessageLog, for a whole ser file
+     * @return A map from message id to the location of its record, or null if there is no MessageLog or it cannot
+     * be made durable
+     */
+    Map<String, Long> getLogIndex(boolean all) {
+        scanLog();
+        if (log == null) return null;
+        for (String messageId : erasing) {
+            try {
+                log.erase(messageId);
+            } catch (IOException ex) {
+                // The message is still withdrawn from every mailbox, only its record keeps the text
+            }
+        }
+        erasing.clear();
+        try {
+            log.force();
+        } catch (IOException ex) {
+            return null;
+        }
+        Map<String, Long> locations = all ? log.getIndex() : log.getLocations(appended);
+        appended.clear();
+        return locations;
+    }
+
+    /**
+     * Gets the location of the end of the MessageLog, written by MessageCodec after the locations of messages
+     * @return The location the next message will be appended at
+     */
+    long getLogEnd() {
+        return log.getEnd();
+    }
+
+    /**
+     * Sets the number used for the id of the next message, read by MessageCodec. It never goes down, since the
+     * segments may hold messages sent after the ser file or delta it is read from
+     * @param numMessage The number used for the id of the next message
+     */
+    void restoreNumMessage(int numMessage) {
+        this.numMessage = Math.max(this.numMessage, numMessage);
+    }
+
+    /**
+     * Sets the log that all following sent messages will be recorded into
+     * @param log An instance of MutationLog, or null to stop recording
+     */
+    @Override
+    public void setMutationLog(MutationLog log) {
+        this.mutationLog = log;
+    }
+
+    /**
+     * Gets the number of messages sent through this manager since it was created or read
+     * @return The number of mutations so far
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Redoes one recorded sending of message, with the same id and time as it was sent, or one recorded erasing of
+     * messages
+     * @param operation A String representation of the name of the mutating operation
+     * @param args The String representation of all arguments of this operation
+     */
+    @Override
+    public void replay(String operation, String[] args) {
+        if ("sendWordMessage".equals(operation)) {
+            putWordMessage(args[2], new ArrayList<>(Arrays.asList(args).subList(5, args.length)), args[0],
+                    new Timestamp(Long.parseLong(args[1])), args[3], args[4]);
+        } else if ("eraseMessages".equals(operation)) {
+            eraseMessages(Arrays.asList(args));
+        }
+    }
+
 }
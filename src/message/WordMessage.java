@@ -39,6 +39,22 @@ class WordMessage extends Message implements Serializable {
         this.subject = subject;
     }
 
+    /**
+     * Gets the subject of this message
+     * @return Subject of this message
+     */
+    protected String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Gets the content of this message
+     * @return Content of this message
+     */
+    protected String getContent() {
+        return content;
+    }
+
     /**
      * Represents toString information of this message. It contains the name of sender and receivers, the subject and content.
      * Should be used when the sender checks the message information.
@@ -84,4 +100,4 @@ class WordMessage extends Message implements Serializable {
         Date date = new Date(time.getTime());
         return DateFormat.getDateTimeInstance(DateFormat.LONG, DateFormat.LONG).format(date);
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,327 @@
+package room;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * A schedule of time intervals, each mapped to the id of the event held then, shared by Account and Room.
+ * The intervals are kept in a balanced (AVL) search tree ordered by start time then end time, where every node also
+ * keeps the latest end time in its subtree, so finding the intervals that overlap a given one takes O(log n + k) for k
+ * intervals found. The times are kept as epoch millis, and an interval [start, end) does not overlap another one that
+ * starts at its end.
+ * A shared calendar, such as the one of all events, lets many ids hold the same interval, and orders them by id.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class IntervalCalendar implements Serializable, Iterable<Map.Entry<Timestamp[], String>> {
+    private static final long serialVersionUID = 1L;
+    private final boolean shared;
+    private Node root;
+    private int size;
+
+    /**
+     * Creates an empty schedule where every interval is held by one id
+     */
+    public IntervalCalendar() {
+        this(false);
+    }
+
+    /**
+     * Creates an empty schedule
+     * @param shared true iff many ids may hold the same interval
+     */
+    public IntervalCalendar(boolean shared) {
+        this.shared = shared;
+    }
+
+    /**
+     * Gets the number of intervals in the schedule
+     * @return The number of intervals
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if no interval in the schedule overlaps the given one
+     * @param start The start time of the interval in epoch millis
+     * @param end The end time of the interval in epoch millis
+     * @return true iff the given interval is free
+     */
+    public boolean isFree(long start, long end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start < end && start < node.end) return false;
+            // The left subtree is only worth visiting if something in it ends after the start
+            if (node.left != null && node.left.maxEnd > start) node = node.left;
+            else if (node.start < end) node = node.right;
+            else return true;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if no interval in the schedule overlaps any interval of the given duration
+     * @param timeDuration A sorted collection of time interval where start time is at index 0 and end time is index 1
+     * @return true iff every interval of the duration is free
+     */
+    public boolean isFree(SortedSet<Timestamp[]> timeDuration) {
+        for (Timestamp[] t : timeDuration) {
+            if (!isFree(t[0].getTime(), t[1].getTime())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the ids of the events held during the given interval
+     * @param start The start time of the interval in epoch millis
+     * @param end The end time of the interval in epoch millis
+     * @return A list of the ids of every interval overlapping the given one, in ascending order of start time
+     */
+    public List<String> getOverlapping(long start, long end) {
+        List<String> found = new ArrayList<>();
+        collectOverlapping(root, start, end, found);
+        return found;
+    }
+
+    /**
+     * Puts the given interval into the schedule, replacing the event id of the same interval if it is already in it,
+     * unless the schedule is shared
+     * @param start The start time of the interval in epoch millis
+     * @param end The end time of the interval in epoch millis
+     * @param id A String representation of the id of the event held at this interval
+     * @return The event id previously held at exactly this interval, or null if there was none. In a shared schedule,
+     * the id itself if it already held this interval
+     */
+    public String put(long start, long end, String id) {
+        String[] previous = new String[1];
+        root = insert(root, start, end, id, previous);
+        if (previous[0] == null) size++;
+        return previous[0];
+    }
+
+    /**
+     * Removes the given interval from the schedule if it is held by the given event
+     * @param start The start time of the interval in epoch millis
+     * @param end The end time of the interval in epoch millis
+     * @param id A String representation of the id of the event
+     * @return true iff the interval was removed
+     */
+    public boolean remove(long start, long end, String id) {
+        Node node = find(start, end, id);
+        if (node == null || !node.id.equals(id)) return false;
+        root = delete(root, start, end, id);
+        size--;
+        return true;
+    }
+
+    /**
+     * Puts every interval of an event's duration into the schedule
+     * @param timeDuration A sorted collection of time interval where start time is at index 0 and end time is index 1
+     * @param id A String representation of the id of the event
+     * @return true iff the schedule is changed
+     */
+    public boolean putAll(SortedSet<Timestamp[]> timeDuration, String id) {
+        boolean changed = false;
+        for (Timestamp[] t : timeDuration) {
+            changed |= !id.equals(put(t[0].getTime(), t[1].getTime(), id));
+        }
+        return changed;
+    }
+
+    /**
+     * Removes every interval of an event's duration from the schedule
+     * @param timeDuration A sorted collection of time interval where start time is at index 0 and end time is index 1
+     * @param id A String representation of the id of the event
+     * @return true iff the schedule is changed
+     */
+    public boolean removeAll(SortedSet<Timestamp[]> timeDuration, String id) {
+        boolean changed = false;
+        for (Timestamp[] t : timeDuration) {
+            changed |= remove(t[0].getTime(), t[1].getTime(), id);
+        }
+        return changed;
+    }
+
+    /**
+     * Gets all intervals of the schedule
+     * @return An iterator of all time intervals mapped to the id of the event held then, in ascending order
+     */
+    @Override
+    public Iterator<Map.Entry<Timestamp[], String>> iterator() {
+        return new InOrderIterator(Long.MIN_VALUE);
+    }
+
+    /**
+     * Gets the intervals of the schedule that start at or after the given time, without visiting the earlier ones
+     * @param start The earliest start time in epoch millis
+     * @return An iterator of those time intervals mapped to the id of the event held then, in ascending order
+     */
+    public Iterator<Map.Entry<Timestamp[], String>> iteratorFrom(long start) {
+        return new InOrderIterator(start);
+    }
+
+    private void collectOverlapping(Node node, long start, long end, List<String> found) {
+        // Nothing in a subtree whose intervals all end by the start can overlap
+        if (node == null || node.maxEnd <= start) return;
+        collectOverlapping(node.left, start, end, found);
+        // Everything to the right starts at or after this node, so it starts too late as well
+        if (node.start >= end) return;
+        if (start < node.end) found.add(node.id);
+        collectOverlapping(node.right, start, end, found);
+    }
+
+    private Node find(long start, long end, String id) {
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(start, end, id, node);
+            if (cmp == 0) return node;
+            node = (cmp < 0) ? node.left : node.right;
+        }
+        return null;
+    }
+
+    private Node insert(Node node, long start, long end, String id, String[] previous) {
+        if (node == null) return new Node(start, end, id);
+        int cmp = compare(start, end, id, node);
+        if (cmp == 0) {
+            previous[0] = node.id;
+            node.id = id;
+            return node;
+        }
+        if (cmp < 0) node.left = insert(node.left, start, end, id, previous);
+        else node.right = insert(node.right, start, end, id, previous);
+        return balance(node);
+    }
+
+    private Node delete(Node node, long start, long end, String id) {
+        int cmp = compare(start, end, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, end, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, end, id);
+        } else {
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            // Replace this node by the first one of its right subtree
+            Node next = node.right;
+            while (next.left != null) next = next.left;
+            node.right = delete(node.right, next.start, next.end, next.id);
+            node.start = next.start;
+            node.end = next.end;
+            node.id = next.id;
+        }
+        return balance(node);
+    }
+
+    private Node balance(Node node) {
+        update(node);
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1) {
+            if (height(node.left.left) < height(node.left.right)) node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+        if (skew < -1) {
+            if (height(node.right.right) < height(node.right.left)) node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node top = node.right;
+        node.right = top.left;
+        top.left = node;
+        update(node);
+        update(top);
+        return top;
+    }
+
+    private Node rotateRight(Node node) {
+        Node top = node.left;
+        node.left = top.right;
+        top.right = node;
+        update(node);
+        update(top);
+        return top;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = node.end;
+        if (node.left != null) node.maxEnd = Math.max(node.maxEnd, node.left.maxEnd);
+        if (node.right != null) node.maxEnd = Math.max(node.maxEnd, node.right.maxEnd);
+    }
+
+    private static int height(Node node) {
+        return (node == null) ? 0 : node.height;
+    }
+
+    private int compare(long start, long end, String id, Node node) {
+        int cmp = Long.compare(start, node.start);
+        if (cmp == 0) cmp = Long.compare(end, node.end);
+        return (cmp != 0 || !shared) ? cmp : id.compareTo(node.id);
+    }
+
+    // One interval, with the height of its subtree and the latest end time in it
+    private static class Node implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private long start;
+        private long end;
+        private String id;
+        private long maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        private Node(long start, long end, String id) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.maxEnd = end;
+        }
+    }
+
+    private class InOrderIterator implements Iterator<Map.Entry<Timestamp[], String>> {
+        private final Deque<Node> path = new ArrayDeque<>();
+
+        private InOrderIterator(long from) {
+            // Only the nodes that start at or after the given time are put on the path
+            for (Node node = root; node != null; ) {
+                if (node.start >= from) {
+                    path.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        /**
+         * Checks if the iterator has a next element
+         * @return true iff there is a next element
+         */
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        /**
+         * Gets the next interval in the schedule
+         * @return The time interval, where start time is at index 0 and end time is index 1, mapped to the event id
+         */
+        @Override
+        public Map.Entry<Timestamp[], String> next() {
+            if (path.isEmpty()) throw new NoSuchElementException();
+            Node node = path.pop();
+            descend(node.right);
+            return new AbstractMap.SimpleImmutableEntry<>(
+                    new Timestamp[]{new Timestamp(node.start), new Timestamp(node.end)}, node.id);
+        }
+
+        private void descend(Node node) {
+            for (; node != null; node = node.left) path.push(node);
+        }
+    }
+}
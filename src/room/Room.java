@@ -1,5 +1,6 @@
 package room;
 
+import data.MutationLog;
 import event.EventObserver;
 import java.io.Serializable;
 import java.sql.Timestamp;
@@ -21,9 +22,12 @@ class Room implements Serializable, Available, EventObserver {
     private NavigableMap<Integer, Integer> availableTime;
     private final String roomName; //Check for uniqueness
     // No getters for this room name as it is stored directly in the use case as keys in the Map
-    private NavigableMap<Timestamp[], String> schedule;
+    private IntervalCalendar schedule;
 
     private final List<String> features;
+    private transient MutationLog mutationLog;
+    // The version of the manager when this room was last changed, 0 if it is unchanged since it was read
+    private transient long epoch;
 
     /**
      * Constructs a Room object
@@ -44,20 +48,7 @@ class Room implements Serializable, Available, EventObserver {
 
         this.features = new ArrayList<>(features);
         this.roomName = roomName;
-        schedule = new TreeMap<> ((Comparator<Timestamp[]> & Serializable)
-                (Timestamp[] t1, Timestamp[]t2) -> {
-                    // t1 == [startTime1, endTime1]
-                    // t2 == [startTime2, endTime2]
-                    // They won't overlap
-                    if (!t1[1].after(t2[0])) {
-                        return -1;
-                    }
-                    if (!t2[1].after(t1[0])) {
-                        return 1;
-                    }
-                    return 0;
-                }
-        );
+        schedule = new IntervalCalendar();
     }
 
     /**
@@ -122,9 +113,7 @@ class Room implements Serializable, Available, EventObserver {
      */
     protected boolean addEventToSchedule(SortedSet<Timestamp[]> timeDuration, String eventID) {
         // return schedule.putIfAbsent(new Timestamp[]{startTime, endTime}, eventID) == null
-        for (Timestamp[] t : timeDuration) {
-            this.schedule.put(t, eventID);
-        }
+        this.schedule.putAll(timeDuration, eventID);
         return true; // Since we already check for available room
     }
 
@@ -135,19 +124,18 @@ class Room implements Serializable, Available, EventObserver {
      * @return true iff the event is removed successfully
      */
     protected boolean removeEventFromSchedule(SortedSet<Timestamp[]> timeDuration, String eventName) {
-        for (Timestamp[] t : timeDuration) {
-            schedule.remove(t, eventName);
-        }
+        schedule.removeAll(timeDuration, eventName);
         return true; // Since we already check it
     }
 
     // This is a helper method for toString
     private String printSchedule(){
         StringBuilder sb = new StringBuilder();
-        for(Timestamp[] time: schedule.keySet()){
+        for(Map.Entry<Timestamp[], String> entry: schedule){
+            Timestamp[] time = entry.getKey();
             sb.append("\n\t");
             sb.append("Event ");
-            sb.append(schedule.get(time));
+            sb.append(entry.getValue());
             sb.append(" is hold in this room from ");
             sb.append(this.getTime(time[0]));
             sb.append(" to ");
@@ -193,6 +181,44 @@ class Room implements Serializable, Available, EventObserver {
                 "This room has:" + ((features.size() == 0) ? "No features" : featuresString.toString());
     }
 
+    /**
+     * Gets the available time slots of room
+     * @return A list of [start hour, end hour] of every available time slot, in ascending order
+     */
+    protected Integer[][] getAvailableTimeSlots() {
+        Integer[][] slots = new Integer[availableTime.size()][];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> slot : availableTime.entrySet()) {
+            slots[i++] = new Integer[]{slot.getKey(), slot.getValue()};
+        }
+        return slots;
+    }
+
+    /**
+     * Gets the additional features of room
+     * @return An iterator of the String representation of all additional features
+     */
+    protected Iterator<String> getFeatures() {
+        return features.iterator();
+    }
+
+    /**
+     * Gets the schedule of room
+     * @return An iterator of all scheduled time intervals mapped to the id of the event held then, in ascending order
+     */
+    protected Iterator<Map.Entry<Timestamp[], String>> getScheduleEntries() {
+        return schedule.iterator();
+    }
+
+    /**
+     * Puts a scheduled time interval read by RoomCodec back into the schedule, without recording it
+     * @param interval A time interval where start time is at index 0 and end time is index 1
+     * @param eventId A String representation of the id of the event held at this time interval
+     */
+    protected void restoreSchedule(Timestamp[] interval, String eventId) {
+        schedule.put(interval[0].getTime(), interval[1].getTime(), eventId);
+    }
+
     /**
      * Checks if the room has the list of additional features
      * @param checkedFeatures A list of String representation of the additional features
@@ -209,9 +235,9 @@ class Room implements Serializable, Available, EventObserver {
      */
     @Override
     public void updateAdd(String eventId, SortedSet<Timestamp[]> timeDuration) {
-        for (Timestamp[] t : timeDuration) {
-            this.schedule.put(t, eventId);
-        }
+        // Only changes are recorded, so an event that is already in the schedule leaves this room unchanged
+        if (schedule.putAll(timeDuration, eventId) && mutationLog != null)
+            mutationLog.record("updateAdd", roomName, eventId, MutationLog.encodeDuration(timeDuration));
     }
 
     /**
@@ -221,9 +247,8 @@ class Room implements Serializable, Available, EventObserver {
      */
     @Override
     public void updateRemove(String eventId, SortedSet<Timestamp[]> timeDuration) {
-        for (Timestamp[] t : timeDuration) {
-            schedule.remove(t, eventId);
-        }
+        if (schedule.removeAll(timeDuration, eventId) && mutationLog != null)
+            mutationLog.record("updateRemove", roomName, eventId, MutationLog.encodeDuration(timeDuration));
     }
 
     /**
@@ -234,4 +259,28 @@ class Room implements Serializable, Available, EventObserver {
     public String getName() {
         return this.roomName;
     }
+
+    /**
+     * Sets the log that the changes made to this room by events will be recorded into
+     * @param log An instance of MutationLog, or null to stop recording
+     */
+    protected void setMutationLog(MutationLog log) {
+        this.mutationLog = log;
+    }
+
+    /**
+     * Gets the modification epoch of this room
+     * @return The version of the manager when this room was last changed, 0 if it is unchanged since it was read
+     */
+    long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Sets the modification epoch of this room, called by the manager whenever it is changed
+     * @param epoch The current version of the manager
+     */
+    void setEpoch(long epoch) {
+        this.epoch = epoch;
+    }
 }
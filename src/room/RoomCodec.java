@@ -0,0 +1,173 @@
+package room;
+
+import data.BinaryReader;
+import data.BinaryWriter;
+import data.DeltaCodec;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Codec of RoomManager. Writes the features history list, then each room as one record with its name, capacity,
+ * available time slots, features and schedule. The schedule is written as epoch millis instead of Timestamp objects.
+ * A delta holds the whole features history list, then the records of the rooms changed since the last checkpoint.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class RoomCodec implements DeltaCodec<RoomManager> {
+
+    /**
+     * Writes all rooms and features of the given RoomManager
+     * @param manager The RoomManager to be written
+     * @param out The BinaryWriter the RoomManager is written to
+     */
+    @Override
+    public void write(RoomManager manager, BinaryWriter out) {
+        writeFeatures(manager, out);
+        List<Room> rooms = toList(manager.getRooms());
+        out.writeVarInt(rooms.size());
+        for (Room room : rooms) writeRoom(room, out);
+    }
+
+    /**
+     * Reads a RoomManager written by write
+     * @param in The BinaryReader the RoomManager is read from
+     * @return The RoomManager that is read
+     * @throws IOException if the data is damaged
+     */
+    @Override
+    public RoomManager read(BinaryReader in) throws IOException {
+        RoomManager manager = new RoomManager();
+        readFeatures(manager, in);
+        int numRooms = in.readVarInt();
+        for (int i = 0; i < numRooms; i++) manager.restoreRoom(readRoom(in));
+        return manager;
+    }
+
+    /**
+     * Migrates the RoomManager of a legacy ser file
+     * @param legacy The RoomManager read by LegacyInputStream
+     * @return The RoomManager with the same rooms and features
+     * @throws IOException if legacy is not a RoomManager
+     */
+    @Override
+    public RoomManager migrate(Object legacy) throws IOException {
+        if (!(legacy instanceof data.legacy.RoomManager)) throw new StreamCorruptedException("not rooms");
+        RoomManager manager = new RoomManager();
+        manager.restoreFeatures(new ArrayList<>(((data.legacy.RoomManager) legacy).getAllFeatures()));
+        for (data.legacy.Room old : ((data.legacy.RoomManager) legacy).getRooms()) {
+            Room room = new Room(old.getCapacity(), old.getAvailableTimeSlots(), old.getName(),
+                    new ArrayList<>(old.getFeatures()));
+            for (Map.Entry<Timestamp[], String> entry : old.getSchedule().entrySet()) {
+                room.restoreSchedule(entry.getKey(), entry.getValue());
+            }
+            manager.restoreRoom(room);
+        }
+        return manager;
+    }
+
+    /**
+     * Gets the current modification epoch of the given RoomManager
+     * @param manager The RoomManager
+     * @return The number of mutations made to the RoomManager since it was created or read
+     */
+    @Override
+    public long getEpoch(RoomManager manager) {
+        return manager.getVersion();
+    }
+
+    /**
+     * Writes the features and the rooms of the given RoomManager changed after the given epoch
+     * @param manager The RoomManager to be written
+     * @param sinceEpoch The modification epoch of the last checkpoint
+     * @param out The BinaryWriter the changes are written to
+     */
+    @Override
+    public void writeDelta(RoomManager manager, long sinceEpoch, BinaryWriter out) {
+        // The features history list is short, so it is always written whole
+        writeFeatures(manager, out);
+        List<Room> rooms = toList(manager.getRoomsChangedSince(sinceEpoch));
+        out.writeVarInt(rooms.size());
+        for (Room room : rooms) writeRoom(room, out);
+    }
+
+    /**
+     * Reads the changes written by writeDelta into the given RoomManager
+     * @param manager The RoomManager read from the snapshot and the deltas before this one
+     * @param in The BinaryReader the changes are read from
+     * @throws IOException if the data is damaged
+     */
+    @Override
+    public void readDelta(RoomManager manager, BinaryReader in) throws IOException {
+        readFeatures(manager, in);
+        int numRooms = in.readVarInt();
+        for (int i = 0; i < numRooms; i++) manager.restoreRoom(readRoom(in));
+    }
+
+    private void writeFeatures(RoomManager manager, BinaryWriter out) {
+        List<String> features = toList(manager.getAllFeatures());
+        out.writeVarInt(features.size());
+        for (String feature : features) out.writeSymbol(feature);
+    }
+
+    private void readFeatures(RoomManager manager, BinaryReader in) throws IOException {
+        List<String> features = new ArrayList<>();
+        int numFeatures = in.readVarInt();
+        for (int i = 0; i < numFeatures; i++) features.add(in.readSymbol());
+        manager.restoreFeatures(features);
+    }
+
+    private void writeRoom(Room room, BinaryWriter out) {
+        out.beginRecord();
+        out.writeSymbol(room.getName());
+        out.writeVarInt(room.getCapacity());
+
+        Integer[][] slots = room.getAvailableTimeSlots();
+        out.writeVarInt(slots.length);
+        for (Integer[] slot : slots) {
+            out.writeVarInt(slot[0]);
+            out.writeVarInt(slot[1]);
+        }
+
+        List<String> features = toList(room.getFeatures());
+        out.writeVarInt(features.size());
+        for (String feature : features) out.writeSymbol(feature);
+
+        List<Map.Entry<Timestamp[], String>> schedule = toList(room.getScheduleEntries());
+        out.writeVarInt(schedule.size());
+        for (Map.Entry<Timestamp[], String> entry : schedule) {
+            out.writeInterval(entry.getKey());
+            out.writeId('E', entry.getValue());
+        }
+        out.endRecord();
+    }
+
+    private Room readRoom(BinaryReader in) throws IOException {
+        int end = in.beginRecord();
+        String roomName = in.readSymbol();
+        int capacity = in.readVarInt();
+
+        Integer[][] slots = new Integer[in.readVarInt()][];
+        for (int i = 0; i < slots.length; i++) slots[i] = new Integer[]{in.readVarInt(), in.readVarInt()};
+
+        List<String> features = new ArrayList<>();
+        int numFeatures = in.readVarInt();
+        for (int i = 0; i < numFeatures; i++) features.add(in.readSymbol());
+
+        Room room = new Room(capacity, slots, roomName, features);
+        int numScheduled = in.readVarInt();
+        for (int i = 0; i < numScheduled; i++) room.restoreSchedule(in.readInterval(), in.readId('E'));
+        in.endRecord(end);
+        return room;
+    }
+
+    private <E> List<E> toList(Iterator<E> iterator) {
+        List<E> lst = new ArrayList<>();
+        iterator.forEachRemaining(lst::add);
+        return lst;
+    }
+}
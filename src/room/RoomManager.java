@@ -1,6 +1,8 @@
 package room;
 
 
+import data.Journaled;
+import data.MutationLog;
 import event.EventObserver;
 
 import java.io.Serializable;
@@ -8,18 +10,22 @@ import java.sql.Timestamp;
 import java.util.*;
 
 /**
- * An use case class of room. Implements Serializable.
+ * An use case class of room. Implements Serializable, Journaled.
  * Stores all room in a map which has room name map to the corresponding Room object.
  * Contains constructor of room, which is able to construct a new room.
  * Methods in this class contains check room status, operating on specific room, and get room with given information.
  * All the parameter should be given by controller of room.
+ * Every mutation is recorded into the attached MutationLog, if there is one.
  * @author Group0694
  * @version 2.0.0
  */
 @SuppressWarnings("deprecation")
-public class RoomManager implements Serializable {
+public class RoomManager implements Serializable, Journaled {
     private final Map<String, Room> roomList;
     private final List<String> roomFeatureList;
+    private transient MutationLog mutationLog;
+    // Number of mutations since this manager was created or read, the manager is unchanged while it stays the same
+    private transient long version;
 
     /**
      * Constructs the RoomManager object
@@ -72,7 +78,13 @@ public class RoomManager implements Serializable {
         // Assume availableTime do not overlap, should check when user input
         if (roomList.get(roomName) == null) {
             Room room = new Room(capacity, availableTime, roomName, features);
+            room.setMutationLog(logFor(room));
             roomList.put(roomName, room);
+            List<String> args = new ArrayList<>(Arrays.asList(roomName, String.valueOf(capacity),
+                    encodeTimeSlots(availableTime)));
+            args.addAll(features);
+            record("addRoom", args.toArray(new String[0]));
+            room.setEpoch(version);
             return true;
         }
         return false;
@@ -189,9 +201,54 @@ public class RoomManager implements Serializable {
      * @return true iff added successfully
      */
     boolean addFeature(String feature){
+        record("addFeature", feature);
         return roomFeatureList.add(feature);
     }
 
+    /**
+     * Gets all rooms, used when this manager is written by RoomCodec
+     * @return An iterator of all rooms
+     */
+    Iterator<Room> getRooms() {
+        List<Room> rooms = new ArrayList<>();
+        for (Room room : roomList.values()) {
+            if (room != null) rooms.add(room);
+        }
+        return rooms.iterator();
+    }
+
+    /**
+     * Gets the rooms changed after the given modification epoch, used when a delta is written by RoomCodec
+     * @param epoch The modification epoch of the last checkpoint
+     * @return An iterator of the rooms changed since then
+     */
+    Iterator<Room> getRoomsChangedSince(long epoch) {
+        List<Room> rooms = new ArrayList<>();
+        for (Room room : roomList.values()) {
+            if (room != null && room.getEpoch() > epoch) rooms.add(room);
+        }
+        return rooms.iterator();
+    }
+
+    /**
+     * Puts a room read by RoomCodec back into this manager in place of the one with the same name, without
+     * recording it
+     * @param room The room to be put back
+     */
+    void restoreRoom(Room room) {
+        room.setMutationLog(logFor(room));
+        roomList.put(room.getName(), room);
+    }
+
+    /**
+     * Replaces the features history list with the one read by RoomCodec
+     * @param features A list of String representation of all features ever added
+     */
+    void restoreFeatures(List<String> features) {
+        roomFeatureList.clear();
+        roomFeatureList.addAll(features);
+    }
+
     /**
      * Gets an instance of EventObserver
      * @param roomName A String representation of the target room name.
@@ -200,4 +257,82 @@ public class RoomManager implements Serializable {
     public EventObserver getEventObserver(String roomName) {
         return this.roomList.get(roomName);
     }
+
+    /**
+     * Sets the log that all following mutations of this manager and its rooms will be recorded into
+     * @param log An instance of MutationLog, or null to stop recording
+     */
+    @Override
+    public void setMutationLog(MutationLog log) {
+        this.mutationLog = log;
+        for (Room room : roomList.values()) {
+            if (room != null) room.setMutationLog(logFor(room));
+        }
+    }
+
+    /**
+     * Gets the number of mutations made to this manager and its rooms since it was created or read
+     * @return The number of mutations so far
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Redoes one recorded mutation of this manager or one of its rooms
+     * @param operation A String representation of the name of the mutating operation
+     * @param args The String representation of all arguments of this operation
+     */
+    @Override
+    public void replay(String operation, String[] args) {
+        switch (operation) {
+            case "addRoom":
+                addRoom(Integer.parseInt(args[1]), decodeTimeSlots(args[2]), args[0],
+                        Arrays.asList(args).subList(3, args.length));
+                break;
+            case "addFeature":
+                addFeature(args[0]);
+                break;
+            case "updateAdd":
+                if (roomList.get(args[0]) != null)
+                    roomList.get(args[0]).updateAdd(args[1], MutationLog.decodeDuration(args[2]));
+                break;
+            case "updateRemove":
+                if (roomList.get(args[0]) != null)
+                    roomList.get(args[0]).updateRemove(args[1], MutationLog.decodeDuration(args[2]));
+                break;
+        }
+    }
+
+    private void record(String operation, String... args) {
+        version++;
+        if (mutationLog != null) mutationLog.record(operation, args);
+    }
+
+    // The log of a room records into this manager, and marks the room as changed
+    private MutationLog logFor(Room room) {
+        return (operation, args) -> {
+            record(operation, args);
+            room.setEpoch(version);
+        };
+    }
+
+    // Time slots are encoded as "start-end,start-end"
+    private String encodeTimeSlots(Integer[][] availableTime) {
+        List<String> slots = new ArrayList<>();
+        for (Integer[] slot : availableTime) slots.add(slot[0] + "-" + slot[1]);
+        return String.join(",", slots);
+    }
+
+    private Integer[][] decodeTimeSlots(String encoded) {
+        if (encoded.isEmpty()) return new Integer[0][];
+        String[] slots = encoded.split(",");
+        Integer[][] availableTime = new Integer[slots.length][];
+        for (int i = 0; i < slots.length; i++) {
+            String[] hours = slots[i].split("-");
+            availableTime[i] = new Integer[]{Integer.parseInt(hours[0]), Integer.parseInt(hours[1])};
+        }
+        return availableTime;
+    }
 }
@@ -0,0 +1,170 @@
+package userinterface;
+
+import account.AccountManager;
+import data.Journal;
+import data.Journaled;
+import event.EventManager;
+import room.RoomManager;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps the use cases of recently chosen conferences in memory, shared by every user session of this run, so choosing
+ * a conference again does not read its ser files again. Once the estimated memory of all kept use cases passes the
+ * capacity, conferences that nobody is using are evicted, least recently used first, and their use cases are saved.
+ * All use cases of a conference are kept and evicted together, since events refer to the rooms of their conference.
+ * @author Group0694
+ * @version 3.0.0
+ */
+public class ConferenceCache {
+    // Estimated memory all kept use cases may take before conferences are evicted
+    public static final long DEFAULT_CAPACITY = 32L * 1024 * 1024;
+    // Objects in memory take several times the room of the ser and journal files they are read from
+    private static final int MEMORY_PER_FILE_BYTE = 8;
+
+    private static final ConferenceCache shared = new ConferenceCache(DEFAULT_CAPACITY);
+    // The conferences read at startup, before any user chooses one
+    private static volatile CompletableFuture<Void> preloading = CompletableFuture.completedFuture(null);
+
+    private final long capacity;
+    // In access order, so the least recently used conference comes first
+    private final LinkedHashMap<String, Resident> conferences = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedMemory = 0;
+
+    /**
+     * Creates an empty ConferenceCache
+     * @param capacity The estimated memory in bytes all kept use cases may take
+     */
+    ConferenceCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the ConferenceCache shared by all user sessions
+     * @return The shared instance of ConferenceCache
+     */
+    static ConferenceCache getShared() {
+        return shared;
+    }
+
+    /**
+     * Reads the use cases of the given conferences in the background and keeps them in the shared ConferenceCache,
+     * the same way as choosing the conference does. Until awaitPreload returns, the given AccountManager is in use
+     * by the background thread.
+     * @param conferences The names of the conferences to be read
+     * @param accountManager The AccountManager that has the accounts of the events
+     * @param executor The Executor that reads the conferences
+     */
+    public static void preload(List<String> conferences, AccountManager accountManager, Executor executor) {
+        // One conference after another, since reading events finds their accounts in the AccountManager
+        preloading = CompletableFuture.runAsync(() -> {
+            for (String conference : conferences) {
+                RoomManager roomManager = LocalConferenceInitSystem.openRoomManager(
+                        new LocalConferenceInitSystem<>(), conference);
+                LocalConferenceInitSystem.openEventManager(new LocalConferenceInitSystem<EventManager>(), conference,
+                        accountManager, roomManager);
+                // Nobody uses the conference yet, so it can be evicted as if a user just left it
+                shared.checkIn(conference);
+                shared.checkIn(conference);
+            }
+        }, executor);
+    }
+
+    /**
+     * Waits until the conferences given to preload are read
+     */
+    public static void awaitPreload() {
+        try {
+            preloading.join();
+        } catch (CompletionException | CancellationException ex) {
+            // A conference that failed to be read is read again when it is chosen
+        }
+    }
+
+    /**
+     * Saves every kept use case and empties the shared ConferenceCache, called before the program exits
+     */
+    public static void flushAll() {
+        awaitPreload();
+        shared.evict(0);
+    }
+
+    /**
+     * Takes a kept use case for use, so its conference is not evicted until it is checked in
+     * @param conference The conference the use case belongs to
+     * @param path The location and name of the ser file of the use case
+     * @return The LocalConferenceInitSystem that keeps the use case, or null if it is not kept
+     */
+    @SuppressWarnings("unchecked")
+    synchronized <T extends Journaled> LocalConferenceInitSystem<T> checkOut(String conference, String path) {
+        Resident resident = conferences.get(conference);
+        if (resident == null || !resident.managers.containsKey(path)) return null;
+        resident.users++;
+        return (LocalConferenceInitSystem<T>) resident.managers.get(path);
+    }
+
+    /**
+     * Keeps a use case that was just read, taken for use as by checkOut
+     * @param conference The conference the use case belongs to
+     * @param path The location and name of the ser file of the use case
+     * @param manager The LocalConferenceInitSystem that keeps the use case and its journal
+     */
+    synchronized void keep(String conference, String path, LocalConferenceInitSystem<?> manager) {
+        Resident resident = conferences.computeIfAbsent(conference, k -> new Resident());
+        resident.managers.put(path, manager);
+        resident.users++;
+    }
+
+    /**
+     * Ends the use of a use case taken by checkOut or keep, then evicts conferences if the capacity is passed
+     * @param conference The conference the use case belongs to
+     */
+    synchronized void checkIn(String conference) {
+        Resident resident = conferences.get(conference);
+        if (resident == null) return;
+        resident.users--;
+        // The files have grown by what is committed during the use
+        usedMemory -= resident.memory;
+        resident.memory = estimateMemory(resident);
+        usedMemory += resident.memory;
+        evict(capacity);
+    }
+
+    private synchronized void evict(long limit) {
+        List<LocalConferenceInitSystem<?>> evicted = new ArrayList<>();
+        Iterator<Resident> iterator = conferences.values().iterator();
+        while (usedMemory > limit && iterator.hasNext()) {
+            Resident resident = iterator.next();
+            if (resident.users > 0) continue;
+            evicted.addAll(resident.managers.values());
+            usedMemory -= resident.memory;
+            iterator.remove();
+        }
+        for (LocalConferenceInitSystem<?> manager : evicted) manager.flush();
+    }
+
+    private long estimateMemory(Resident resident) {
+        long fileBytes = 0;
+        for (String path : resident.managers.keySet()) {
+            fileBytes += new File(path).length() + new File(Journal.journalPathFor(path)).length();
+        }
+        // An empty conference still takes some memory
+        return Math.max(fileBytes, 1024) * MEMORY_PER_FILE_BYTE;
+    }
+
+    // The kept use cases of one conference
+    private static class Resident {
+        private final Map<String, LocalConferenceInitSystem<?>> managers = new LinkedHashMap<>();
+        private int users = 0;
+        private long memory = 0;
+    }
+}
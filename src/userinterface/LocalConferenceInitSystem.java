@@ -1,21 +1,43 @@
 package userinterface;
 
+import account.AccountManager;
 import conferencemain.MainPresenter;
+import data.Codec;
 import data.DataSaver;
+import data.Journal;
+import data.Journaled;
+import event.EventCodec;
+import event.EventManager;
+import room.RoomCodec;
+import room.RoomManager;
 
 import java.util.List;
 import java.util.Scanner;
 
-public class LocalConferenceInitSystem<T> {
+public class LocalConferenceInitSystem<T extends Journaled> {
+    private String path;
+    private T manager;
+    private Journal journal;
+    private Codec<T> codec;
+    // The version of the use case once it is read and its journal is replayed
+    private long loadedVersion;
+    // The version of the use case when its journal was last committed
+    private long savedVersion;
+    // The instance kept by ConferenceCache that this one is using, itself if the use case was not kept yet
+    private LocalConferenceInitSystem<T> resident;
 
     /**
-     * Gets the required use case from gateway
+     * Gets the required use case from the ConferenceCache, or from gateway if it is not kept in memory yet
      * @param conference The conference the use case belongs to
      * @param filePath the path of the .ser file
+     * @param codec the Codec of the use case, also used when the use case is saved
      * @return the instance of the required use case class
      */
-    T getManager(String conference, String filePath){
-        DataSaver<T> managerDataSaver = new DataSaver<>();
+    T getManager(String conference, String filePath, Codec<T> codec){
+        DataSaver<T> managerDataSaver = new DataSaver<>(codec);
+        resident = ConferenceCache.getShared().checkOut(conference, managerDataSaver.getSrcPath(conference + filePath));
+        if (resident != null) return resident.manager;
+        this.codec = codec;
         try {
             return managerDataSaver.readFromFile(
                     managerDataSaver.getSrcPath(conference + filePath));
@@ -24,6 +46,63 @@ public class LocalConferenceInitSystem<T> {
         }
     }
 
+    /**
+     * Replays the journal of the required use case on top of the snapshot read by getManager, then records all
+     * following mutations of the use case into that journal. The use case is then kept by the ConferenceCache.
+     * Does nothing if getManager got the use case from the ConferenceCache, which is recording already.
+     * @param conference The conference the use case belongs to
+     * @param filePath the path of the .ser file
+     * @param manager the use case class read from the .ser file
+     */
+    void openJournal(String conference, String filePath, T manager){
+        if (resident != null) return;
+        DataSaver<T> managerDataSaver = new DataSaver<>();
+        path = managerDataSaver.getSrcPath(conference + filePath);
+        this.manager = manager;
+        journal = new Journal(Journal.journalPathFor(path));
+        journal.replay(manager);
+        manager.setMutationLog(journal);
+        loadedVersion = manager.getVersion();
+        savedVersion = loadedVersion;
+        resident = this;
+        ConferenceCache.getShared().keep(conference, path, this);
+    }
+
+    /**
+     * Gets the RoomManager of the given conference and records all its following mutations
+     * @param initRoom The LocalConferenceInitSystem that saves the RoomManager later
+     * @param conference The conference the RoomManager belongs to
+     * @return the RoomManager of the conference
+     */
+    static RoomManager openRoomManager(LocalConferenceInitSystem<RoomManager> initRoom, String conference){
+        RoomManager roomManager = initRoom.getManager(conference, "RoomDataBase.ser", new RoomCodec());
+        if (roomManager == null) roomManager = new RoomManager();
+        initRoom.openJournal(conference, "RoomDataBase.ser", roomManager);
+        return roomManager;
+    }
+
+    /**
+     * Gets the EventManager of the given conference and records all its following mutations. The rooms of the
+     * conference have to be opened first, since replaying the event journal needs them.
+     * @param initEvent The LocalConferenceInitSystem that saves the EventManager later
+     * @param conference The conference the EventManager belongs to
+     * @param accountManager The AccountManager that has the accounts of the events
+     * @param roomManager The RoomManager that has the rooms of the events
+     * @return the EventManager of the conference
+     */
+    static EventManager openEventManager(LocalConferenceInitSystem<EventManager> initEvent, String conference,
+                                         AccountManager accountManager, RoomManager roomManager){
+        // Events refer to the accounts and rooms that are already loaded, instead of copies of them
+        EventManager eventManager = initEvent.getManager(conference, "EventDataBase.ser",
+                new EventCodec(accountManager::getEventObserver, roomManager::getEventObserver));
+        if (eventManager == null) eventManager = new EventManager();
+        eventManager.setObserverSources(accountManager::getEventObserver, roomManager::getEventObserver);
+        // The accounts are shared by all conferences, so they give out the event ids
+        eventManager.setEventNumbers(accountManager::nextEventNumber);
+        initEvent.openJournal(conference, "EventDataBase.ser", eventManager);
+        return eventManager;
+    }
+
     /**
      * Asks input for a new conference, checks if it is valid
      * @param sc A instance of scanner
@@ -54,13 +133,55 @@ public class LocalConferenceInitSystem<T> {
     }
 
     /**
-     * Saves the given manager into .ser file through gateway
+     * Saves the given manager through gateway. If a journal is open, only the new mutations are committed to it, and
+     * the use case stays in the ConferenceCache for the next time the conference is chosen. Nothing is written if the
+     * use case is unchanged since it was last saved.
      * @param conference the name of the conference this use case belonging to
      * @param filePath the path of the target file
      * @param manager the use case class requiring to be stored
      */
     void saveManager(String conference, String filePath, T manager){
-        DataSaver<T> managerDataSaver = new DataSaver<>();
-        managerDataSaver.saveToFile(managerDataSaver.getSrcPath(conference + filePath), manager);
+        if (resident == null) {
+            DataSaver<T> managerDataSaver = new DataSaver<>(codec);
+            managerDataSaver.saveToFile(managerDataSaver.getSrcPath(conference + filePath), manager);
+            return;
+        }
+        resident.commit();
+        ConferenceCache.getShared().checkIn(conference);
+    }
+
+    /**
+     * Saves the kept use case when it is evicted from the ConferenceCache, or before the program exits. Only the
+     * journal is committed, unless it has grown large enough that a new .ser snapshot is taken instead. The snapshot
+     * is written in the background, and the journal is emptied once the snapshot is durable.
+     */
+    void flush(){
+        if (manager.getVersion() == loadedVersion) {
+            journal.close();
+            return;
+        }
+        if (journal.commit() && journal.size() < Journal.CHECKPOINT_THRESHOLD) {
+            journal.close();
+            return;
+        }
+        Journal savedJournal = journal;
+        new DataSaver<>(codec).checkpoint(path, manager, savedJournal::reset)
+                .whenComplete((saved, ex) -> savedJournal.close());
+    }
+
+    private void commit(){
+        DataSaver<T> managerDataSaver = new DataSaver<>(codec);
+        if (manager.getVersion() == savedVersion) {
+            // The user only looked around, so neither the journal nor the .ser file needs to be written
+            managerDataSaver.reportSkippedSave(path);
+            return;
+        }
+        if (!journal.commit()) {
+            // The use case stays in memory and keeps recording, so the snapshot has to be durable before the
+            // journal is emptied
+            managerDataSaver.saveToFile(path, manager);
+            journal.reset();
+        }
+        savedVersion = manager.getVersion();
     }
 }
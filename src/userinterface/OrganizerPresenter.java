@@ -34,6 +34,7 @@ class OrganizerPresenter extends UserPresenter {
         options.add("create an event");
         options.add("view all rooms");
         options.add("add a room");
+        options.add("view the attendees of an event");
         super.printMenu(options, super.getReturnToMessage());
     }
 
@@ -46,6 +47,9 @@ class OrganizerPresenter extends UserPresenter {
         options.add("create a new account for someone else");
         options.add("upgrade an attendee account to a VIP");
         options.add("degrade a VIP to an attendee account");
+        options.add("delete an account");
+        options.add("upgrade many attendee accounts to VIPs");
+        options.add("degrade many VIPs to attendee accounts");
         super.printMenu(options, super.getReturnToMessage());
     }
 }
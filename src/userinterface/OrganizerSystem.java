@@ -4,6 +4,7 @@ import account.AccountEventSystem;
 import account.AccountManager;
 import account.AccountSystem;
 import event.EventSchedulerSystem;
+import event.EventSystem;
 import message.MessageSearchingSystem;
 import message.MessageSendingSystem;
 import message.MessagingManager;
@@ -138,6 +139,9 @@ class OrganizerSystem extends UserSystem {
                     case "8":
                         roomSystem.addRoom();
                         break;
+                    case "9":
+                        new EventSystem(eventManager).viewAttendees();
+                        break;
                     case "r":
                         return;
                     default:
@@ -159,15 +163,26 @@ class OrganizerSystem extends UserSystem {
             input = c.nextLine();
             if (!super.generalAccountOption(input)) {
                 switch(input) {
-                    case "5":
+                    case "8":
                         new AccountSystem(accountManager).addAccount();
                         break;
-                    case "6":
+                    case "9":
                         new AccountSystem(accountManager).upgradeAttendee(this.getMessageStatus());
                         break;
-                    case "7":
+                    case "10":
                         new AccountSystem(accountManager).degradeVIP(eventManager, this.getMessageStatus());
                         break;
+                    case "11":
+                        List<String> sent = new AccountSystem(accountManager).deleteAccount(this.username,
+                                eventManager);
+                        new MessageSendingSystem(accountManager, messagingManager).withdrawMessages(sent);
+                        break;
+                    case "12":
+                        new AccountSystem(accountManager).upgradeAttendees(this.getMessageStatus());
+                        break;
+                    case "13":
+                        new AccountSystem(accountManager).degradeVIPs(eventManager, this.getMessageStatus());
+                        break;
                     case "r":
                         return;
                     default:
@@ -27,6 +27,7 @@ class SpeakerPresenter extends UserPresenter {
     void printEventAccessMenu() {
         List<String> options = super.getGeneralEventAccessOptionMenu();
         options.add("view a list of events giving by you");
+        options.add("view the attendees of an event giving by you");
         super.printMenu(options, super.getReturnToMessage());
     }
 }
@@ -3,6 +3,7 @@ package userinterface;
 import account.AccountEventSystem;
 import account.AccountManager;
 import event.EventManager;
+import event.EventSystem;
 import message.MessageSearchingSystem;
 import message.MessageSendingSystem;
 import message.MessagingManager;
@@ -113,6 +114,9 @@ class SpeakerSystem extends UserSystem {
                     case "3":
                         new AccountEventSystem(accountManager).getSpecialListEvents(this.username);
                         break;
+                    case "4":
+                        new EventSystem(eventManager).viewAttendees(this.username);
+                        break;
                     case "r":
                         return;
                     default:
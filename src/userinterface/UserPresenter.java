@@ -57,7 +57,8 @@ public class UserPresenter extends MainPresenter {
                 "view message sent to a specific account",
                 "view unread message",
                 "view unread message from a specific account",
-                "view archived message"));
+                "view archived message",
+                "archive all messages from a specific account"));
     }
 
     /**
@@ -95,7 +96,10 @@ public class UserPresenter extends MainPresenter {
                 "view a schedule of events that available to you",
                 "view schedule of events on a given time",
                 "view schedule of events with a given room",
-                "view schedule of events by a specific Speaker"
+                "view schedule of events by a specific Speaker",
+                "view events held at a given time",
+                "view the next events from a given time",
+                "view schedule of events with a given room during a given time"
         ));
     }
 
@@ -123,7 +127,10 @@ public class UserPresenter extends MainPresenter {
                 "change password",
                 "view favourite user list",
                 "add account to favourite user list",
-                "delete account from favourite user list"
+                "delete account from favourite user list",
+                "view favourites in common with an account",
+                "view favourites attending an event",
+                "view suggested accounts to add to favourites"
         ));
     }
 
@@ -161,4 +168,4 @@ public class UserPresenter extends MainPresenter {
     void printAccountMenu() {
         super.printMenu(getGeneralAccountOptionMenu(), getReturnToMessage());
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
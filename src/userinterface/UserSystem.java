@@ -136,13 +136,13 @@ public abstract class UserSystem {
      * @param conference User's chosen conference
      */
     protected void initConference(String conference) {
-        LocalConferenceInitSystem<EventManager> initEvent = new LocalConferenceInitSystem<>();
-        this.eventManager = initEvent.getManager(conference, "EventDataBase.ser");
-        if (eventManager == null) eventManager = new EventManager();
-
+        // Rooms go first, since replaying the event journal needs the rooms
         LocalConferenceInitSystem<RoomManager> initRoom = new LocalConferenceInitSystem<>();
-        this.roomManager = initRoom.getManager(conference, "RoomDataBase.ser");
-        if (roomManager == null) roomManager = new RoomManager();
+        this.roomManager = LocalConferenceInitSystem.openRoomManager(initRoom, conference);
+
+        LocalConferenceInitSystem<EventManager> initEvent = new LocalConferenceInitSystem<>();
+        this.eventManager = LocalConferenceInitSystem.openEventManager(initEvent, conference, accountManager,
+                roomManager);
 
         selectOption();
 
@@ -250,6 +250,10 @@ public abstract class UserSystem {
             case "7":
                 messageSearchingSystem.getArchivedMessages(this.username, MessageStatus.ARCHIVE.toString());
                 return true;
+            case "8":
+                messageSearchingSystem.archiveMessagesFromSpecificAccount(this.username,
+                        MessageStatus.RECEIVED.toString(), MessageStatus.UNREAD.toString());
+                return true;
             default:
                 return false;
         }
@@ -313,6 +317,15 @@ public abstract class UserSystem {
             case "5":
                 accountEventSystem.getEventsBySpeaker();
                 return true;
+            case "6":
+                eventSystem.getEventAtTime();
+                return true;
+            case "7":
+                eventSystem.getNextEvents();
+                return true;
+            case "8":
+                eventSystem.getEventByLocationAndTime();
+                return true;
             default:
                 return false;
         }
@@ -364,6 +377,15 @@ public abstract class UserSystem {
             case "4":
                 accountSystem.removeFriend(this.username);
                 return true;
+            case "5":
+                accountSystem.viewMutualFriends(this.username);
+                return true;
+            case "6":
+                accountSystem.viewFriendsAttending(this.username, eventManager);
+                return true;
+            case "7":
+                accountSystem.viewFriendSuggestions(this.username);
+                return true;
             default:
                 return false;
         }
@@ -90,13 +90,13 @@ class VIPSystem extends UserSystem {
             if (!super.generalEventScheduleOption(input)) {
                 AccountEventSystem accountEventSystem = new AccountEventSystem(accountManager);
                 switch(input) {
-                    case "6":
+                    case "9":
                         new EventSystem(eventManager).printEventList(true);
                         break;
-                    case "7":
+                    case "10":
                         accountEventSystem.viewEventsAttendable(username, eventManager, true);
                         break;
-                    case "8":
+                    case "11":
                         accountEventSystem.getSpecialListEvents(username);
                         break;
                     case "r":